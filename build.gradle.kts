@@ -23,6 +23,8 @@ plugins {
     alias(libs.plugins.kotlinMultiplatform) apply false
     alias(libs.plugins.kotlinxSerialization) apply false
     alias(libs.plugins.kotlinParcelize) apply false
+    alias(libs.plugins.kotlinAllopen) apply false
+    alias(libs.plugins.kotlinx.benchmark) apply false
     alias(libs.plugins.googleServices) apply false
     alias(libs.plugins.nativeCocoapods) apply false
     id("org.barfuin.gradle.taskinfo") version "2.2.0"
@@ -12,6 +12,12 @@ plugins {
     alias(libs.plugins.kmp.nativecoroutines)
     alias(libs.plugins.app.cash.sqldelight)
     alias(libs.plugins.nativeCocoapods)
+    alias(libs.plugins.kotlinAllopen)
+    alias(libs.plugins.kotlinx.benchmark)
+}
+
+allOpen {
+    annotation("org.openjdk.jmh.annotations.State")
 }
 
 compose.resources {
@@ -42,7 +48,11 @@ kotlin {
 
     jvmToolchain(libs.versions.jvm.get().toInt())
 
-    jvm()
+    jvm {
+        compilations.create("benchmark") {
+            associateWith(this@jvm.compilations.getByName("main"))
+        }
+    }
 
     val xcf = XCFramework()
     listOf(
@@ -104,6 +114,10 @@ kotlin {
             api(project(":jade"))
             /** ----------------------------------------------------------------------------------------- */
 
+            /**  --- Serialization ---------------------------------------------------------------------- */
+            implementation(project(":serialization"))
+            /** ----------------------------------------------------------------------------------------- */
+
             /**  --- Kotlin & KotlinX ------------------------------------------------------------------- */
             api(libs.kotlinx.coroutines.core)
             api(libs.kotlinx.serialization.core)
@@ -167,6 +181,18 @@ kotlin {
             implementation(libs.sqldelight.sqlite.driver)
         }
 
+        // The GDK simulator is only built for tests and benchmarks, the desktop app has no GDK binding
+        val jvmTest by getting {
+            kotlin.srcDir("src/jvmSimulator/kotlin")
+        }
+
+        val jvmBenchmark by getting {
+            kotlin.srcDir("src/jvmSimulator/kotlin")
+            dependencies {
+                implementation(libs.kotlinx.benchmark.runtime)
+            }
+        }
+
         androidMain.dependencies {
             implementation(project(":gdk"))
             implementation(libs.sqldelight.android.driver)
@@ -201,6 +227,47 @@ kotlin {
     }
 }
 
+benchmark {
+    targets {
+        register("jvmBenchmark")
+    }
+
+    configurations {
+        named("main") {
+            warmups = 3
+            iterations = 5
+            iterationTime = 1
+            iterationTimeUnit = "s"
+            reportFormat = "json"
+        }
+
+        // Quick pass to check the benchmarks still run, not for comparison
+        register("smoke") {
+            warmups = 1
+            iterations = 2
+            iterationTime = 200
+            iterationTimeUnit = "ms"
+            reportFormat = "json"
+        }
+    }
+}
+
+// Keeps the latest main report under benchmarks/ so results can be compared across releases,
+// eg. ./gradlew :common:benchmark :common:archiveBenchmarks -Pbenchmark.label=4.1.0
+task<Copy>("archiveBenchmarks") {
+    val label = project.findProperty("benchmark.label")?.toString() ?: "latest"
+    // Each run writes its report in a directory named after its ISO start time, so the newest sorts last
+    from(layout.buildDirectory.dir("reports/benchmarks/main").map { reports ->
+        reports.asFile.listFiles()
+            ?.filter { it.resolve("jvmBenchmark.json").isFile }
+            ?.maxByOrNull { it.name }
+            ?.resolve("jvmBenchmark.json")
+            ?: throw GradleException("No benchmark report in ${reports.asFile}, run :common:benchmark first")
+    })
+    into(project.file("benchmarks"))
+    rename { "$label.json" }
+}
+
 task("fetchIosBinaries") {
     doFirst{
         val exists = project.file("src/include").exists() && project.file("src/libs").exists()
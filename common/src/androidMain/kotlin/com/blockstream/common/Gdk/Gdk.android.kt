@@ -1,6 +1,5 @@
 package com.blockstream.common.gdk
 
-import com.blockstream.common.gdk.JsonConverter.Companion.JsonDeserializer
 import com.blockstream.common.gdk.data.AuthHandlerStatus
 import com.blockstream.common.gdk.data.FeeEstimation
 import com.blockstream.common.gdk.data.LiquidAssets
@@ -38,7 +37,6 @@ import com.blockstream.common.gdk.params.UpdateSubAccountParams
 import com.blockstream.common.gdk.params.ValidateAddresseesParams
 import com.blockstream.green_gdk.GDK
 import kotlinx.serialization.json.JsonElement
-import kotlinx.serialization.json.decodeFromJsonElement
 
 class AndroidGdk(log: Boolean, config: InitConfig) : GdkBinding {
     private val _dataDir: String = config.datadir
@@ -67,7 +65,7 @@ class AndroidGdk(log: Boolean, config: InitConfig) : GdkBinding {
     override fun reconnectHint(session: GASession, hint: ReconnectHintParams) = GDK.reconnect_hint(session, hint)
 
     override fun getProxySettings(session: GASession): ProxySettings {
-        return JsonDeserializer.decodeFromJsonElement(GDK.get_proxy_settings(session) as JsonElement)
+        return JsonConverter.decode(GDK.get_proxy_settings(session))
     }
 
     override fun registerUser(
@@ -87,11 +85,11 @@ class AndroidGdk(log: Boolean, config: InitConfig) : GdkBinding {
         connectionParams: ConnectionParams,
         loginCredentialsParams: LoginCredentialsParams
     ): LoginData {
-        return JsonDeserializer.decodeFromJsonElement(
+        return JsonConverter.decode(
             GDK.get_wallet_identifier(
             connectionParams,
             loginCredentialsParams
-        ) as JsonElement)
+        ))
     }
 
     override fun validate(session: GASession, params: JsonElement): GAAuthHandler {
@@ -138,11 +136,11 @@ class AndroidGdk(log: Boolean, config: InitConfig) : GdkBinding {
 
 
     override fun getAssets(session: GASession, params: GetAssetsParams): LiquidAssets {
-        return JsonDeserializer.decodeFromJsonElement(
+        return JsonConverter.decode(
             GDK.get_assets(
                 session,
                 params
-            ) as JsonElement)
+            ))
     }
 
     override fun getTransactions(session: GASession, details: TransactionParams): GAAuthHandler {
@@ -150,7 +148,7 @@ class AndroidGdk(log: Boolean, config: InitConfig) : GdkBinding {
     }
 
     override fun getTwoFactorConfig(session: GASession): TwoFactorConfig {
-        return JsonDeserializer.decodeFromJsonElement(GDK.get_twofactor_config(session) as JsonElement)
+        return JsonConverter.decode(GDK.get_twofactor_config(session))
     }
 
     override fun changeSettingsTwoFactor(
@@ -174,16 +172,16 @@ class AndroidGdk(log: Boolean, config: InitConfig) : GdkBinding {
     }
 
     override fun getSettings(session: GASession): Settings {
-        return JsonDeserializer.decodeFromJsonElement(GDK.get_settings(session) as JsonElement)
+        return JsonConverter.decode(GDK.get_settings(session))
     }
 
     @Throws
     override fun getAvailableCurrencies(session: GASession): List<Pricing> {
-        return Pricing.fromJsonElement(GDK.get_available_currencies(session) as JsonElement)
+        return Pricing.fromJsonElement(JsonConverter.toJsonElement(GDK.get_available_currencies(session)))
     }
 
     override fun getAuthHandlerStatus(gaAuthHandler: GAAuthHandler): AuthHandlerStatus {
-        return JsonDeserializer.decodeFromJsonElement(GDK.auth_handler_get_status(gaAuthHandler) as JsonElement)
+        return AuthHandlerStatus.from(GDK.auth_handler_get_status(gaAuthHandler).toString())
     }
 
     override fun authHandlerCall(gaAuthHandler: GAAuthHandler) = GDK.auth_handler_call(gaAuthHandler)
@@ -228,7 +226,7 @@ class AndroidGdk(log: Boolean, config: InitConfig) : GdkBinding {
 
 
     override fun getFeeEstimates(session: GASession): FeeEstimation {
-        return JsonDeserializer.decodeFromJsonElement(GDK.get_fee_estimates(session) as JsonElement)
+        return JsonConverter.decode(GDK.get_fee_estimates(session))
     }
 
     override fun getSystemMessage(session: GASession): String? {
@@ -244,12 +242,12 @@ class AndroidGdk(log: Boolean, config: InitConfig) : GdkBinding {
     }
 
     override fun convertAmount(session: GASession, convert: JsonElement): JsonElement {
-        return GDK.convert_amount(session, convert) as JsonElement
+        return JsonConverter.toJsonElement(GDK.convert_amount(session, convert))
     }
 
     private var _cachedNetworks: Networks? = null
     override fun networks(): Networks {
-        return _cachedNetworks ?: Networks.fromJsonElement(GDK.get_networks() as JsonElement).also {
+        return _cachedNetworks ?: Networks.fromJsonElement(JsonConverter.toJsonElement(GDK.get_networks())).also {
             _cachedNetworks = it
         }
     }
@@ -327,7 +325,7 @@ class AndroidGdk(log: Boolean, config: InitConfig) : GdkBinding {
 
 
     override fun httpRequest(session: GASession, data: JsonElement): JsonElement {
-        return GDK.http_request(session, data) as JsonElement
+        return JsonConverter.toJsonElement(GDK.http_request(session, data))
     }
 
     override fun generateMnemonic12(): String = GDK.generate_mnemonic_12()
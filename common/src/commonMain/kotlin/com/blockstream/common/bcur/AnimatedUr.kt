@@ -0,0 +1,72 @@
+package com.blockstream.common.bcur
+
+import com.blockstream.common.utils.Loggable
+
+// Bytes of the message per QR frame
+enum class QrDensity(val maxFragmentLen: Int) {
+    Low(50), Medium(120), High(250)
+}
+
+enum class QrFrameRate(val fps: Int) {
+    Slow(2), Medium(4), Fast(8);
+
+    val frameDurationMillis: Long
+        get() = 1000L / fps
+}
+
+/**
+ * The frames of an animated QR: a loop over the message fragments followed by fountain coded
+ * parts, so a receiver that missed some frames completes without waiting for the next loop.
+ *
+ * The frames are a fixed cycle so that they can be rendered once and reused on every loop.
+ * Parts are uppercase, URs are case insensitive and uppercase text is encoded in the denser
+ * alphanumeric QR mode instead of byte mode.
+ */
+class AnimatedUr private constructor(parts: List<String>, val seqLen: Int) {
+
+    val parts: List<String> = parts.map { it.uppercase() }
+
+    val isAnimated: Boolean
+        get() = parts.size > 1
+
+    fun loopDurationMillis(frameRate: QrFrameRate): Long = parts.size * frameRate.frameDurationMillis
+
+    companion object : Loggable() {
+        // Share of fountain parts appended to the fragments loop
+        private const val FOUNTAIN_RATIO = 0.5
+
+        fun create(ur: Ur, density: QrDensity): AnimatedUr {
+            val encoder = UrEncoder(ur, maxFragmentLen = density.maxFragmentLen)
+
+            if (encoder.isSinglePart) {
+                return AnimatedUr(parts = listOf(ur.toSinglePart()), seqLen = 1)
+            }
+
+            val fountainParts = maxOf(1, (encoder.seqLen * FOUNTAIN_RATIO).toInt())
+
+            return AnimatedUr(
+                parts = List(encoder.seqLen + fountainParts) { encoder.nextPart() },
+                seqLen = encoder.seqLen
+            )
+        }
+
+        // Re-encodes the parts produced by GDK with the requested density
+        fun create(parts: List<String>, density: QrDensity): AnimatedUr {
+            val ur = try {
+                if (parts.size == 1 && !UrDecoder.isMultipart(parts.first())) {
+                    Ur.parse(parts.first())
+                } else {
+                    UrDecoder().also { decoder -> parts.forEach { decoder.receivePart(it) } }.result
+                }
+            } catch (e: Exception) {
+                e.printStackTrace()
+                null
+            }
+
+            return ur?.let { create(it, density) } ?: run {
+                logger.d { "Displaying parts as provided" }
+                AnimatedUr(parts = parts, seqLen = parts.size)
+            }
+        }
+    }
+}
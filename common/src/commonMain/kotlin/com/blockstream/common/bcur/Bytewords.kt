@@ -0,0 +1,75 @@
+package com.blockstream.common.bcur
+
+/**
+ * Minimal Bytewords encoding as used by BC-UR: every byte is mapped to the first and last letter
+ * of its word and the payload is followed by its CRC32 checksum.
+ */
+object Bytewords {
+    private const val WORDS =
+        "ableacidalsoapexaquaarchatomauntawayaxisbackbaldbarnbeltbetabiasbluebodybragbrewbulbbuzzcalmcashcatschefcityclawcodecolacookcost" +
+        "cruxcurlcuspcyandarkdatadaysdelidicedietdoordowndrawdropdrumdulldutyeacheasyechoedgeepicevenexamexiteyesfactfairfernfigsfilmfish" +
+        "fizzflapflewfluxfoxyfreefrogfuelfundgalagamegeargemsgiftgirlglowgoodgraygrimgurugushgyrohalfhanghardhawkheathelphighhillholyhope" +
+        "hornhutsicedideaidleinchinkyintoirisironitemjadejazzjoinjoltjowljudojugsjumpjunkjurykeepkenokeptkeyskickkilnkingkitekiwiknoblamb" +
+        "lavalazyleaflegsliarlimplionlistlogoloudloveluaulucklungmainmanymathmazememomenumeowmildmintmissmonknailnavyneednewsnextnoonnote" +
+        "numbobeyoboeomitonyxopenovalowlspaidpartpeckplaypluspoempoolposepuffpumapurrquadquizraceramprealredorichroadrockroofrubyruinruns" +
+        "rustsafesagascarsetssilkskewslotsoapsolosongstubsurfswantacotasktaxitenttiedtimetinytoiltombtoystriptunatwinuglyundouniturgeuser" +
+        "vastveryvetovialvibeviewvisavoidvowswallwandwarmwaspwavewaxywebswhatwhenwhizwolfworkyankyawnyellyogayurtzapszerozestzinczonezoom"
+
+    private val minimalWords = Array(256) { "${WORDS[it * 4]}${WORDS[it * 4 + 3]}" }
+
+    // Index of a minimal word by its two letters, -1 if unknown
+    private val minimalIndex = IntArray(26 * 26) { -1 }.also { index ->
+        minimalWords.forEachIndexed { byte, word ->
+            index[(word[0] - 'a') * 26 + (word[1] - 'a')] = byte
+        }
+    }
+
+    fun encodeMinimal(data: ByteArray): String {
+        val checksum = Crc32.checksum(data)
+
+        return buildString((data.size + 4) * 2) {
+            data.forEach { append(minimalWords[it.toInt() and 0xff]) }
+            for (shift in 24 downTo 0 step 8) {
+                append(minimalWords[((checksum ushr shift) and 0xff).toInt()])
+            }
+        }
+    }
+
+    fun decodeMinimal(text: String): ByteArray {
+        require(text.length % 2 == 0 && text.length >= 10) { "Invalid bytewords length" }
+
+        val bytes = ByteArray(text.length / 2) { i ->
+            val first = text[i * 2].lowercaseChar() - 'a'
+            val last = text[i * 2 + 1].lowercaseChar() - 'a'
+            require(first in 0 until 26 && last in 0 until 26) { "Invalid bytewords" }
+            minimalIndex[first * 26 + last].also {
+                require(it >= 0) { "Invalid bytewords" }
+            }.toByte()
+        }
+
+        val data = bytes.copyOfRange(0, bytes.size - 4)
+        val checksum = bytes.copyOfRange(bytes.size - 4, bytes.size).fold(0L) { acc, b -> (acc shl 8) or (b.toLong() and 0xff) }
+
+        require(Crc32.checksum(data) == checksum) { "Invalid bytewords checksum" }
+
+        return data
+    }
+}
+
+internal object Crc32 {
+    private val table = IntArray(256) { n ->
+        var c = n
+        repeat(8) {
+            c = if (c and 1 != 0) (c ushr 1) xor 0xEDB88320.toInt() else c ushr 1
+        }
+        c
+    }
+
+    fun checksum(data: ByteArray): Long {
+        var crc = -1
+        data.forEach {
+            crc = table[(crc xor it.toInt()) and 0xff] xor (crc ushr 8)
+        }
+        return crc.inv().toLong() and 0xffffffffL
+    }
+}
@@ -0,0 +1,208 @@
+package com.blockstream.common.bcur
+
+import okio.ByteString.Companion.toByteString
+
+/**
+ * A fragment of a multipart UR, the CBOR array `[seqNum, seqLen, messageLen, checksum, data]`.
+ *
+ * Parts up to [seqLen] carry a single fragment of the message, the following ones are the XOR
+ * of the fragments selected by [fragmentIndexes].
+ */
+class UrPart internal constructor(
+    val seqNum: Int,
+    val seqLen: Int,
+    val messageLen: Int,
+    val checksum: Long,
+    val data: ByteArray
+) {
+    val fragmentIndexes: Set<Int> by lazy { chooseFragments(seqNum, seqLen, checksum) }
+
+    fun toCbor(): ByteArray = CborWriter().apply {
+        writeHead(MAJOR_ARRAY, 5)
+        writeHead(MAJOR_UNSIGNED, seqNum.toLong())
+        writeHead(MAJOR_UNSIGNED, seqLen.toLong())
+        writeHead(MAJOR_UNSIGNED, messageLen.toLong())
+        writeHead(MAJOR_UNSIGNED, checksum)
+        writeBytes(data)
+    }.toByteArray()
+
+    companion object {
+        fun fromCbor(cbor: ByteArray): UrPart {
+            val reader = CborReader(cbor)
+
+            require(reader.readHead(MAJOR_ARRAY) == 5L) { "Invalid UR part" }
+
+            val seqNum = reader.readHead(MAJOR_UNSIGNED)
+            val seqLen = reader.readHead(MAJOR_UNSIGNED)
+            val messageLen = reader.readHead(MAJOR_UNSIGNED)
+            val checksum = reader.readHead(MAJOR_UNSIGNED)
+            val data = reader.readBytes()
+
+            require(seqNum in 1..Int.MAX_VALUE && seqLen in 1..Int.MAX_VALUE && messageLen in 1..Int.MAX_VALUE) { "Invalid UR part" }
+            require(checksum <= 0xffffffffL && data.isNotEmpty()) { "Invalid UR part" }
+
+            return UrPart(seqNum.toInt(), seqLen.toInt(), messageLen.toInt(), checksum, data)
+        }
+    }
+}
+
+// Fragments mixed in a part, as selected by the reference fountain encoder
+internal fun chooseFragments(seqNum: Int, seqLen: Int, checksum: Long): Set<Int> {
+    if (seqNum <= seqLen) return setOf(seqNum - 1)
+
+    val seed = ByteArray(8)
+    for (i in 0 until 4) {
+        seed[i] = (seqNum ushr (24 - i * 8)).toByte()
+        seed[4 + i] = (checksum ushr (24 - i * 8)).toByte()
+    }
+
+    val rng = Xoshiro256(seed)
+    val degree = RandomSampler(List(seqLen) { 1.0 / (it + 1) }).next(rng) + 1
+
+    val remaining = MutableList(seqLen) { it }
+    return buildSet {
+        while (size < degree) {
+            add(remaining.removeAt(rng.nextInt(0, remaining.size - 1)))
+        }
+    }
+}
+
+/** Xoshiro256** seeded with the SHA256 of the seed, as specified by BC-UR. */
+internal class Xoshiro256(seed: ByteArray) {
+    private val s = LongArray(4)
+
+    init {
+        val digest = seed.toByteString().sha256().toByteArray()
+        for (i in 0 until 4) {
+            s[i] = (0 until 8).fold(0L) { acc, n -> (acc shl 8) or (digest[i * 8 + n].toLong() and 0xff) }
+        }
+    }
+
+    fun next(): ULong {
+        val result = (s[1] * 5).rotateLeft(7) * 9
+        val t = s[1] shl 17
+
+        s[2] = s[2] xor s[0]
+        s[3] = s[3] xor s[1]
+        s[1] = s[1] xor s[2]
+        s[0] = s[0] xor s[3]
+
+        s[2] = s[2] xor t
+        s[3] = s[3].rotateLeft(45)
+
+        return result.toULong()
+    }
+
+    fun nextDouble(): Double = next().toDouble() / TWO_POW_64
+
+    fun nextInt(low: Int, high: Int): Int = (nextDouble() * (high - low + 1)).toLong().toInt() + low
+
+    companion object {
+        private const val TWO_POW_64 = 18446744073709551616.0
+    }
+}
+
+/** Walker's alias method, matching the reference implementation draw for draw. */
+internal class RandomSampler(probabilities: List<Double>) {
+    private val probs: DoubleArray
+    private val aliases: IntArray
+
+    init {
+        val n = probabilities.size
+        val sum = probabilities.sum()
+        val p = DoubleArray(n) { probabilities[it] * n / sum }
+
+        val small = ArrayDeque<Int>()
+        val large = ArrayDeque<Int>()
+        for (i in n - 1 downTo 0) {
+            if (p[i] < 1) small.addLast(i) else large.addLast(i)
+        }
+
+        probs = DoubleArray(n)
+        aliases = IntArray(n)
+
+        while (small.isNotEmpty() && large.isNotEmpty()) {
+            val a = small.removeLast()
+            val g = large.removeLast()
+            probs[a] = p[a]
+            aliases[a] = g
+            p[g] += p[a] - 1
+            if (p[g] < 1) small.addLast(g) else large.addLast(g)
+        }
+
+        while (large.isNotEmpty()) probs[large.removeLast()] = 1.0
+        while (small.isNotEmpty()) probs[small.removeLast()] = 1.0
+    }
+
+    fun next(rng: Xoshiro256): Int {
+        val r1 = rng.nextDouble()
+        val r2 = rng.nextDouble()
+        val i = (probs.size * r1).toInt()
+        return if (r2 < probs[i]) i else aliases[i]
+    }
+}
+
+internal const val MAJOR_UNSIGNED = 0
+internal const val MAJOR_BYTES = 2
+internal const val MAJOR_ARRAY = 4
+
+internal class CborReader(private val data: ByteArray) {
+    private var position = 0
+
+    private fun readByte(): Int {
+        require(position < data.size) { "Unexpected end of CBOR" }
+        return data[position++].toInt() and 0xff
+    }
+
+    fun readHead(major: Int): Long {
+        val initial = readByte()
+        require(initial ushr 5 == major) { "Unexpected CBOR type" }
+
+        return when (val info = initial and 0x1f) {
+            in 0..23 -> info.toLong()
+            24 -> readByte().toLong()
+            25 -> (0 until 2).fold(0L) { acc, _ -> (acc shl 8) or readByte().toLong() }
+            26 -> (0 until 4).fold(0L) { acc, _ -> (acc shl 8) or readByte().toLong() }
+            27 -> (0 until 8).fold(0L) { acc, _ -> (acc shl 8) or readByte().toLong() }.also {
+                require(it >= 0) { "Unsupported CBOR value" }
+            }
+            else -> throw IllegalArgumentException("Unsupported CBOR value")
+        }
+    }
+
+    fun readBytes(): ByteArray {
+        val length = readHead(MAJOR_BYTES)
+        require(length <= data.size - position) { "Unexpected end of CBOR" }
+        return data.copyOfRange(position, position + length.toInt()).also {
+            position += length.toInt()
+        }
+    }
+}
+
+internal class CborWriter {
+    private val buffer = mutableListOf<ByteArray>()
+
+    fun writeHead(major: Int, value: Long) {
+        val type = major shl 5
+        buffer += when {
+            value < 24 -> byteArrayOf((type or value.toInt()).toByte())
+            value <= 0xff -> byteArrayOf((type or 24).toByte(), value.toByte())
+            value <= 0xffff -> byteArrayOf((type or 25).toByte(), (value ushr 8).toByte(), value.toByte())
+            value <= 0xffffffffL -> ByteArray(5) { if (it == 0) (type or 26).toByte() else (value ushr (32 - it * 8)).toByte() }
+            else -> ByteArray(9) { if (it == 0) (type or 27).toByte() else (value ushr (64 - it * 8)).toByte() }
+        }
+    }
+
+    fun writeBytes(bytes: ByteArray) {
+        writeHead(MAJOR_BYTES, bytes.size.toLong())
+        buffer += bytes
+    }
+
+    fun toByteArray(): ByteArray = ByteArray(buffer.sumOf { it.size }).also { out ->
+        var offset = 0
+        buffer.forEach {
+            it.copyInto(out, offset)
+            offset += it.size
+        }
+    }
+}
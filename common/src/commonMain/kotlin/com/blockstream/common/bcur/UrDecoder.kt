@@ -0,0 +1,205 @@
+package com.blockstream.common.bcur
+
+import com.blockstream.common.utils.Loggable
+
+/** A decoded UR, [cbor] being the CBOR encoded message of [type]. */
+class Ur(val type: String, val cbor: ByteArray) {
+    // Single part representation, eg. to be decoded by GDK without further frames
+    fun toSinglePart(): String = "ur:$type/${Bytewords.encodeMinimal(cbor)}"
+
+    companion object {
+        fun parse(singlePart: String): Ur {
+            val components = singlePart.lowercase().takeIf { it.startsWith("ur:") }?.substring(3)?.split('/')
+            require(components != null && components.size == 2 && components[0].isNotEmpty()) { "Invalid UR" }
+
+            return Ur(type = components[0], cbor = Bytewords.decodeMinimal(components[1]))
+        }
+    }
+}
+
+/** All the fragments were received but the message doesn't match its checksum, the decoder started over. */
+class UrChecksumException : IllegalArgumentException("Invalid UR checksum")
+
+/**
+ * Incremental decoder of fountain encoded multipart URs (`ur:type/seqNum-seqLen/bytewords`).
+ *
+ * Frames can be received in any order and any number of times: repeated sequence numbers are
+ * dropped before their body is decoded, simple parts are stored as recovered fragments and mixed
+ * parts are reduced against the known fragments until they resolve one.
+ *
+ * Not thread safe, frames are expected to be delivered by a single consumer.
+ */
+class UrDecoder {
+    private var type: String? = null
+    private var seqLen = 0
+    private var messageLen = 0
+    private var checksum = 0L
+    private var fragmentLen = 0
+
+    private val receivedSeqNums = HashSet<Int>()
+    private val fragments = HashMap<Int, ByteArray>()
+
+    // Mixed parts not yet resolved, keyed by their remaining fragment indexes
+    private val mixedParts = HashMap<Set<Int>, ByteArray>()
+
+    var result: Ur? = null
+        private set
+
+    val isComplete: Boolean
+        get() = result != null
+
+    // Exact share of the message already recovered
+    val progress: Int
+        get() = if (seqLen == 0) 0 else fragments.size * 100 / seqLen
+
+    /** Returns true if the frame was new and accepted. */
+    fun receivePart(frame: String): Boolean {
+        if (isComplete) return false
+
+        val (partType, seqNum, partSeqLen, body) = parse(frame)
+
+        if (type != null && (type != partType || seqLen != partSeqLen)) {
+            logger.d { "Ignoring part of a different UR" }
+            return false
+        }
+
+        if (!receivedSeqNums.add(seqNum)) return false
+
+        val part = try {
+            UrPart.fromCbor(Bytewords.decodeMinimal(body))
+        } catch (e: IllegalArgumentException) {
+            // Misread frame, a later loop delivers it again
+            receivedSeqNums.remove(seqNum)
+            logger.d { "Invalid part $seqNum: ${e.message}" }
+            return false
+        }
+
+        require(part.seqNum == seqNum && part.seqLen == partSeqLen) { "Invalid UR part" }
+
+        if (type == null) {
+            require(part.messageLen <= part.seqLen.toLong() * part.data.size) { "Invalid UR part" }
+
+            type = partType
+            seqLen = part.seqLen
+            messageLen = part.messageLen
+            checksum = part.checksum
+            fragmentLen = part.data.size
+        } else if (part.messageLen != messageLen || part.checksum != checksum || part.data.size != fragmentLen) {
+            return false
+        }
+
+        process(part.fragmentIndexes, part.data)
+
+        if (fragments.size == seqLen) {
+            complete()
+        }
+
+        return true
+    }
+
+    private fun process(indexes: Set<Int>, data: ByteArray) {
+        val queue = ArrayDeque<Pair<Set<Int>, ByteArray>>()
+        queue.addLast(indexes to data)
+
+        while (queue.isNotEmpty()) {
+            val (partIndexes, partData) = queue.removeFirst()
+
+            if (partIndexes.size == 1) {
+                val index = partIndexes.first()
+                if (fragments.containsKey(index)) continue
+
+                fragments[index] = partData
+
+                // Reduce the mixed parts containing the new fragment
+                mixedParts.keys.filter { it.contains(index) }.forEach { mixedIndexes ->
+                    val mixedData = mixedParts.remove(mixedIndexes)!!
+                    queue.addLast(mixedIndexes - index to mixedData.xor(partData))
+                }
+            } else {
+                // Remove the known fragments from the mixed part
+                var remainingIndexes = partIndexes
+                var remainingData = partData
+
+                partIndexes.forEach { index ->
+                    fragments[index]?.also {
+                        remainingIndexes = remainingIndexes - index
+                        remainingData = remainingData.xor(it)
+                    }
+                }
+
+                // Fully known part
+                if (remainingIndexes.isEmpty()) continue
+
+                if (remainingIndexes.size == 1 || mixedParts.containsKey(remainingIndexes)) {
+                    if (remainingIndexes.size == 1) queue.addLast(remainingIndexes to remainingData)
+                    continue
+                }
+
+                // Reduce by a known mixed part that is a subset, or reduce the ones this part is a subset of
+                val subset = mixedParts.keys.firstOrNull { remainingIndexes.containsAll(it) }
+                if (subset != null) {
+                    queue.addLast(remainingIndexes - subset to remainingData.xor(mixedParts[subset]!!))
+                    continue
+                }
+
+                mixedParts.keys.filter { it.containsAll(remainingIndexes) }.forEach { supersetIndexes ->
+                    val supersetData = mixedParts.remove(supersetIndexes)!!
+                    queue.addLast(supersetIndexes - remainingIndexes to supersetData.xor(remainingData))
+                }
+
+                mixedParts[remainingIndexes] = remainingData
+            }
+        }
+    }
+
+    private fun complete() {
+        val message = ByteArray(messageLen)
+        for (index in 0 until seqLen) {
+            val fragment = fragments[index]!!
+            val offset = index * fragmentLen
+            if (offset >= messageLen) break
+            fragment.copyInto(message, offset, 0, minOf(fragmentLen, messageLen - offset))
+        }
+
+        mixedParts.clear()
+
+        if (Crc32.checksum(message) != checksum) {
+            // Start over, a corrupted fragment can't be told apart
+            reset()
+            throw UrChecksumException()
+        }
+
+        result = Ur(type = type!!, cbor = message)
+    }
+
+    fun reset() {
+        type = null
+        seqLen = 0
+        receivedSeqNums.clear()
+        fragments.clear()
+        mixedParts.clear()
+        result = null
+    }
+
+    private data class Frame(val type: String, val seqNum: Int, val seqLen: Int, val body: String)
+
+    companion object : Loggable() {
+
+        fun isMultipart(frame: String): Boolean = frame.count { it == '/' } == 2
+
+        private fun parse(frame: String): Frame {
+            val components = frame.lowercase().takeIf { it.startsWith("ur:") }?.substring(3)?.split('/')
+            require(components != null && components.size == 3) { "Invalid multipart UR" }
+
+            val (type, sequence, body) = components
+            val (seqNum, seqLen) = sequence.split('-').mapNotNull { it.toIntOrNull() }.takeIf { it.size == 2 } ?: listOf(0, 0)
+
+            require(type.isNotEmpty() && type.all { it in 'a'..'z' || it in '0'..'9' || it == '-' }) { "Invalid UR type" }
+            require(seqNum > 0 && seqLen > 0) { "Invalid UR sequence" }
+
+            return Frame(type = type, seqNum = seqNum, seqLen = seqLen, body = body)
+        }
+
+        private fun ByteArray.xor(other: ByteArray): ByteArray = ByteArray(size) { (this[it].toInt() xor other[it].toInt()).toByte() }
+    }
+}
@@ -0,0 +1,61 @@
+package com.blockstream.common.bcur
+
+/**
+ * Fountain encoder of multipart URs, interoperable with [UrDecoder] and the reference BC-UR
+ * implementations. The first [seqLen] parts are the message fragments in order, the following
+ * ones are mixed parts that let a decoder recover frames it missed.
+ */
+class UrEncoder(
+    private val ur: Ur,
+    maxFragmentLen: Int,
+    minFragmentLen: Int = 10,
+    firstSeqNum: Int = 0
+) {
+    private val checksum = Crc32.checksum(ur.cbor)
+
+    val fragmentLen = findNominalFragmentLength(ur.cbor.size, minFragmentLen, maxFragmentLen)
+
+    private val fragments: List<ByteArray> = List((ur.cbor.size + fragmentLen - 1) / fragmentLen) { index ->
+        ByteArray(fragmentLen).also {
+            ur.cbor.copyInto(it, 0, index * fragmentLen, minOf(ur.cbor.size, (index + 1) * fragmentLen))
+        }
+    }
+
+    val seqLen: Int
+        get() = fragments.size
+
+    val isSinglePart: Boolean
+        get() = seqLen == 1
+
+    var seqNum: Int = firstSeqNum
+        private set
+
+    fun nextPart(): String {
+        seqNum++
+
+        val data = ByteArray(fragmentLen)
+        chooseFragments(seqNum, seqLen, checksum).forEach { index ->
+            fragments[index].forEachIndexed { i, b -> data[i] = (data[i].toInt() xor b.toInt()).toByte() }
+        }
+
+        val part = UrPart(seqNum = seqNum, seqLen = seqLen, messageLen = ur.cbor.size, checksum = checksum, data = data)
+
+        return "ur:${ur.type}/$seqNum-$seqLen/${Bytewords.encodeMinimal(part.toCbor())}"
+    }
+
+    companion object {
+        fun findNominalFragmentLength(messageLen: Int, minFragmentLen: Int, maxFragmentLen: Int): Int {
+            require(messageLen > 0 && minFragmentLen > 0 && maxFragmentLen >= minFragmentLen)
+
+            val maxFragmentCount = maxOf(1, messageLen / minFragmentLen)
+            var fragmentLen = messageLen
+
+            for (fragmentCount in 1..maxFragmentCount) {
+                fragmentLen = (messageLen + fragmentCount - 1) / fragmentCount
+                if (fragmentLen <= maxFragmentLen) break
+            }
+
+            return fragmentLen
+        }
+    }
+}
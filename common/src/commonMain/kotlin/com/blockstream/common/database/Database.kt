@@ -3,6 +3,7 @@ package com.blockstream.common.database
 import app.cash.sqldelight.coroutines.asFlow
 import app.cash.sqldelight.db.SqlDriver
 import com.blockstream.common.data.CredentialType
+import com.blockstream.common.data.EncryptedData
 import com.blockstream.common.data.GreenWallet
 import com.blockstream.common.data.toGreenWallet
 import com.blockstream.common.managers.SettingsManager
@@ -30,7 +31,9 @@ fun createDatabase(driverFactory: DriverFactory): GreenDB {
             pin_dataAdapter = pinDataAdapter,
             encrypted_dataAdapter = encryptedDataAdapter
         ),
-        walletAdapter = Wallet.Adapter(device_identifiersAdapter = deviceIdentifierAdapter, extrasAdapter = walletExtrasTypeAdapter)
+        walletAdapter = Wallet.Adapter(device_identifiersAdapter = deviceIdentifierAdapter, extrasAdapter = walletExtrasTypeAdapter),
+        hwCacheAdapter = HwCache.Adapter(entriesAdapter = encryptedDataAdapter),
+        walletSnapshotAdapter = WalletSnapshot.Adapter(snapshotAdapter = encryptedDataAdapter)
     )
 
     return database
@@ -140,7 +143,19 @@ class Database(driverFactory: DriverFactory, val settingsManager: SettingsManage
     }
 
     suspend fun deleteWallet(id: String) = io {
-        db.walletQueries.deleteWallet(id)
+        db.walletQueries.transaction {
+            val isHardware = db.walletQueries.getWallet(id).executeAsOneOrNull()?.is_hardware == true
+
+            db.walletQueries.deleteWallet(id)
+            // Snapshots are shared by wallets with the same xpub hash id
+            db.walletSnapshotQueries.deleteOrphanWalletSnapshots()
+
+            // Device caches are keyed by the device and not by the wallet, drop them all so that
+            // no xpub or script of the removed wallet is left behind, other devices refill theirs on login
+            if (isHardware) {
+                db.hwCacheQueries.deleteAllHwCaches()
+            }
+        }
     }
 
     suspend fun walletExists(xPubHashId: String, isHardware: Boolean): Boolean = io {
@@ -231,5 +246,45 @@ class Database(driverFactory: DriverFactory, val settingsManager: SettingsManage
         )
     }
 
+    suspend fun getHwCache(deviceId: String, network: String, type: String): EncryptedData? = io {
+        db.hwCacheQueries.getHwCache(device_id = deviceId, network = network, type = type).executeAsOneOrNull()
+    }
+
+    suspend fun replaceHwCache(deviceId: String, network: String, type: String, entries: EncryptedData) = io {
+        db.hwCacheQueries.replaceHwCache(
+            device_id = deviceId,
+            network = network,
+            type = type,
+            entries = entries
+        )
+    }
+
+    suspend fun deleteHwCaches(deviceId: String) = io {
+        db.hwCacheQueries.deleteHwCaches(device_id = deviceId)
+    }
+
+    suspend fun getWalletSnapshot(xPubHashId: String): EncryptedData? = io {
+        db.walletSnapshotQueries.getWalletSnapshot(xpub_hash_id = xPubHashId).executeAsOneOrNull()
+    }
+
+    // Returns false if there is no stored wallet for the xpub hash id
+    suspend fun replaceWalletSnapshot(xPubHashId: String, snapshot: EncryptedData, updatedAt: Long): Boolean = io {
+        db.walletSnapshotQueries.transactionWithResult {
+            db.walletSnapshotQueries.walletWithXpubHashIdExists(xpub_hash_id = xPubHashId).executeAsOne().also { exists ->
+                if (exists) {
+                    db.walletSnapshotQueries.replaceWalletSnapshot(
+                        xpub_hash_id = xPubHashId,
+                        snapshot = snapshot,
+                        updated_at = updatedAt
+                    )
+                }
+            }
+        }
+    }
+
+    suspend fun deleteWalletSnapshot(xPubHashId: String) = io {
+        db.walletSnapshotQueries.deleteWalletSnapshot(xpub_hash_id = xPubHashId)
+    }
+
     companion object : Loggable()
 }
\ No newline at end of file
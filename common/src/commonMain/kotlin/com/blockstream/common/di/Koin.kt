@@ -8,6 +8,9 @@ import com.blockstream.common.data.AppConfig
 import com.blockstream.common.data.AppInfo
 import com.blockstream.common.database.Database
 import com.blockstream.common.gdk.Gdk
+import com.blockstream.common.gdk.WalletSnapshotStore
+import com.blockstream.common.gdk.device.HwBlindingKeyCache
+import com.blockstream.common.gdk.device.HwXpubCache
 import com.blockstream.common.gdk.getGdkBinding
 import com.blockstream.common.gdk.getWally
 import com.blockstream.common.gdk.params.InitConfig
@@ -73,10 +76,10 @@ private fun commonModules(appConfig: AppConfig): List<Module> {
             getWally()
         }
         single {
-            AssetManager
+            AssetManager(get())
         }
         single {
-            SessionManager(get(), get(), get(), get(), get(), get(), get(), get())
+            SessionManager(get(), get(), get(), get(), get(), get(), get(), get(), get())
         }
         single {
             LifecycleManager(get(), get(), get())
@@ -84,6 +87,15 @@ private fun commonModules(appConfig: AppConfig): List<Module> {
         single {
             Database(get(), get())
         }
+        single {
+            HwXpubCache(get(), get())
+        }
+        single {
+            HwBlindingKeyCache(get(), get())
+        }
+        single {
+            WalletSnapshotStore(get(), get())
+        }
         single {
             SettingsManager(
                 settings = get(),
@@ -8,9 +8,12 @@ import com.blockstream.common.gdk.device.DeviceResolver
 import com.blockstream.common.gdk.device.GdkHardwareWallet
 import com.blockstream.common.utils.Loggable
 import kotlinx.coroutines.CompletableDeferred
-import kotlinx.coroutines.runBlocking
-import kotlinx.serialization.json.JsonElement
-import kotlinx.serialization.json.decodeFromJsonElement
+import kotlinx.coroutines.withContext
+import kotlinx.serialization.KSerializer
+import kotlinx.serialization.SerialName
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.serializer
 
 interface TwoFactorResolver {
     suspend fun selectTwoFactorMethod(availableMethods: List<String>): CompletableDeferred<String>
@@ -27,7 +30,7 @@ fun TwoFactorResolver.selectTwoFactorMethod(method: String): TwoFactorResolver {
 
 
 interface HardwareWalletResolver {
-    fun requestDataFromDevice(network: Network, requiredData: DeviceRequiredData): CompletableDeferred<String>
+    suspend fun requestDataFromDevice(network: Network, requiredData: DeviceRequiredData): CompletableDeferred<String>
 }
 
 interface BcurResolver {
@@ -45,7 +48,8 @@ class AuthHandler constructor(
     var isCompleted = false
         private set
 
-    var result: JsonElement? = null
+    // Status json of the completed call
+    private var resultJson: String? = null
 
     private fun call() = gdk.authHandlerCall(gaAuthHandler)
     private fun requestCode(method: String) =
@@ -62,7 +66,7 @@ class AuthHandler constructor(
         twoFactorResolver: TwoFactorResolver? = null,
         hardwareWalletResolver: HardwareWalletResolver? = null,
         bcurResolver: BcurResolver? = null
-    ): AuthHandler {
+    ): AuthHandler = withContext(session.gdkDispatcher(network)) {
         try {
             while (!isCompleted) {
 
@@ -99,7 +103,7 @@ class AuthHandler constructor(
                             } ?:
                             twoFactorResolver?.also {
                                 try {
-                                    resolveCode(runBlocking {
+                                    resolveCode(
                                         it.getTwoFactorCode(
                                             network = network,
                                             enable2faCallMethod = session.getTwoFactorConfig(
@@ -107,7 +111,7 @@ class AuthHandler constructor(
                                             )?.enabledMethods?.let { it.size == 1 && it.firstOrNull() == "sms" } ?: false,
                                             authHandlerStatus = authHandlerStatus
                                         ).await()
-                                    })
+                                    )
                                 } catch (e: Exception) {
                                     throw Exception("id_action_canceled")
                                 }
@@ -120,7 +124,7 @@ class AuthHandler constructor(
                                 val dataFromDevice: String?
 
                                 try {
-                                    dataFromDevice = runBlocking{ it.requestDataFromDevice(network, authHandlerStatus.requiredData).await() }
+                                    dataFromDevice = it.requestDataFromDevice(network, authHandlerStatus.requiredData).await()
                                 } catch (e: Exception){
                                     // eg. signing a message in Trezor on testnet network
                                     if(e.message?.lowercase()?.contains("cancelled") == true){
@@ -146,7 +150,7 @@ class AuthHandler constructor(
                     }
                     DONE -> {
                         isCompleted = true
-                        result = authHandlerStatus.result
+                        resultJson = authHandlerStatus.statusJson
                     }
                 }
             }
@@ -155,7 +159,7 @@ class AuthHandler constructor(
             destroy()
         }
 
-        return this
+        this@AuthHandler
     }
 
     suspend inline fun <reified T> result(
@@ -167,17 +171,26 @@ class AuthHandler constructor(
             resolve(twoFactorResolver, hardwareWalletResolverOrDefault(hardwareWalletResolver), bcurResolver)
         }
 
-        return result?.let { result ->
-            JsonDeserializer.decodeFromJsonElement<T>(result).let{
-                if(it is GreenJson<*> && it.keepJsonElement()) {
-                    it.jsonElement = result
-                    it.processJsonElement()
+        return decodeResult(serializer<T>()) ?: throw RuntimeException("This call does not provide any result")
+    }
+
+    // Decode the result straight from the status json, the tree is only built if the model needs it
+    fun <T> decodeResult(serializer: KSerializer<T>): T? = resultJson?.let { json ->
+        JsonDeserializer.decodeFromString(AuthHandlerResult.serializer(serializer), json).result?.also {
+            if (it is GreenJson<*> && it.keepJsonElement()) {
+                it.jsonElementProvider = {
+                    JsonDeserializer.parseToJsonElement(json).jsonObject["result"]
                 }
-                it
+                it.processJsonElement()
             }
-        } ?: throw RuntimeException("This call does not provide any result")
+        }
     }
 
+    @Serializable
+    private class AuthHandlerResult<T>(
+        @SerialName("result") val result: T? = null
+    )
+
     companion object: Loggable() {
         const val CALL = "call"
         const val DONE = "done"
@@ -32,6 +32,7 @@ import com.blockstream.common.extensions.networkForAsset
 import com.blockstream.common.extensions.title
 import com.blockstream.common.extensions.toSortedLinkedHashMap
 import com.blockstream.common.gdk.data.Account
+import com.blockstream.common.gdk.data.AccountSnapshot
 import com.blockstream.common.gdk.data.AccountAsset
 import com.blockstream.common.gdk.data.AccountType
 import com.blockstream.common.gdk.data.Accounts
@@ -69,6 +70,7 @@ import com.blockstream.common.gdk.data.UnspentOutputs
 import com.blockstream.common.gdk.data.Utxo
 import com.blockstream.common.gdk.data.ValidateAddressees
 import com.blockstream.common.gdk.data.WalletEvents
+import com.blockstream.common.gdk.data.WalletSnapshot
 import com.blockstream.common.gdk.device.GdkHardwareWallet
 import com.blockstream.common.gdk.device.HardwareWalletInteraction
 import com.blockstream.common.gdk.params.AssetsParams
@@ -119,6 +121,7 @@ import com.blockstream.common.managers.AssetsProvider
 import com.blockstream.common.managers.NetworkAssetManager
 import com.blockstream.common.managers.SessionManager
 import com.blockstream.common.managers.SettingsManager
+import com.blockstream.common.utils.AmountConverter
 import com.blockstream.common.utils.Loggable
 import com.blockstream.common.utils.randomChars
 import com.blockstream.common.utils.server
@@ -129,22 +132,29 @@ import com.rickclephas.kmp.nativecoroutines.NativeCoroutinesIgnore
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.Deferred
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.IO
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.async
 import kotlinx.coroutines.awaitAll
 import kotlinx.coroutines.cancel
 import kotlinx.coroutines.cancelChildren
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.MutableSharedFlow
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asSharedFlow
 import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.channelFlow
 import kotlinx.coroutines.flow.drop
 import kotlinx.coroutines.flow.launchIn
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.flow.receiveAsFlow
+import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.flow.updateAndGet
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.plus
 import kotlinx.coroutines.runBlocking
@@ -161,6 +171,7 @@ import kotlinx.serialization.json.put
 import kotlinx.serialization.json.putJsonArray
 import kotlinx.serialization.json.putJsonObject
 import kotlin.math.absoluteValue
+import kotlin.time.Duration.Companion.milliseconds
 
 typealias EnrichedAssetPair = Pair<EnrichedAsset, Long>
 
@@ -176,7 +187,8 @@ class GdkSession constructor(
     private val assetManager: AssetManager,
     private val gdk: Gdk,
     private val wally: Wally,
-    private val countly: CountlyBase
+    private val countly: CountlyBase,
+    private val walletSnapshotStore: WalletSnapshotStore
 ) : HttpRequestHandler, AssetsProvider {
     private fun createScope(dispatcher: CoroutineDispatcher = Dispatchers.Default) = CoroutineScope(SupervisorJob() + dispatcher + logException(countly))
 
@@ -208,6 +220,43 @@ class GdkSession constructor(
     //  Disable notification handling until all networks are initialized
     private var _disableNotificationHandling = false
 
+    private sealed class NotificationRefresh {
+        data class Transactions(val account: Account) : NotificationRefresh()
+        data object Accounts : NotificationRefresh()
+        data object Expired2FA : NotificationRefresh()
+    }
+
+    // Bursts of block/transaction/subaccount notifications are handled as one refresh per account
+    private val notificationCoalescer = NotificationCoalescer<NotificationRefresh>(
+        scope = scope,
+        window = NOTIFICATION_COALESCE_WINDOW
+    ) flush@{ events ->
+        if (_disableNotificationHandling) return@flush
+
+        val accounts = events.filterIsInstance<NotificationRefresh.Transactions>().map { it.account }.distinctBy { it.id }
+
+        logger.d { "Coalesced ${events.size} notification refreshes" }
+
+        accounts.forEach {
+            // Update account transactions
+            getTransactions(account = it, isReset = false, isLoadMore = false)
+        }
+
+        if (events.contains(NotificationRefresh.Accounts)) {
+            updateAccountsAndBalances()
+            updateWalletTransactions()
+        } else if (accounts.isNotEmpty()) {
+            updateAccountsAndBalances(updateBalancesForAccounts = accounts)
+
+            // Update wallet transactions
+            updateWalletTransactions(updateForAccounts = accounts)
+        }
+
+        if (events.contains(NotificationRefresh.Expired2FA)) {
+            scanExpired2FA()
+        }
+    }
+
     private val _eventsSharedFlow = MutableSharedFlow<WalletEvents>()
     val eventsSharedFlow = _eventsSharedFlow.asSharedFlow()
 
@@ -729,7 +778,7 @@ class GdkSession constructor(
         initGdkSessions(initNetworks = initNetworks)
 
         return gdkSessions.map {
-            scope.async(start = CoroutineStart.DEFAULT) {
+            scope.async(context = gdkDispatcher(it.key), start = CoroutineStart.DEFAULT) {
                 try {
                     gdk.connect(it.value, createConnectionParams(it.key))
                     it.key
@@ -792,6 +841,15 @@ class GdkSession constructor(
         // Clear Enriched Assets
         _enrichedAssetsFlow.value = listOf()
 
+        // Clear exchange rates
+        _exchangeRates.value = mapOf()
+
+        // Drop pending notification refreshes
+        notificationCoalescer.clear()
+
+        // Clear UTXOs
+        _utxoCache.value = mapOf()
+
         // Clear Transactions
         _walletTransactionsStateFlow.value = DataState.Loading
         _accountTransactionsStateFlow = mutableMapOf()
@@ -1629,6 +1687,7 @@ class GdkSession constructor(
 
         if(initializeSession) {
             countly.activeWalletStart()
+            restoreWalletSnapshot()
             initializeSessionData(initNetwork, initAccount)
         }
 
@@ -1636,6 +1695,85 @@ class GdkSession constructor(
         _disableNotificationHandling = false
     }
 
+    // Emit the last known overview until live data arrives, each part is replaced as soon as GDK answers
+    private suspend fun restoreWalletSnapshot() {
+        val xPubHashId = this.xPubHashId.takeIf { !isLightningShortcut } ?: return
+        val snapshot = walletSnapshotStore.get(xPubHashId) ?: return
+
+        // Only restore accounts of the networks that were logged in
+        val restored = snapshot.accounts.mapNotNull { accountSnapshot ->
+            activeGdkSessions.keys.find { it.id == accountSnapshot.network }?.let { network ->
+                accountSnapshot.account.setup(this, network)
+                accountSnapshot
+            }
+        }.takeIf { it.isNotEmpty() } ?: return
+
+        logger.d { "Restoring wallet snapshot with ${restored.size} accounts" }
+
+        _allAccountsStateFlow.value = restored.map { it.account }.sorted()
+        _accountsStateFlow.value = allAccounts.value.filter { !it.hidden }
+
+        restored.forEach {
+            accountAssetsStateFlow(it.account).value = Assets(it.assets)
+        }
+
+        _walletAssetsFlow.value = Assets(snapshot.walletAssets)
+        _walletTotalBalanceSharedFlow.value = accounts.value.sumOf { accountAssets(it).value.policyAsset }
+        _accountAssetStateFlow.value = accounts.value.flatMap {
+            accountAssets(it).value.toAccountAsset(it, this)
+        }.sortedWith(::sortAccountAssets)
+
+        val transactions = restored.filter { !it.account.hidden }.associate { accountSnapshot ->
+            accountSnapshot.account.id to accountSnapshot.transactions.onEach { it.accountInjected = accountSnapshot.account }
+        }
+
+        walletTransactionsMutex.withLock {
+            // Seed the live transactions so that a partial update doesn't drop the other accounts
+            _walletTransactions.clear()
+            _walletTransactions.putAll(transactions)
+        }
+
+        transactions.values.flatten().sortedWith(::sortTransactions).let {
+            it.subList(0, it.size.coerceAtMost(WALLET_OVERVIEW_TRANSACTIONS))
+        }.also {
+            if (it.isNotEmpty()) {
+                _walletHasHistorySharedFlow.value = true
+            }
+            _walletTransactionsStateFlow.value = DataState.Success(it)
+        }
+    }
+
+    private val walletSnapshotMutex = Mutex()
+    private fun updateWalletSnapshot() {
+        val xPubHashId = this.xPubHashId.takeIf { !isLightningShortcut } ?: return
+
+        scope.launch(context = logException(countly)) {
+            walletSnapshotMutex.withLock {
+                // Wait until both balances and transactions are known
+                if (walletAssets.value.isLoading || walletTransactions.value !is DataState.Success) return@withLock
+
+                val transactions = walletTransactionsMutex.withLock { _walletTransactions.toMap() }
+
+                val snapshot = WalletSnapshot(
+                    accounts = allAccounts.value.filter { !it.isLightning }.map { account ->
+                        AccountSnapshot(
+                            network = account.networkId,
+                            account = account.copy(networkInjected = null, policyAsset = null),
+                            assets = accountAssets(account).value.assets,
+                            transactions = transactions[account.id]?.map { it.copy(accountInjected = null) } ?: listOf()
+                        )
+                    },
+                    walletAssets = walletAssets.value.assets
+                )
+
+                // Session may have been disconnected in the meantime
+                if (this@GdkSession.xPubHashId == xPubHashId) {
+                    walletSnapshotStore.put(xPubHashId, snapshot)
+                }
+            }
+        }
+    }
+
     private suspend fun initializeSessionData(initNetwork: String?, initAccount: Long?) {
         // Check if active account index was archived from 1) a different client (multisig) or 2) from cached Singlesig hww session
         // Expect refresh = true to be already called
@@ -1842,12 +1980,12 @@ class GdkSession constructor(
         }
     }
 
-    private fun getAccounts(refresh: Boolean = false): List<Account> = runBlocking {
+    private suspend fun getAccounts(refresh: Boolean = false): List<Account> = coroutineScope {
         (if(isLightningShortcut){
             listOf()
         }else{
             activeGdkSessions.map {
-                scope.async {
+                async(gdkDispatcher(it.key)) {
                     getAccounts(it.key, refresh)
                 }
             }.awaitAll().flatten()
@@ -1882,7 +2020,8 @@ class GdkSession constructor(
         _activeAccountStateFlow.value = accounts.value.find { it.id == account.id } ?: account
     }
 
-    fun removeAccount(account: Account){
+    // Returns once the account list is updated, so that callers see the new active account
+    suspend fun removeAccount(account: Account){
         if(account.isLightning){
             hasLightning = false
 
@@ -2033,6 +2172,29 @@ class GdkSession constructor(
         Transactions(transactions = it ?: listOf())
     }
 
+    // GDK calls block the calling thread, so the heavy ones run on a dispatcher backed by the IO pool
+    // instead of Dispatchers.Default: connect, auth handler resolution (login, accounts, balances,
+    // transactions, sends) and the per-account fan-outs. Accounts of different networks live on
+    // independent GA sessions, so parallelism is bounded per network. The session scope itself stays
+    // on Dispatchers.Default, it only orchestrates; the remaining direct calls (eg. settings, system
+    // messages, amount conversion) answer from GDK's local state and are not moved.
+    private val _gdkDispatchers = MutableStateFlow(mapOf<Network, CoroutineDispatcher>())
+    internal fun gdkDispatcher(network: Network): CoroutineDispatcher = _gdkDispatchers.value[network] ?: _gdkDispatchers.updateAndGet {
+        if (it.containsKey(network)) it else it + (network to Dispatchers.IO.limitedParallelism(NETWORK_PARALLELISM))
+    }.getValue(network)
+
+    // Runs block for each account concurrently and emits the results in arrival order
+    private fun <T> forEachAccountConcurrently(
+        accounts: List<Account>,
+        block: suspend (Account) -> T
+    ): Flow<Pair<Account, T>> = channelFlow {
+        accounts.forEach { account ->
+            launch(gdkDispatcher(account.network)) {
+                send(account to block(account))
+            }
+        }
+    }
+
     private val accountsAndBalancesMutex = Mutex()
     fun updateAccountsAndBalances(
         isInitialize: Boolean = false,
@@ -2049,11 +2211,16 @@ class GdkSession constructor(
                     // Update accounts
                     updateAccounts(refresh = refresh)
 
-                    for (account in this@GdkSession.allAccounts.value) {
-                        if((updateBalancesForAccounts == null && updateBalancesForNetwork == null) || updateBalancesForAccounts?.find { account.id == it.id } != null || account.network == updateBalancesForNetwork) {
-                            getBalance(account = account, cacheAssets = isInitialize).also {
-                                accountAssetsStateFlow(account).value = it
-                            }
+                    this@GdkSession.allAccounts.value.filter { account ->
+                        (updateBalancesForAccounts == null && updateBalancesForNetwork == null) || updateBalancesForAccounts?.find { account.id == it.id } != null || account.network == updateBalancesForNetwork
+                    }.map { account ->
+                        account to accountAssetsStateFlow(account)
+                    }.also { targets ->
+                        // Publish each balance as soon as it arrives
+                        forEachAccountConcurrently(targets.map { it.first }) { account ->
+                            getBalance(account = account, cacheAssets = isInitialize)
+                        }.collect { (account, balance) ->
+                            targets.first { it.first.id == account.id }.second.value = balance
                         }
                     }
 
@@ -2108,6 +2275,8 @@ class GdkSession constructor(
 
                     _accountsAndBalanceUpdatedSharedFlow.emit(Unit)
                 }
+
+                updateWalletSnapshot()
             } catch (e: Exception) {
                 e.printStackTrace()
                 countly.recordException(e)
@@ -2141,9 +2310,19 @@ class GdkSession constructor(
                         offset = txSize
                     }
 
-                    val limit = if (isReset || isLoadMore) TRANSACTIONS_PER_PAGE else (txSize + TRANSACTIONS_PER_PAGE)
-
-                    val transactions = getTransactions(account, TransactionParams(subaccount = account.pointer, offset = offset, limit = limit)).transactions
+                    val isRefresh = !isReset && !isLoadMore
+
+                    // Refresh only the head page and merge it into the already loaded transactions
+                    val transactions = (if (isRefresh && !account.isLightning) {
+                        refreshTransactionsHead(account, transactionsStateFlow.value.data() ?: listOf())
+                    } else null) ?: getTransactions(
+                        account,
+                        TransactionParams(
+                            subaccount = account.pointer,
+                            offset = offset,
+                            limit = if (isRefresh) (txSize + TRANSACTIONS_PER_PAGE) else TRANSACTIONS_PER_PAGE
+                        )
+                    ).transactions
 
                     // Update transactions
                     transactionsStateFlow.value = DataState.Success(
@@ -2168,6 +2347,23 @@ class GdkSession constructor(
         }
     }
 
+    // Returns null if the head page can't be merged and the transactions must be reloaded
+    private suspend fun refreshTransactionsHead(account: Account, loaded: List<Transaction>): List<Transaction>? {
+        val head = getTransactions(
+            account,
+            TransactionParams(subaccount = account.pointer, offset = 0, limit = TRANSACTIONS_PER_PAGE)
+        ).transactions
+
+        return mergeHeadPage(loaded = loaded, head = head, pageSize = TRANSACTIONS_PER_PAGE) { it.txHash }?.map { tx ->
+            // Update confirmations of the already loaded transactions in place
+            tx.getConfirmationsMax(session = this).let { confirmationsMax ->
+                if (tx.confirmationsMaxInjected == confirmationsMax) tx else tx.copy(confirmationsMaxInjected = confirmationsMax)
+            }
+        }.also {
+            logger.d { "Refresh transactions head of ${account.id}: ${if (it == null) "reload" else "merged"}" }
+        }
+    }
+
     private val walletTransactionsMutex = Mutex()
     private val _walletTransactions = mutableMapOf<AccountId, List<Transaction>>()
     fun updateWalletTransactions(updateForNetwork: Network? = null, updateForAccounts: Collection<Account>? = null) {
@@ -2179,21 +2375,24 @@ class GdkSession constructor(
                         _walletTransactions.clear()
                     }
 
-                    allAccounts.value
+                    val (hiddenAccounts, visibleAccounts) = allAccounts.value
                         .filter { account ->
                             ((updateForNetwork == null && updateForAccounts == null) || updateForAccounts?.find { account.id == it.id } != null || account.network == updateForNetwork)
-                        }
-                        .onEach { account ->
-                            if(account.hidden){
-                                // Clear transactions
-                                _walletTransactions.remove(account.id)
-                            }else {
-                                _walletTransactions[account.id] = getTransactions(
-                                    account,
-                                    TransactionParams(subaccount = account.pointer, limit = WALLET_OVERVIEW_TRANSACTIONS)
-                                ).transactions
-                            }
-                        }
+                        }.partition { it.hidden }
+
+                    // Clear transactions
+                    hiddenAccounts.forEach {
+                        _walletTransactions.remove(it.id)
+                    }
+
+                    forEachAccountConcurrently(visibleAccounts) { account ->
+                        getTransactions(
+                            account,
+                            TransactionParams(subaccount = account.pointer, limit = WALLET_OVERVIEW_TRANSACTIONS)
+                        ).transactions
+                    }.collect { (account, transactions) ->
+                        _walletTransactions[account.id] = transactions
+                    }
 
                     var walletTransactions = _walletTransactions.values.flatten()
 
@@ -2216,6 +2415,8 @@ class GdkSession constructor(
                     _walletTransactionsStateFlow.value = DataState.Success(walletTransactions)
                 }
 
+                updateWalletSnapshot()
+
             } catch (e: Exception) {
                 e.printStackTrace()
             }
@@ -2223,56 +2424,16 @@ class GdkSession constructor(
     }
 
 
-    private fun sortTransactions(t1: Transaction, t2: Transaction): Int =
-        when {
-            t1.blockHeight == 0L && t2.blockHeight > 0L -> -1
-            t2.blockHeight == 0L && t1.blockHeight > 0L -> 1
-            t1.blockHeight == t2.blockHeight && t1.createdAtTs == t2.createdAtTs -> { // if we send to the same account, display first the outgoing tx
-                if (t1.isIn && t2.isOut) {
-                    -1
-                } else if (t2.isIn && t1.isOut) {
-                    1
-                } else {
-                    t2.createdAtTs.compareTo(t1.createdAtTs)
-                }
-            }
-            else -> t2.createdAtTs.compareTo(t1.createdAtTs)
-        }
-
     fun sortUtxos(a1: Utxo, a2: Utxo): Int = sortAssets(a1.assetId, a2.assetId)
 
-    private fun sortAssets(a1: String, a2: String): Int = when {
-            a1 == BTC_POLICY_ASSET && a2 == BTC_POLICY_ASSET -> 0
-            a1 == BTC_POLICY_ASSET -> -1
-            a2 == BTC_POLICY_ASSET -> 1
-            a1.isPolicyAsset(this) && a2.isPolicyAsset(this) -> 0 // Liquid
-            a1.isPolicyAsset(this) -> -1 // Liquid
-            a2.isPolicyAsset(this) -> 1 // Liquid
-            else -> {
-                val asset1 = networkAssetManager.getAsset(a1, this)
-                val icon1 = networkAssetManager.getAssetIcon(a1, this)
-
-                val asset2 = networkAssetManager.getAsset(a2, this)
-                val icon2 = networkAssetManager.getAssetIcon(a2, this)
-
-                if ((icon1 == null) xor (icon2 == null)) {
-                    if (icon1 != null) -1 else 1
-                } else if ((asset1 == null) xor (asset2 == null)) {
-                    if (asset1 != null) -1 else 1
-                } else if (asset1 != null && asset2 != null) {
-                    val weight1 = getEnrichedAssets(a1)?.weight ?: 0
-                    val weight2 = getEnrichedAssets(a2)?.weight ?: 0
-
-                    if(weight1 == weight2){
-                        asset1.name.compareTo(asset2.name)
-                    }else{
-                        weight2.compareTo(weight1)
-                    }
-                } else {
-                    a1.compareTo(a2)
-                }
-            }
-        }
+    private fun sortAssets(a1: String, a2: String): Int = sortAssets(
+        a1 = a1,
+        a2 = a2,
+        isPolicyAsset = { it.isPolicyAsset(this) },
+        hasIcon = { networkAssetManager.getAssetIcon(it, this) != null },
+        asset = { networkAssetManager.getAsset(it, this) },
+        weight = { getEnrichedAssets(it)?.weight ?: 0 }
+    )
 
     fun sortEnrichedAssets(a1: EnrichedAsset, a2: EnrichedAsset): Int {
         val w1 = a1.sortWeight(this)
@@ -2470,7 +2631,7 @@ class GdkSession constructor(
         }
     }
 
-    private fun updateAccounts(refresh: Boolean = false) {
+    private suspend fun updateAccounts(refresh: Boolean = false) {
         getAccounts(refresh).also { fetchedAccounts ->
             _allAccountsStateFlow.value = fetchedAccounts
             fetchedAccounts.filter { !it.hidden }.also {
@@ -2493,6 +2654,22 @@ class GdkSession constructor(
         val isPolicyAsset = assetId.isPolicyAsset(this)
         val asset = assetId?.let { getAsset(it) }
 
+        // Policy asset satoshi amounts are converted locally with the cached exchange rate,
+        // other assets are left to GDK as they have no btc or fiat value
+        if ((isPolicyAsset || assetId == null) && asString == null && asLong != null) {
+            exchangeRate(network)?.let { rate ->
+                AmountConverter.convert(
+                    satoshi = asLong,
+                    fiatRate = rate.fiatRate,
+                    fiatCurrency = rate.fiatCurrency,
+                    isCurrent = rate.isCurrent
+                )
+            }?.also {
+                it.asset = asset
+                return it
+            }
+        }
+
         val convert = if (isPolicyAsset || assetId == null || asString == null) {
             Convert.create(
                 isPolicyAsset = isPolicyAsset,
@@ -2542,6 +2719,20 @@ class GdkSession constructor(
         return balance
     }
 
+    // Exchange rate of each network as reported by GDK, invalidated by ticker and settings notifications
+    private val _exchangeRates = MutableStateFlow(mapOf<Network, Balance>())
+    private fun exchangeRate(network: Network): Balance? = _exchangeRates.value[network] ?: try {
+        Balance.fromJsonElement(
+            jsonElement = gdk.convertAmount(gdkSession(network), Convert(satoshi = 0).toJsonElement()),
+            assetId = null
+        ).also { rate ->
+            _exchangeRates.update { it + (network to rate) }
+        }
+    } catch (e: Exception) {
+        e.printStackTrace()
+        null
+    }
+
     private suspend fun getUnspentOutputs(network: Network, params: BalanceParams) = authHandler(
         network,
         gdk.getUnspentOutputs(gdkSession(network), params)
@@ -2552,26 +2743,63 @@ class GdkSession constructor(
         gdk.getUnspentOutputsForPrivateKey(gdkSession(network), params)
     ).result<UnspentOutputs>()
 
+    private data class UtxoKey(
+        val network: Network,
+        val pointer: Long,
+        val confirmations: Int,
+        val expiredAt: Long?
+    )
+
+    // UTXO sets shared by Send, Bump, Redeposit and the expired 2FA scan, in-flight requests are shared too.
+    // Entries are dropped on transaction/block notifications and after broadcasting.
+    private val _utxoCache = MutableStateFlow(mapOf<UtxoKey, Deferred<UnspentOutputs>>())
+
+    private fun invalidateUnspentOutputs(network: Network, pointers: Collection<Long>? = null) {
+        _utxoCache.update { cache ->
+            cache.filterKeys { it.network != network || (pointers != null && !pointers.contains(it.pointer)) }
+        }
+    }
+
     suspend fun getUnspentOutputs(
         account: Account,
         isBump: Boolean = false,
         isExpired: Boolean = false
     ): UnspentOutputs {
-        return getUnspentOutputs(
+        val params = if (isExpired) {
+            BalanceParams(
+                subaccount = account.pointer,
+                confirmations = 1,
+                expiredAt = block(account.network).value.height
+            )
+        } else {
+            BalanceParams(
+                subaccount = account.pointer,
+                confirmations = if (isBump) 1 else 0
+            )
+        }
+
+        val key = UtxoKey(
             network = account.network,
-            params = if (isExpired) {
-                BalanceParams(
-                    subaccount = account.pointer,
-                    confirmations = 1,
-                    expiredAt = block(account.network).value.height
-                )
-            } else {
-                BalanceParams(
-                    subaccount = account.pointer,
-                    confirmations = if (isBump) 1 else 0
-                )
-            }
+            pointer = account.pointer,
+            confirmations = params.confirmations,
+            expiredAt = params.expiredAt
         )
+
+        val request = _utxoCache.updateAndGet { cache ->
+            if (cache[key]?.isCancelled == false) cache else cache + (key to scope.async(start = CoroutineStart.LAZY) {
+                getUnspentOutputs(network = account.network, params = params)
+            })
+        }.getValue(key)
+
+        return try {
+            request.await()
+        } catch (e: Exception) {
+            // Don't cache failures
+            if (request.isCancelled) {
+                _utxoCache.update { cache -> if (cache[key] === request) cache - key else cache }
+            }
+            throw e
+        }
     }
 
     suspend fun getUnspentOutputs(network: Network, privateKey: String): UnspentOutputs {
@@ -2735,6 +2963,7 @@ class GdkSession constructor(
             )
         ).result<ProcessedTransactionDetails>().also {
             _walletActiveEventInvalidated = true
+            invalidateUnspentOutputs(network)
         }
 
     fun sendLightningTransaction(params: CreateTransaction, comment: String?): ProcessedTransactionDetails{
@@ -2820,6 +3049,8 @@ class GdkSession constructor(
             account.network,
             gdk.sendTransaction(gdkSession(account.network), transaction = signedTransaction)
         ).result<ProcessedTransactionDetails>(twoFactorResolver = twoFactorResolver).also {
+            invalidateUnspentOutputs(account.network)
+
             if(isSendAll){
                 _accountEmptiedEvent = account
             }
@@ -2905,26 +3136,17 @@ class GdkSession constructor(
                     if(it.height > 0) {
                         blockStateFlow(network).value = it
 
+                        // Confirmations and expiration of the UTXOs have changed
+                        invalidateUnspentOutputs(network)
+
                         if(!_disableNotificationHandling) {
                             // Update transactions
-                            accounts.value.filter { it.network == network }.also { accounts ->
-                                accounts.forEach {
-                                    // Update account transactions
-                                    getTransactions(
-                                        account = it,
-                                        isReset = false,
-                                        isLoadMore = false
-                                    )
-                                }
-
-                                updateAccountsAndBalances(updateBalancesForAccounts = accounts)
-
-                                // Update wallet transactions
-                                updateWalletTransactions(updateForAccounts = accounts)
-                            }
+                            notificationCoalescer.post(accounts.value.filter { it.network == network }.map {
+                                NotificationRefresh.Transactions(it)
+                            })
 
                             if(network.isMultisig && !network.needs2faActivation(this)){
-                                scanExpired2FA()
+                                notificationCoalescer.post(NotificationRefresh.Expired2FA)
                             }
                         }
                     }
@@ -2934,6 +3156,8 @@ class GdkSession constructor(
                 notification.settings?.let {
                     settingsStateFlow(network).value = it
                 }
+                // Pricing source may have changed
+                _exchangeRates.update { it - network }
             }
             "twofactor_reset" -> {
                 notification.twoFactorReset?.let {
@@ -2972,36 +3196,30 @@ class GdkSession constructor(
                 }
             }
             "ticker" -> {
+                _exchangeRates.update { it - network }
                 // Update UI maybe
                 _tickerSharedFlow.tryEmit(Unit)
             }
             "subaccount" -> {
                 if(!_disableNotificationHandling && notification.subaccount?.isSynced == true) {
-                    updateAccountsAndBalances()
-                    updateWalletTransactions()
+                    notificationCoalescer.post(NotificationRefresh.Accounts)
                 }
             }
             "transaction" -> {
                 if (!_disableNotificationHandling) {
                     notification.transaction?.let { event ->
+                        invalidateUnspentOutputs(network = network, pointers = event.subaccounts)
+
                         event.subaccounts.mapNotNull { subAccount ->
                             accounts.value.find {
                                 it.network == network && it.pointer == subAccount
                             }
-                        }.toSet().also { accounts ->
-                            accounts.forEach {
-                                // Update account transactions
-                                getTransactions(account = it, isReset = false, isLoadMore = false)
-                            }
-
-                            updateAccountsAndBalances(updateBalancesForAccounts = accounts)
-
-                            // Update wallet transactions
-                            updateWalletTransactions(updateForAccounts = accounts)
+                        }.also { accounts ->
+                            notificationCoalescer.post(accounts.map { NotificationRefresh.Transactions(it) })
                         }
 
                         if(network.isMultisig && !network.needs2faActivation(this)){
-                            scanExpired2FA()
+                            notificationCoalescer.post(NotificationRefresh.Expired2FA)
                         }
                     }
                 }
@@ -3120,6 +3338,69 @@ class GdkSession constructor(
     companion object: Loggable() {
         const val WALLET_OVERVIEW_TRANSACTIONS = 20
 
+        internal fun sortTransactions(t1: Transaction, t2: Transaction): Int =
+            when {
+                t1.blockHeight == 0L && t2.blockHeight > 0L -> -1
+                t2.blockHeight == 0L && t1.blockHeight > 0L -> 1
+                t1.blockHeight == t2.blockHeight && t1.createdAtTs == t2.createdAtTs -> { // if we send to the same account, display first the outgoing tx
+                    if (t1.isIn && t2.isOut) {
+                        -1
+                    } else if (t2.isIn && t1.isOut) {
+                        1
+                    } else {
+                        t2.createdAtTs.compareTo(t1.createdAtTs)
+                    }
+                }
+                else -> t2.createdAtTs.compareTo(t1.createdAtTs)
+            }
+
+        // Session independent so that it can be benchmarked with synthetic metadata
+        internal inline fun sortAssets(
+            a1: String,
+            a2: String,
+            isPolicyAsset: (String) -> Boolean,
+            hasIcon: (String) -> Boolean,
+            asset: (String) -> Asset?,
+            weight: (String) -> Int
+        ): Int = when {
+            a1 == BTC_POLICY_ASSET && a2 == BTC_POLICY_ASSET -> 0
+            a1 == BTC_POLICY_ASSET -> -1
+            a2 == BTC_POLICY_ASSET -> 1
+            isPolicyAsset(a1) && isPolicyAsset(a2) -> 0 // Liquid
+            isPolicyAsset(a1) -> -1 // Liquid
+            isPolicyAsset(a2) -> 1 // Liquid
+            else -> {
+                val asset1 = asset(a1)
+                val icon1 = hasIcon(a1)
+
+                val asset2 = asset(a2)
+                val icon2 = hasIcon(a2)
+
+                if (icon1 xor icon2) {
+                    if (icon1) -1 else 1
+                } else if ((asset1 == null) xor (asset2 == null)) {
+                    if (asset1 != null) -1 else 1
+                } else if (asset1 != null && asset2 != null) {
+                    val weight1 = weight(a1)
+                    val weight2 = weight(a2)
+
+                    if(weight1 == weight2){
+                        asset1.name.compareTo(asset2.name)
+                    }else{
+                        weight2.compareTo(weight1)
+                    }
+                } else {
+                    a1.compareTo(a2)
+                }
+            }
+        }
+
+        // Max concurrent balance/transactions requests per network
+        const val NETWORK_PARALLELISM = 2
+
+        // Notifications received within this window are handled together
+        val NOTIFICATION_COALESCE_WINDOW = 500.milliseconds
+
         const val LIQUID_ASSETS_KEY = "liquid_assets"
         const val LIQUID_ASSETS_TESTNET_KEY = "liquid_assets_testnet"
 
@@ -2,10 +2,11 @@ package com.blockstream.common.gdk
 
 
 import cafe.adriel.voyager.core.lifecycle.JavaSerializable
+import com.blockstream.serialization.CborCodecs
+import com.blockstream.serialization.JsonCodecs
 import kotlinx.serialization.ExperimentalSerializationApi
 import kotlinx.serialization.KSerializer
 import kotlinx.serialization.Transient
-import kotlinx.serialization.cbor.Cbor
 import kotlinx.serialization.json.Json
 import kotlinx.serialization.json.JsonElement
 
@@ -19,17 +20,27 @@ abstract class GreenJson<T>: JavaSerializable {
 
     @kotlin.jvm.Transient
     @Transient
-    var jsonElement: JsonElement? = null
+    private var _jsonElement: JsonElement? = null
 
-    abstract fun kSerializer(): KSerializer<T>
+    // Builds the tree on first access, eg. from the json it was decoded from
+    @kotlin.jvm.Transient
+    @Transient
+    var jsonElementProvider: (() -> JsonElement?)? = null
 
-    protected val json
-        get() = Json {
-            encodeDefaults = encodeDefaultsValues()
-            explicitNulls = explicitNulls()
-            ignoreUnknownKeys = true
+    var jsonElement: JsonElement?
+        get() = _jsonElement ?: jsonElementProvider?.invoke()?.also {
+            _jsonElement = it
+            jsonElementProvider = null
+        }
+        set(value) {
+            _jsonElement = value
         }
 
+    abstract fun kSerializer(): KSerializer<T>
+
+    protected val json: Json
+        get() = JsonCodecs.get(encodeDefaults = encodeDefaultsValues(), explicitNulls = explicitNulls())
+
     final override fun toString(): String {
         @Suppress("UNCHECKED_CAST")
         return json.encodeToString(kSerializer(), this as T)
@@ -38,10 +49,7 @@ abstract class GreenJson<T>: JavaSerializable {
     fun toJson() = toString()
 
     @Suppress("UNCHECKED_CAST")
-    fun toCbor() = Cbor {
-        encodeDefaults = encodeDefaultsValues()
-        ignoreUnknownKeys = true
-    }.encodeToByteArray(kSerializer(), this as T)
+    fun toCbor() = cborCodecs.get(encodeDefaults = encodeDefaultsValues()).encodeToByteArray(kSerializer(), this as T)
 
     @ExperimentalStdlibApi
     fun toCborHex() = toCbor().toHexString()
@@ -58,5 +66,7 @@ abstract class GreenJson<T>: JavaSerializable {
             encodeDefaults = true
             ignoreUnknownKeys = true
         }
+
+        private val cborCodecs = CborCodecs()
     }
 }
\ No newline at end of file
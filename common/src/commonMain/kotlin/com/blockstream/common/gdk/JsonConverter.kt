@@ -4,29 +4,38 @@ import com.blockstream.common.utils.Loggable
 import kotlinx.serialization.encodeToString
 import kotlinx.serialization.json.Json
 import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.decodeFromJsonElement
+
+/**
+ * GDK json as received from the binding, it's decoded directly into the target model
+ * so that no intermediate JsonElement tree is built
+ */
+class GdkJson(val json: String) {
+    override fun toString() = json
+}
 
 class JsonConverter constructor(val log: Boolean, val maskSensitiveFields: Boolean) {
     private val maskFields = listOf("pin", "mnemonic", "password", "recovery_mnemonic", "seed")
 
     private fun shouldLog(jsonString: String?): Boolean{
-        if(jsonString == null || jsonString.length > 50_000){
+        // Don't scan the payload at all if logging is disabled
+        if(!log || jsonString == null || jsonString.length > 50_000){
             return false
         }
 
-        if (log) {
-            if (
-                SkipLogAmountConversions
-                && (jsonString.contains("\"is_current\":true,\"mbtc\":\"")
-                        || jsonString.startsWith("{\"satoshi\":")
-                        || jsonString.startsWith("{\"bits\":"))
-            ) {
-                return false
-            }
+        if (
+            SkipLogAmountConversions
+            && (jsonString.contains("\"is_current\":true,\"mbtc\":\"")
+                    || jsonString.startsWith("{\"satoshi\":")
+                    || jsonString.startsWith("{\"bits\":"))
+        ) {
+            return false
         }
 
-        return log
+        return true
     }
 
+    // The json is kept as a string, see GdkJson
     fun toJSONObject(jsonString: String?): Any? {
         if (shouldLog(jsonString)) {
             "▲ ${mask(jsonString)}".let{
@@ -35,7 +44,7 @@ class JsonConverter constructor(val log: Boolean, val maskSensitiveFields: Boole
         }
 
         if (jsonString != null && jsonString != "null") {
-            return JsonDeserializer.parseToJsonElement(jsonString)
+            return GdkJson(jsonString)
         }
         return null
     }
@@ -44,6 +53,7 @@ class JsonConverter constructor(val log: Boolean, val maskSensitiveFields: Boole
         return if(any is JsonElement){
             JsonDeserializer.encodeToString(any)
         }else{
+            // GdkJson and GreenJson are already json strings
             any.toString()
         }.also {
             if (shouldLog(it)) {
@@ -75,5 +85,14 @@ class JsonConverter constructor(val log: Boolean, val maskSensitiveFields: Boole
             ignoreUnknownKeys = true
             isLenient = true
         }
+
+        // Decode a GDK json (GdkJson or JsonElement) into the model
+        inline fun <reified T> decode(json: Any): T = if (json is JsonElement) {
+            JsonDeserializer.decodeFromJsonElement(json)
+        } else {
+            JsonDeserializer.decodeFromString(json.toString())
+        }
+
+        fun toJsonElement(json: Any): JsonElement = json as? JsonElement ?: JsonDeserializer.parseToJsonElement(json.toString())
     }
 }
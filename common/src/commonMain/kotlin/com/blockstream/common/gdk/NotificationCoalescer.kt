@@ -0,0 +1,75 @@
+package com.blockstream.common.gdk
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.getAndUpdate
+import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.launch
+import kotlin.time.Duration
+
+/**
+ * Collects events posted within [window] and hands them to [onFlush] as a single set, so that
+ * a burst of notifications (eg. a block followed by transaction notifications for the same
+ * accounts) results in one refresh per target. Events posted while [onFlush] runs are delivered
+ * in the next batch.
+ */
+class NotificationCoalescer<T> constructor(
+    scope: CoroutineScope,
+    private val window: Duration,
+    private val onFlush: suspend (Set<T>) -> Unit
+) {
+    private val pending = MutableStateFlow<Set<T>>(emptySet())
+    private val signal = Channel<Unit>(Channel.CONFLATED)
+
+    init {
+        scope.launch {
+            for (ignored in signal) {
+                delay(window)
+
+                pending.getAndUpdate { emptySet() }.takeIf { it.isNotEmpty() }?.also {
+                    try {
+                        onFlush(it)
+                    } catch (e: Exception) {
+                        e.printStackTrace()
+                    }
+                }
+            }
+        }
+    }
+
+    fun post(vararg events: T) = post(events.toList())
+
+    fun post(events: Collection<T>) {
+        if (events.isEmpty()) return
+        pending.update { it + events }
+        signal.trySend(Unit)
+    }
+
+    // Drop events not yet delivered, eg. on disconnect
+    fun clear() {
+        pending.value = emptySet()
+    }
+}
+
+/**
+ * Merges a freshly fetched head page into an already loaded list, matching items by [key].
+ *
+ * Items of the head page replace their previous version and new items are prepended, the rest
+ * of the loaded list is kept as is. Returns null if the head page doesn't overlap with the
+ * loaded list, in that case the list must be reloaded.
+ */
+fun <T> mergeHeadPage(loaded: List<T>, head: List<T>, pageSize: Int, key: (T) -> String): List<T>? {
+    // The head page is the whole list
+    if (head.size < pageSize) return head
+
+    // The oldest item of the head page must be loaded, otherwise there may be a gap
+    val oldestHeadKey = key(head.last())
+    val oldestHeadIndex = loaded.indexOfFirst { key(it) == oldestHeadKey }.takeIf { it >= 0 } ?: return null
+
+    val headKeys = head.mapTo(HashSet(head.size)) { key(it) }
+
+    // Items above the oldest head item that are not in the head page anymore were replaced or dropped
+    return head + loaded.subList(oldestHeadIndex + 1, loaded.size).filter { !headKeys.contains(key(it)) }
+}
@@ -0,0 +1,54 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.crypto.GreenKeystore
+import com.blockstream.common.crypto.NoKeystore
+import com.blockstream.common.database.Database
+import com.blockstream.common.gdk.data.WalletSnapshot
+import com.blockstream.common.utils.Loggable
+import kotlinx.datetime.Clock
+
+/**
+ * Persists the last known wallet overview so that it can be shown right after login, before
+ * GDK has answered. Snapshots are keyed by the wallet xpub hash id, stored encrypted with the
+ * platform keystore and only kept for wallets that are stored in the database.
+ *
+ * Without a platform keystore ([NoKeystore], eg. desktop) snapshots would be written in plaintext,
+ * so nothing is persisted there.
+ */
+class WalletSnapshotStore constructor(
+    private val database: Database,
+    private val greenKeystore: GreenKeystore
+) {
+    private val isEnabled = greenKeystore !is NoKeystore
+
+    suspend fun get(xPubHashId: String): WalletSnapshot? = if (!isEnabled) {
+        // Drop any plaintext snapshot left by an earlier version
+        database.deleteWalletSnapshot(xPubHashId)
+        null
+    } else try {
+        database.getWalletSnapshot(xPubHashId)?.let {
+            WalletSnapshot.fromString(greenKeystore.decryptData(it).decodeToString())
+        }
+    } catch (e: Exception) {
+        // eg. keystore key was invalidated or the format changed, it will be recreated
+        logger.i { "Discarding wallet snapshot: ${e.message}" }
+        database.deleteWalletSnapshot(xPubHashId)
+        null
+    }
+
+    suspend fun put(xPubHashId: String, snapshot: WalletSnapshot) {
+        if (!isEnabled) return
+
+        try {
+            database.replaceWalletSnapshot(
+                xPubHashId = xPubHashId,
+                snapshot = greenKeystore.encryptData(snapshot.toJson().encodeToByteArray()),
+                updatedAt = Clock.System.now().toEpochMilliseconds()
+            )
+        } catch (e: Exception) {
+            e.printStackTrace()
+        }
+    }
+
+    companion object : Loggable()
+}
@@ -2,9 +2,10 @@ package com.blockstream.common.gdk.data
 
 import com.blockstream.common.extensions.tryCatchNull
 import com.blockstream.common.gdk.GreenJson
+import com.blockstream.common.gdk.JsonConverter.Companion.JsonDeserializer
 import kotlinx.serialization.SerialName
 import kotlinx.serialization.Serializable
-import kotlinx.serialization.json.Json
+import kotlinx.serialization.Transient
 import kotlinx.serialization.json.JsonElement
 import kotlinx.serialization.json.intOrNull
 import kotlinx.serialization.json.jsonObject
@@ -16,7 +17,6 @@ data class AuthHandlerStatus constructor(
     @SerialName("methods") val methods: List<String> = listOf(),
     @SerialName("method") val method: String? = null,
     @SerialName("status") val status: String,
-    @SerialName("result") val result: JsonElement? = null,
     @SerialName("error") val error: String? = null,
 
     @SerialName("attempts_remaining") val attemptsRemaining: Int? = null,
@@ -29,12 +29,19 @@ data class AuthHandlerStatus constructor(
 
     override fun kSerializer() = serializer()
 
+    // The status json as received, the result is decoded from it directly into the requested model
+    @kotlin.jvm.Transient
+    @Transient
+    var statusJson: String? = null
+
     fun isSms() = method == "sms"
 
     val progress: Int?
         get() = tryCatchNull { authData?.jsonObject?.get("estimated_progress")?.jsonPrimitive?.intOrNull }
 
     companion object {
-        fun from(jsonString: String): AuthHandlerStatus = Json.decodeFromString(jsonString)
+        fun from(jsonString: String): AuthHandlerStatus = JsonDeserializer.decodeFromString<AuthHandlerStatus>(jsonString).also {
+            it.statusJson = jsonString
+        }
     }
 }
@@ -1,25 +1,22 @@
 package com.blockstream.common.gdk.data
 
 import com.blockstream.common.gdk.GreenJson
+import com.blockstream.common.serializers.UtxoSerializer
 import kotlinx.serialization.KSerializer
 import kotlinx.serialization.SerialName
 import kotlinx.serialization.Serializable
 import kotlinx.serialization.json.JsonElement
-import kotlinx.serialization.json.decodeFromJsonElement
 
 @Serializable
 data class UnspentOutputs(
-    @SerialName("unspent_outputs") val unspentOutputs: Map<String, List<JsonElement>>
+    @SerialName("unspent_outputs") val unspentOutputs: Map<String, List<@Serializable(with = UtxoSerializer::class) Utxo>>
 ) : GreenJson<UnspentOutputs>() {
-    override fun keepJsonElement() = true
 
-    val unspentOutputsAsUtxo: Map<String, List<Utxo>> by lazy {
-        unspentOutputs.mapValues {
-            it.value.map { utxo ->
-                json.decodeFromJsonElement(utxo)
-            }
+    // The utxos as returned by GDK, to be passed back eg. in CreateTransactionParams
+    val unspentOutputsJson: Map<String, List<JsonElement>>
+        get() = unspentOutputs.mapValues { (_, utxos) ->
+            utxos.map { it.jsonElement ?: it.toJsonElement() }
         }
-    }
 
     override fun kSerializer(): KSerializer<UnspentOutputs> = serializer()
 }
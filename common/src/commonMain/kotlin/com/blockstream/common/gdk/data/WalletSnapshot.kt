@@ -0,0 +1,29 @@
+package com.blockstream.common.gdk.data
+
+import com.blockstream.common.gdk.GreenJson
+import kotlinx.serialization.SerialName
+import kotlinx.serialization.Serializable
+
+/**
+ * Last known state of a wallet overview: accounts, balances and the first page of transactions.
+ * Injected references (network, account) are stripped and restored from the session.
+ */
+@Serializable
+data class WalletSnapshot(
+    @SerialName("accounts") val accounts: List<AccountSnapshot>,
+    @SerialName("wallet_assets") val walletAssets: Map<String, Long>
+) : GreenJson<WalletSnapshot>() {
+    override fun kSerializer() = serializer()
+
+    companion object {
+        fun fromString(jsonString: String): WalletSnapshot = json.decodeFromString(jsonString)
+    }
+}
+
+@Serializable
+data class AccountSnapshot(
+    @SerialName("network") val network: String,
+    @SerialName("account") val account: Account,
+    @SerialName("assets") val assets: Map<String, Long>,
+    @SerialName("transactions") val transactions: List<Transaction>
+)
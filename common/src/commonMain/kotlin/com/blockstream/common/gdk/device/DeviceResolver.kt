@@ -5,13 +5,20 @@ import com.blockstream.common.gdk.data.DeviceRequiredData
 import com.blockstream.common.gdk.data.DeviceResolvedData
 import com.blockstream.common.gdk.data.Network
 import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.IO
+import kotlinx.coroutines.withContext
+import org.koin.core.component.KoinComponent
+import org.koin.core.component.inject
 
 class DeviceResolver constructor(
     private val gdkHardwareWallet: GdkHardwareWallet,
     private val hwInteraction: HardwareWalletInteraction? = null
-) : HardwareWalletResolver {
+) : HardwareWalletResolver, KoinComponent {
+    private val xpubCache: HwXpubCache by inject()
+    private val blindingKeyCache: HwBlindingKeyCache by inject()
 
-    override fun requestDataFromDevice(network: Network, requiredData: DeviceRequiredData): CompletableDeferred<String> {
+    override suspend fun requestDataFromDevice(network: Network, requiredData: DeviceRequiredData): CompletableDeferred<String> {
         return CompletableDeferred<String>().also { deferred ->
             try {
                 deferred.complete(requestData(network, requiredData))
@@ -21,11 +28,13 @@ class DeviceResolver constructor(
         }
     }
 
-    private fun requestData(network: Network, requiredData: DeviceRequiredData): String {
+    // Device communication blocks, keep it off the GDK dispatcher of the network
+    private suspend fun requestData(network: Network, requiredData: DeviceRequiredData): String = withContext(Dispatchers.IO) {
 
-        return when (requiredData.action) {
+        when (requiredData.action) {
             "get_xpubs" -> {
-                gdkHardwareWallet.getXpubs(
+                xpubCache.getXpubs(
+                    gdkHardwareWallet = gdkHardwareWallet,
                     network = network,
                     paths = requiredData.paths?.map {
                         it.map { it.toInt() }
@@ -89,52 +98,41 @@ class DeviceResolver constructor(
             }
 
             "get_blinding_nonces" -> {
-                val nonces = mutableListOf<String>()
-                val blindingPublicKeys = mutableListOf<String>()
-
                 val scripts = requiredData.scripts
                 val publicKeys = requiredData.publicKeys
 
                 if (scripts != null && publicKeys != null && scripts.size == publicKeys.size) {
-                    for (i in 0 until (scripts.size)) {
-                        nonces.add(
-                            gdkHardwareWallet.getBlindingNonce(
-                                hwInteraction = hwInteraction,
-                                pubKey = publicKeys[i],
-                                scriptHex = scripts[i]
-                            )
-                        )
-
-                        if (requiredData.blindingKeysRequired == true) {
-                            blindingPublicKeys.add(
-                                gdkHardwareWallet.getBlindingKey(
-                                    hwInteraction = hwInteraction,
-                                    scriptHex = scripts[i]
-                                )
+                    DeviceResolvedData(
+                        nonces = gdkHardwareWallet.getBlindingNonces(
+                            pubKeys = publicKeys,
+                            scripts = scripts,
+                            hwInteraction = hwInteraction
+                        ),
+                        publicKeys = if (requiredData.blindingKeysRequired == true) {
+                            blindingKeyCache.getBlindingKeys(
+                                gdkHardwareWallet = gdkHardwareWallet,
+                                network = network,
+                                scripts = scripts,
+                                hwInteraction = hwInteraction
                             )
+                        } else {
+                            listOf()
                         }
-                    }
+                    )
+                } else {
+                    DeviceResolvedData(nonces = listOf(), publicKeys = listOf())
                 }
-
-                DeviceResolvedData(
-                    nonces = nonces,
-                    publicKeys = blindingPublicKeys
-                )
             }
 
             "get_blinding_public_keys" -> {
-                val publicKeys = mutableListOf<String>()
-
-                for (script in requiredData.scripts ?: listOf()) {
-                    publicKeys.add(
-                        gdkHardwareWallet.getBlindingKey(
-                            hwInteraction = hwInteraction,
-                            scriptHex = script
-                        )
+                DeviceResolvedData(
+                    publicKeys = blindingKeyCache.getBlindingKeys(
+                        gdkHardwareWallet = gdkHardwareWallet,
+                        network = network,
+                        scripts = requiredData.scripts ?: listOf(),
+                        hwInteraction = hwInteraction
                     )
-                }
-
-                DeviceResolvedData(publicKeys = publicKeys)
+                )
             }
             else -> {
                 throw RuntimeException("Unsupported action")
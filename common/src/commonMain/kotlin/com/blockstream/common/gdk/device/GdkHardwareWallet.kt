@@ -7,7 +7,9 @@ import com.blockstream.common.gdk.data.InputOutput
 import com.blockstream.common.gdk.data.Network
 import com.blockstream.jade.firmware.FirmwareInteraction
 import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.update
 
 interface HardwareConnectInteraction : FirmwareInteraction, HwWalletLogin, HardwareWalletInteraction {
     fun showInstructions(text: String)
@@ -35,6 +37,19 @@ abstract class GdkHardwareWallet {
 
     abstract val device: Device
 
+    // Master xpub per network id, fetched once per connection and used to identify the device
+    private val masterXpubs = MutableStateFlow(mapOf<String, String>())
+
+    fun getMasterXpub(network: Network, hwInteraction: HardwareWalletInteraction?): String {
+        return masterXpubs.value[network.id] ?: getXpubs(
+            network = network,
+            paths = listOf(listOf()),
+            hwInteraction = hwInteraction
+        ).first().also { xpub ->
+            masterXpubs.update { it + (network.id to xpub) }
+        }
+    }
+
     // Return the base58check encoded xpubs for each path in paths
     abstract fun getXpubs(
         network: Network,
@@ -84,6 +99,23 @@ abstract class GdkHardwareWallet {
         hwInteraction: HardwareWalletInteraction?
     ): String
 
+    // Blinding nonce for each pubKey and script pair, devices able to pipeline requests should override it
+    open fun getBlindingNonces(
+        pubKeys: List<String>,
+        scripts: List<String>,
+        hwInteraction: HardwareWalletInteraction?
+    ): List<String> = pubKeys.zip(scripts) { pubKey, scriptHex ->
+        getBlindingNonce(pubKey = pubKey, scriptHex = scriptHex, hwInteraction = hwInteraction)
+    }
+
+    // Blinding public key for each script, devices able to pipeline requests should override it
+    open fun getBlindingKeys(
+        scripts: List<String>,
+        hwInteraction: HardwareWalletInteraction?
+    ): List<String> = scripts.map { scriptHex ->
+        getBlindingKey(scriptHex = scriptHex, hwInteraction = hwInteraction)
+    }
+
     @Throws(Exception::class)
     abstract fun getGreenAddress(
         network: Network,
@@ -0,0 +1,29 @@
+package com.blockstream.common.gdk.device
+
+import com.blockstream.common.crypto.GreenKeystore
+import com.blockstream.common.database.Database
+import com.blockstream.common.gdk.data.Network
+
+// Script blinding public keys derived by hardware wallets, keyed by script
+class HwBlindingKeyCache constructor(
+    database: Database,
+    greenKeystore: GreenKeystore
+) : HwDeviceCache(database = database, greenKeystore = greenKeystore, type = "blinding_key") {
+
+    suspend fun getBlindingKeys(
+        gdkHardwareWallet: GdkHardwareWallet,
+        network: Network,
+        scripts: List<String>,
+        hwInteraction: HardwareWalletInteraction?
+    ): List<String> = get(
+        gdkHardwareWallet = gdkHardwareWallet,
+        network = network,
+        keys = scripts,
+        hwInteraction = hwInteraction
+    ) { missing ->
+        gdkHardwareWallet.getBlindingKeys(
+            scripts = missing,
+            hwInteraction = hwInteraction
+        )
+    }
+}
@@ -0,0 +1,104 @@
+package com.blockstream.common.gdk.device
+
+import com.blockstream.common.crypto.GreenKeystore
+import com.blockstream.common.database.Database
+import com.blockstream.common.gdk.data.Network
+import com.blockstream.common.utils.Loggable
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.serialization.encodeToString
+import kotlinx.serialization.json.Json
+import okio.ByteString.Companion.encodeUtf8
+
+/**
+ * Persistent cache of values derived by hardware wallets, eg. xpubs or blinding keys.
+ *
+ * Entries are keyed by a fingerprint of the device master xpub (so a different seed or
+ * passphrase never shares entries), the network and the cache [type]. The entries of a device are
+ * stored as a single map encrypted with the platform keystore, so that a login with hundreds of
+ * entries costs one decryption instead of one per entry. As each write replaces the whole map,
+ * lookups of the same device and network are serialized.
+ */
+open class HwDeviceCache constructor(
+    private val database: Database,
+    private val greenKeystore: GreenKeystore,
+    private val type: String
+) {
+
+    // Striped so that the number of locks doesn't grow with the devices seen
+    private val mutexes = List(MUTEX_STRIPES) { Mutex() }
+
+    // Returns the value for each key, only the missing ones are requested from the device with fetch
+    suspend fun get(
+        gdkHardwareWallet: GdkHardwareWallet,
+        network: Network,
+        keys: List<String>,
+        hwInteraction: HardwareWalletInteraction?,
+        fetch: suspend (missing: List<String>) -> List<String>
+    ): List<String> {
+        if (keys.isEmpty()) return listOf()
+
+        val deviceId = gdkHardwareWallet.getMasterXpub(network = network, hwInteraction = hwInteraction).let {
+            fingerprint(it)
+        }
+
+        return mutexes["$deviceId:${network.id}".hashCode().mod(MUTEX_STRIPES)].withLock {
+            getLocked(deviceId = deviceId, network = network, keys = keys, fetch = fetch)
+        }
+    }
+
+    private suspend fun getLocked(
+        deviceId: String,
+        network: Network,
+        keys: List<String>,
+        fetch: suspend (missing: List<String>) -> List<String>
+    ): List<String> {
+        val cached: Map<String, String> = try {
+            database.getHwCache(deviceId = deviceId, network = network.id, type = type)?.let {
+                Json.decodeFromString(greenKeystore.decryptData(it).decodeToString())
+            } ?: mapOf()
+        } catch (e: Exception) {
+            // eg. keystore key was invalidated, entries can't be recovered
+            logger.i { "Discarding cached $type entries: ${e.message}" }
+            database.deleteHwCaches(deviceId)
+            mapOf()
+        }
+
+        val missing = keys.filter { !cached.containsKey(it) }.distinct()
+
+        logger.d { "get $type: ${keys.size - missing.size} cached, ${missing.size} requested from device" }
+
+        val fetched = if (missing.isEmpty()) {
+            mapOf()
+        } else {
+            val values = fetch(missing)
+
+            if (values.size != missing.size) {
+                throw Exception("Expected ${missing.size} $type entries from the device, got ${values.size}")
+            }
+
+            missing.zip(values).toMap().also { entries ->
+                try {
+                    database.replaceHwCache(
+                        deviceId = deviceId,
+                        network = network.id,
+                        type = type,
+                        entries = greenKeystore.encryptData(Json.encodeToString(cached + entries).encodeToByteArray())
+                    )
+                } catch (e: Exception) {
+                    e.printStackTrace()
+                }
+            }
+        }
+
+        return keys.map { key ->
+            cached[key] ?: fetched.getValue(key)
+        }
+    }
+
+    companion object : Loggable() {
+        private const val MUTEX_STRIPES = 16
+
+        fun fingerprint(masterXpub: String) = masterXpub.encodeUtf8().sha256().hex()
+    }
+}
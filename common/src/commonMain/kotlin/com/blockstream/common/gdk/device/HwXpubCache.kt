@@ -0,0 +1,34 @@
+package com.blockstream.common.gdk.device
+
+import com.blockstream.common.crypto.GreenKeystore
+import com.blockstream.common.database.Database
+import com.blockstream.common.gdk.data.Network
+
+// Xpubs derived by hardware wallets, keyed by derivation path
+class HwXpubCache constructor(
+    database: Database,
+    greenKeystore: GreenKeystore
+) : HwDeviceCache(database = database, greenKeystore = greenKeystore, type = "xpub") {
+
+    suspend fun getXpubs(
+        gdkHardwareWallet: GdkHardwareWallet,
+        network: Network,
+        paths: List<List<Int>>,
+        hwInteraction: HardwareWalletInteraction?
+    ): List<String> {
+        val pathsByKey = paths.associateBy { it.joinToString("/") }
+
+        return get(
+            gdkHardwareWallet = gdkHardwareWallet,
+            network = network,
+            keys = paths.map { it.joinToString("/") },
+            hwInteraction = hwInteraction
+        ) { missing ->
+            gdkHardwareWallet.getXpubs(
+                network = network,
+                paths = missing.map { pathsByKey.getValue(it) },
+                hwInteraction = hwInteraction
+            )
+        }
+    }
+}
@@ -423,6 +423,39 @@ class JadeHWWallet constructor(
         }
     }
 
+    override fun getBlindingKeys(
+        scripts: List<String>,
+        hwInteraction: HardwareWalletInteraction?
+    ): List<String> = runBlocking {
+        mutex.withLock {
+            logger.d { "getBlindingKeys(scripts=${scripts.size})" }
+
+            try {
+                jade.getBlindingKeys(scripts.map { it.hexToByteArray() }).map { it.toHexString() }
+            } catch (e: Exception) {
+                throw RuntimeException(e.message)
+            }
+        }
+    }
+
+    override fun getBlindingNonces(
+        pubKeys: List<String>,
+        scripts: List<String>,
+        hwInteraction: HardwareWalletInteraction?
+    ): List<String> = runBlocking {
+        mutex.withLock {
+            logger.d { "getBlindingNonces(scripts=${scripts.size})" }
+
+            try {
+                jade.getSharedNonces(
+                    scripts = scripts.map { it.hexToByteArray() },
+                    pubkeys = pubKeys.map { it.hexToByteArray() }
+                ).map { it.toHexString() }
+            } catch (e: Exception) {
+                throw RuntimeException(e.message)
+            }
+        }
+    }
 
     override fun getBlindingFactors(
         inputs: List<InputOutput>,
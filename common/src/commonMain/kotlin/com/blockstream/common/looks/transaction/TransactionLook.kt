@@ -20,6 +20,10 @@ data class TransactionLook constructor(
     val assets: List<String>
 ) {
 
+    // Stable identity of the row in transaction lists
+    val key: String
+        get() = "${transaction.txHash}-${transaction.txType.gdkType}"
+
     val asMasked: TransactionLook
         get() = copy(assets = assets.map { "*****" })
 
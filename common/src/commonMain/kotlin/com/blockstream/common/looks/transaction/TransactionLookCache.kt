@@ -0,0 +1,69 @@
+package com.blockstream.common.looks.transaction
+
+import com.blockstream.common.extensions.isPolicyAsset
+import com.blockstream.common.gdk.GdkSession
+import com.blockstream.common.gdk.data.Transaction
+import com.blockstream.common.utils.Loggable
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+
+/**
+ * Builds the [TransactionLook]s of a transaction list incrementally.
+ *
+ * Looks are kept from the previous update and only rebuilt for rows whose rendering changed, so
+ * loading a new page or a new block only converts the amounts of the new or changed rows.
+ */
+class TransactionLookCache {
+
+    private data class Key(
+        val txHash: String,
+        val type: String,
+        // Confirmations are only displayed until the transaction is completed
+        val confirmations: Long,
+        val isRefundableSwap: Boolean,
+        val satoshi: Map<String, Long>,
+        val unit: String?,
+        val hideAmounts: Boolean
+    )
+
+    private val mutex = Mutex()
+    private var looks = mapOf<Key, TransactionLook>()
+
+    suspend fun create(
+        transactions: List<Transaction>,
+        session: GdkSession,
+        hideAmounts: Boolean
+    ): List<TransactionLook> = mutex.withLock {
+        val updated = HashMap<Key, TransactionLook>(transactions.size)
+        var built = 0
+
+        transactions.map { transaction ->
+            val key = Key(
+                txHash = transaction.txHash,
+                type = transaction.type,
+                confirmations = transaction.getConfirmations(session).coerceAtMost(transaction.network.confirmationsRequired),
+                isRefundableSwap = transaction.isRefundableSwap,
+                satoshi = transaction.satoshi,
+                unit = session.getSettings(transaction.network)?.unit,
+                hideAmounts = hideAmounts || session.hideAmounts
+            )
+
+            (updated[key] ?: looks[key])?.let { look ->
+                if (look.transaction === transaction) look else look.copy(transaction = transaction)
+            } ?: TransactionLook.create(transaction, session).let { look ->
+                built++
+                if (hideAmounts) look.asMasked else look
+            }.also { look ->
+                // Amounts of assets without metadata are rebuilt once metadata is available
+                if (transaction.assets.all { it.first.isPolicyAsset(session) || session.getAsset(it.first) != null }) {
+                    updated[key] = look
+                }
+            }
+        }.also {
+            looks = updated
+            logger.d { "Transaction looks: $built built, ${it.size - built} reused" }
+        }
+    }
+
+    companion object : Loggable()
+}
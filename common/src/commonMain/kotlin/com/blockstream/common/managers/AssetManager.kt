@@ -1,8 +1,10 @@
 package com.blockstream.common.managers
 
+import com.blockstream.common.data.AppConfig
 import com.blockstream.common.gdk.data.LiquidAssets
 import com.blockstream.common.gdk.params.AssetsParams
 import com.blockstream.common.gdk.params.GetAssetsParams
+import okio.Path.Companion.toPath
 
 interface AssetsProvider {
     fun refreshAssets(params: AssetsParams)
@@ -13,10 +15,11 @@ interface AssetsProvider {
  * AssetManager is responsible of updating Assets and handle different caches
  * App Cache: cached data from apk
  * GDK Cache: cached data from a previous successful fetch
+ * Disk Cache: asset icons, see NetworkAssetManager
  */
-object AssetManager {
-    private val liquidAssetManager by lazy { NetworkAssetManager()}
-    private val liquidTestnetAssetManager by lazy { NetworkAssetManager()}
+class AssetManager constructor(appConfig: AppConfig) {
+    private val liquidAssetManager by lazy { NetworkAssetManager(cacheDir = "${appConfig.cacheDir}/assets/liquid".toPath()) }
+    private val liquidTestnetAssetManager by lazy { NetworkAssetManager(cacheDir = "${appConfig.cacheDir}/assets/liquid_testnet".toPath()) }
 
     fun getNetworkAssetManager(isMainnet: Boolean): NetworkAssetManager {
         return if (isMainnet) {
@@ -3,19 +3,25 @@ package com.blockstream.common.managers
 import com.blockstream.common.gdk.data.Asset
 import com.blockstream.common.gdk.params.AssetsParams
 import com.blockstream.common.gdk.params.GetAssetsParams
+import com.blockstream.common.platformFileSystem
 import com.blockstream.common.utils.Loggable
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.IO
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.flow.MutableSharedFlow
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.asSharedFlow
+import kotlinx.coroutines.flow.getAndUpdate
+import kotlinx.coroutines.flow.update
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 import kotlinx.datetime.Clock
 import kotlinx.datetime.DateTimeUnit
 import kotlinx.datetime.Instant
 import kotlinx.datetime.TimeZone
 import kotlinx.datetime.until
+import okio.Path
 
 enum class CacheStatus {
     Empty, Latest
@@ -30,12 +36,36 @@ data class AssetStatus constructor(
 /*
  * NetworkAssetManager is responsible of updating Assets and handle different caches
  * App Cache: cached data from apk
+ * Memory Cache: metadata and icons, icons are bounded by size
+ * Disk Cache: icons evicted from memory or from a previous run, bounded by size, oldest written are evicted first
+ *
+ * Caches are immutable snapshots updated atomically, so they can be accessed from any thread.
+ * Icon hits are tracked in a separate set so that a hit doesn't rebuild the icons snapshot.
  */
-class NetworkAssetManager constructor() {
+class NetworkAssetManager constructor(
+    private val cacheDir: Path? = null,
+    private val iconsMaxBytes: Long = ICONS_MEMORY_CACHE_BYTES,
+    private val diskIconsMaxBytes: Long = ICONS_DISK_CACHE_BYTES
+) {
     private val scope = CoroutineScope(SupervisorJob() + Dispatchers.Default)
 
-    private val metadata = mutableMapOf<String, Asset?>()
-    private val icons = mutableMapOf<String, ByteArray?>()
+    private val fileSystem by lazy { platformFileSystem() }
+
+    // null values are assets without metadata
+    private val metadata = MutableStateFlow(mapOf<String, Asset?>())
+    private val icons = MutableStateFlow(IconsCache())
+
+    // Icons hit since they were last considered for eviction
+    private val iconHits = MutableStateFlow(setOf<String>())
+
+    // Assets without an icon
+    private val missingIcons = MutableStateFlow(setOf<String>())
+
+    // Icons stored in the disk cache and their size, in the order they were written
+    private val diskIcons by lazy { MutableStateFlow(loadDiskIcons()) }
+
+    // Assets that are needed but not yet fetched, they are fetched along with the next miss
+    private val pending = MutableStateFlow(setOf<String>())
 
     private val _statusStateFlow = MutableStateFlow(AssetStatus())
     private val _status get() = _statusStateFlow.value
@@ -44,51 +74,205 @@ class NetworkAssetManager constructor() {
     val assetsUpdateFlow = _assetsUpdateSharedFlow.asSharedFlow()
 
     fun cacheAssets(assetIds: Collection<String>, assetsProvider: AssetsProvider) {
-        assetIds.filter { !metadata.containsKey(it) && !icons.containsKey(it) }.takeIf { it.isNotEmpty() }?.also { unCachedIds ->
-            assetsProvider.getAssets(GetAssetsParams(unCachedIds))?.also { assets ->
-                // get_assets only returns non null assets, so we need to add nulls for the missing assets
-                unCachedIds.forEach { assetId ->
-                    metadata[assetId] = assets.assets?.get(assetId)
-                    icons[assetId] = assets.icons?.get(assetId)
-                }
-            }
+        assetIds.filter { !metadata.value.containsKey(it) }.takeIf { it.isNotEmpty() }?.also { unCachedIds ->
+            fetch(unCachedIds, assetsProvider)
         }
     }
 
     fun getAsset(assetId: String, assetsProvider: AssetsProvider): Asset? {
         // Asset from GDK (cache or up2date)
-        if (!metadata.containsKey(assetId)) {
+        if (!metadata.value.containsKey(assetId)) {
             try {
                 logger.i { "Cache Asset Metadata Missed: $assetId" }
-                // If null save it in cache either way
-                assetsProvider.getAssets(GetAssetsParams(listOf(assetId)))?.assets?.get(assetId).let {
-                    metadata[assetId] = it
-                }
+                fetch(listOf(assetId), assetsProvider)
             } catch (e: Exception) {
                 e.printStackTrace()
             }
         }
 
-        return metadata[assetId]
+        return metadata.value[assetId]
+    }
+
+    // Memory cache only, safe to call from the UI
+    fun getCachedAssetIcon(assetId: String): ByteArray? = icons.value.get(assetId)?.also {
+        if (!iconHits.value.contains(assetId)) {
+            iconHits.update { it + assetId }
+        }
+    }
+
+    // Loads a memory miss from the disk cache or GDK without blocking the caller
+    suspend fun loadAssetIcon(assetId: String, assetsProvider: AssetsProvider): ByteArray? = withContext(context = Dispatchers.IO) {
+        getAssetIcon(assetId, assetsProvider)
     }
 
     fun getAssetIcon(assetId: String, assetsProvider: AssetsProvider): ByteArray? {
-        if (!icons.containsKey(assetId)) {
-            try {
-                logger.i { "Cache Asset Icon Missed: $assetId" }
-                // If null save it in cache either way
-                assetsProvider.getAssets(GetAssetsParams(listOf(assetId)))?.icons?.get(assetId).let {
-                    icons[assetId] = it
+        getCachedAssetIcon(assetId)?.also { return it }
+
+        if (missingIcons.value.contains(assetId)) return null
+
+        readDiskIcon(assetId)?.also {
+            putIcon(assetId, it)
+            return it
+        }
+
+        try {
+            logger.i { "Cache Asset Icon Missed: $assetId" }
+            fetch(listOf(assetId), assetsProvider, force = true)
+        } catch (e: Exception) {
+            e.printStackTrace()
+        }
+
+        return getCachedAssetIcon(assetId)
+    }
+
+    fun hasAssetIcon(assetId: String): Boolean {
+        if (icons.value.contains(assetId) || diskIcons.value.contains(assetId)) return true
+
+        // Fetch it along with the next miss
+        if (!metadata.value.containsKey(assetId)) {
+            pending.update { it + assetId }
+        }
+
+        return false
+    }
+
+    // Fetch the assets and any pending ones with a single get_assets call
+    private fun fetch(assetIds: Collection<String>, assetsProvider: AssetsProvider, force: Boolean = false) {
+        val batch = (assetIds.filter { force || !metadata.value.containsKey(it) } + pending.getAndUpdate { setOf() }.filter {
+            !metadata.value.containsKey(it)
+        }).distinct()
+
+        if (batch.isEmpty()) return
+
+        logger.d { "Fetching ${batch.size} assets" }
+
+        val assets = assetsProvider.getAssets(GetAssetsParams(batch))
+
+        // Nothing is cached on failure (eg. offline), the assets are fetched again on the next miss
+        if (assets == null) {
+            pending.update { it + batch }
+            return
+        }
+
+        // get_assets only returns non null assets, so we need to add nulls for the missing assets
+        metadata.update { metadata ->
+            metadata + batch.associateWith { assets.assets?.get(it) ?: metadata[it] }
+        }
+
+        val fetchedIcons = batch.mapNotNull { assetId -> assets.icons?.get(assetId)?.let { assetId to it } }.toMap()
+
+        // Update the caches once per batch instead of once per icon
+        putIcons(fetchedIcons)
+        writeDiskIcons(fetchedIcons)
+
+        (batch - fetchedIcons.keys).takeIf { it.isNotEmpty() }?.also { missing ->
+            missingIcons.update { it + missing }
+        }
+    }
+
+    private fun putIcon(assetId: String, icon: ByteArray) = putIcons(mapOf(assetId to icon))
+
+    private fun putIcons(newIcons: Map<String, ByteArray>) {
+        if (newIcons.isEmpty()) return
+
+        while (true) {
+            val cache = icons.value
+            val (updated, consumedHits) = cache.putAll(newIcons, iconsMaxBytes, iconHits.value)
+
+            if (icons.compareAndSet(cache, updated)) {
+                if (consumedHits.isNotEmpty()) {
+                    iconHits.update { it - consumedHits }
                 }
-            } catch (e: Exception) {
-                e.printStackTrace()
+                return
+            }
+        }
+    }
+
+    private fun iconPath(assetId: String): Path? = cacheDir?.takeIf { ASSET_ID_REGEX.matches(assetId) }?.let {
+        it / "$assetId.png"
+    }
+
+    private fun loadDiskIcons(): Map<String, Long> = try {
+        cacheDir?.takeIf { fileSystem.exists(it) }?.let { dir ->
+            fileSystem.list(dir).mapNotNull { path ->
+                fileSystem.metadataOrNull(path)?.let { Triple(path.name.removeSuffix(".png"), it.size ?: 0L, it.lastModifiedAtMillis ?: 0L) }
+            }.sortedBy { it.third }.associate { it.first to it.second }
+        } ?: mapOf()
+    } catch (e: Exception) {
+        e.printStackTrace()
+        mapOf()
+    }
+
+    private fun readDiskIcon(assetId: String): ByteArray? {
+        if (!diskIcons.value.contains(assetId)) return null
+
+        return try {
+            iconPath(assetId)?.let { path ->
+                fileSystem.read(path) { readByteArray() }
             }
+        } catch (e: Exception) {
+            e.printStackTrace()
+            diskIcons.update { it - assetId }
+            null
         }
+    }
+
+    private fun writeDiskIcons(newIcons: Map<String, ByteArray>) {
+        val paths = newIcons.keys.mapNotNull { assetId -> iconPath(assetId)?.let { assetId to it } }
+
+        if (paths.isEmpty()) return
+
+        scope.launch(context = Dispatchers.IO) {
+            val written = paths.mapNotNull { (assetId, path) ->
+                try {
+                    fileSystem.createDirectories(path.parent!!)
+                    val icon = newIcons.getValue(assetId)
+                    fileSystem.write(path) { write(icon) }
+                    assetId to icon.size.toLong()
+                } catch (e: Exception) {
+                    e.printStackTrace()
+                    null
+                }
+            }
 
-        return icons[assetId]
+            addDiskIcons(written).forEach { assetId ->
+                try {
+                    iconPath(assetId)?.also { fileSystem.delete(it) }
+                } catch (e: Exception) {
+                    e.printStackTrace()
+                }
+            }
+        }
     }
 
-    fun hasAssetIcon(assetId: String): Boolean = icons[assetId] != null
+    // Adds the written icons and returns the ones evicted to stay within diskIconsMaxBytes, the newest are always kept
+    private fun addDiskIcons(written: List<Pair<String, Long>>): List<String> {
+        if (written.isEmpty()) return listOf()
+
+        while (true) {
+            val current = diskIcons.value
+            val updated = LinkedHashMap(current)
+            written.forEach { (assetId, size) ->
+                updated.remove(assetId)
+                updated[assetId] = size
+            }
+
+            var size = updated.values.sum()
+            val evicted = mutableListOf<String>()
+            val iterator = updated.entries.iterator()
+
+            while (size > diskIconsMaxBytes && updated.size > written.size) {
+                val entry = iterator.next()
+                size -= entry.value
+                evicted += entry.key
+                iterator.remove()
+            }
+
+            if (diskIcons.compareAndSet(current, updated)) {
+                return evicted
+            }
+        }
+    }
 
     fun updateAssetsIfNeeded(provider: AssetsProvider) {
         val lastUpdate = _status.updatedAt?.until(Clock.System.now(), DateTimeUnit.SECOND, TimeZone.UTC)
@@ -109,13 +293,8 @@ class NetworkAssetManager constructor() {
                     )
 
                     // Remove null assets from cache
-                    metadata.filterValues { it == null }.forEach {
-                        metadata.remove(it.key)
-                    }
-
-                    icons.filterValues { it == null }.forEach {
-                        icons.remove(it.key)
-                    }
+                    metadata.update { metadata -> metadata.filterValues { it != null } }
+                    missingIcons.value = setOf()
 
                     _status.cacheStatus = CacheStatus.Latest
                     _status.updatedAt = Clock.System.now().also {
@@ -134,5 +313,60 @@ class NetworkAssetManager constructor() {
         }
     }
 
-    companion object: Loggable()
-}
\ No newline at end of file
+    companion object: Loggable() {
+        const val ICONS_MEMORY_CACHE_BYTES = 4L * 1024 * 1024
+        const val ICONS_DISK_CACHE_BYTES = 16L * 1024 * 1024
+
+        private val ASSET_ID_REGEX = Regex("^[0-9a-f]{64}$")
+    }
+}
+
+/*
+ * Immutable icons cache bounded by size, evicts with the clock (second chance) algorithm.
+ * The referenced bits are kept by the caller, put returns the ones it consumed
+ */
+private class IconsCache(
+    private val entries: LinkedHashMap<String, ByteArray> = linkedMapOf(),
+    private val bytes: Long = 0
+) {
+    fun get(assetId: String): ByteArray? = entries[assetId]
+
+    fun contains(assetId: String) = entries.containsKey(assetId)
+
+    // Copies the entries once for the whole batch
+    fun putAll(icons: Map<String, ByteArray>, maxBytes: Long, referenced: Set<String>): Pair<IconsCache, Set<String>> {
+        val updated = LinkedHashMap(entries)
+        var size = bytes
+        icons.forEach { (assetId, icon) ->
+            size += icon.size - (updated.remove(assetId)?.size ?: 0)
+            updated[assetId] = icon
+        }
+
+        val consumed = mutableSetOf<String>()
+
+        // Older icons still in the cache, the new ones are only evicted once these are gone
+        var older = updated.size - icons.size
+
+        while (size > maxBytes && updated.size > 1) {
+            val (key, entry) = updated.entries.first()
+            updated.remove(key)
+
+            if (key in icons) {
+                if (older > 0) {
+                    // Keep the newest icons
+                    updated[key] = entry
+                } else {
+                    size -= entry.size
+                }
+            } else if (key in referenced && consumed.add(key)) {
+                // Give it a second chance
+                updated[key] = entry
+            } else {
+                size -= entry.size
+                older--
+            }
+        }
+
+        return IconsCache(updated, size) to consumed
+    }
+}
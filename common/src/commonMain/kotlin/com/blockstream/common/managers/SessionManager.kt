@@ -9,9 +9,11 @@ import com.blockstream.common.extensions.logException
 import com.blockstream.common.gdk.GASession
 import com.blockstream.common.gdk.Gdk
 import com.blockstream.common.gdk.GdkSession
-import com.blockstream.common.gdk.JsonConverter.Companion.JsonDeserializer
+import com.blockstream.common.gdk.JsonConverter
 import com.blockstream.common.gdk.Wally
+import com.blockstream.common.gdk.WalletSnapshotStore
 import com.blockstream.common.gdk.data.Network
+import com.blockstream.common.gdk.data.Notification
 import com.blockstream.common.gdk.data.TorEvent
 import com.blockstream.common.gdk.params.LoginCredentialsParams
 import com.blockstream.common.lightning.LightningBridge
@@ -31,8 +33,6 @@ import kotlinx.coroutines.flow.filterNotNull
 import kotlinx.coroutines.flow.launchIn
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.launch
-import kotlinx.serialization.json.JsonElement
-import kotlinx.serialization.json.decodeFromJsonElement
 import kotlin.collections.set
 import kotlin.properties.Delegates
 
@@ -44,7 +44,8 @@ class SessionManager constructor(
     private val assetManager: AssetManager,
     private var countly: CountlyBase,
     private val gdk: Gdk,
-    private val wally: Wally
+    private val wally: Wally,
+    private val walletSnapshotStore: WalletSnapshotStore
 ) {
     private val userAgent = "${appInfo.userAgent}_${appInfo.version}_${appInfo.type}"
 
@@ -130,11 +131,10 @@ class SessionManager constructor(
 
         gdk.setNotificationHandler { gaSession: GASession, jsonObject: Any ->
             try {
+                // Decode once for all sessions
+                val notification = JsonConverter.decode<Notification>(jsonObject)
                 gdkSessions.forEach {
-                    it.onNewNotification(
-                        gaSession,
-                        JsonDeserializer.decodeFromJsonElement(jsonObject as JsonElement)
-                    )
+                    it.onNewNotification(gaSession, notification)
                 }
             } catch (e: Exception) {
                 e.printStackTrace()
@@ -265,7 +265,8 @@ class SessionManager constructor(
             assetManager = assetManager,
             gdk = gdk,
             wally = wally,
-            countly = countly
+            countly = countly,
+            walletSnapshotStore = walletSnapshotStore
         )
 
         gdkSessions.add(session)
@@ -1,5 +1,7 @@
 package com.blockstream.common.models.abstract
 
+import com.blockstream.common.bcur.UrChecksumException
+import com.blockstream.common.bcur.UrDecoder
 import com.blockstream.common.data.GreenWallet
 import com.blockstream.common.data.ScanResult
 import com.blockstream.common.events.Event
@@ -13,6 +15,8 @@ import com.blockstream.common.utils.Loggable
 import com.rickclephas.kmp.observableviewmodel.coroutineScope
 import kotlinx.coroutines.CancellationException
 import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.launch
 
@@ -20,7 +24,8 @@ abstract class AbstractScannerViewModel(val isDecodeContinuous: Boolean = false,
 
     private var isScanComplete = false
 
-    private var bcurPartEmitter: CompletableDeferred<String>? = null
+    // Multipart UR frames waiting to be decoded
+    private var urFrames: Channel<String>? = null
 
     abstract fun setScanResult(scanResult: ScanResult)
 
@@ -47,58 +52,95 @@ abstract class AbstractScannerViewModel(val isDecodeContinuous: Boolean = false,
             val scannedText = event.scannedText
 
             if(!isScanComplete) {
-                if ((isDecodeContinuous && scannedText.startsWith(prefix = "ur:", ignoreCase = true)) || bcurPartEmitter != null) {
-
-                    if (bcurPartEmitter == null) {
+                if (isDecodeContinuous && scannedText.startsWith(prefix = "ur:", ignoreCase = true)) {
+                    if (UrDecoder.isMultipart(scannedText)) {
+                        // Never suspends, frames arriving while a part is being solved are queued
+                        (urFrames ?: startUrDecoder()).trySend(scannedText)
+                    } else if (urFrames == null) {
                         viewModelScope.coroutineScope.launch(context = logException(countly)) {
+                            bcurDecode(scannedText)
+                        }
+                    }
+                } else if (urFrames == null) {
+                    barcodeScannerResult(ScanResult(scannedText))
+                }
+            }
+        }
+    }
+
+    private fun startUrDecoder(): Channel<String> {
+        return Channel<String>(Channel.UNLIMITED).also { frames ->
+            urFrames = frames
 
-                            try {
-                                val bcurDecodedData = session.bcurDecode(
-                                    params = BcurDecodeParams(part = scannedText),
-                                    bcurResolver = object : BcurResolver {
-                                        override fun requestData(): CompletableDeferred<String> {
-                                            return CompletableDeferred<String>().also {
-                                                bcurPartEmitter = it
-                                            }
-                                        }
-
-                                        override fun progress(progress: Int) {
-                                            _progress.value = progress
-                                        }
-                                    }
-                                )
-
-                                barcodeScannerResult(ScanResult.from(bcurDecodedData))
-                            } catch (e: CancellationException){
-                                e.printStackTrace()
-                            }  catch (e: Exception) {
-                                e.printStackTrace()
-                                postSideEffect(SideEffects.ErrorDialog(e))
-                            } finally {
-                                bcurPartEmitter = null
+            viewModelScope.coroutineScope.launch(context = logException(countly)) {
+                val decoder = UrDecoder()
+
+                try {
+                    for (frame in frames) {
+                        try {
+                            if (decoder.receivePart(frame)) {
+                                _progress.value = decoder.progress
                             }
+                        } catch (e: UrChecksumException) {
+                            // Scanning goes on from scratch
+                            _progress.value = decoder.progress
+                            postSideEffect(SideEffects.ErrorDialog(e))
+                        } catch (e: IllegalArgumentException) {
+                            // Misread frame, the collected parts are kept and a later loop delivers it again
+                            logger.d { "Skipping UR frame: ${e.message}" }
                         }
-                    } else {
-                        if (bcurPartEmitter?.isCompleted == false) {
-                            bcurPartEmitter?.complete(scannedText)
+
+                        decoder.result?.also {
+                            // Let GDK interpret the assembled UR, it's decoded in a single step
+                            bcurDecode(it.toSinglePart())
+                            break
                         }
                     }
-                } else {
-                    barcodeScannerResult(ScanResult(scannedText))
+                } catch (e: CancellationException){
+                    e.printStackTrace()
+                } catch (e: Exception) {
+                    e.printStackTrace()
+                    postSideEffect(SideEffects.ErrorDialog(e))
+                } finally {
+                    frames.close()
+                    urFrames = null
                 }
             }
         }
     }
 
-    // Called from Android ViewModelX
-    override fun onCleared() {
-        super.onCleared()
+    private suspend fun bcurDecode(part: String) {
         try {
-            bcurPartEmitter?.completeExceptionally(Exception(""))
-        } catch (e: Exception) {
+            val bcurDecodedData = session.bcurDecode(
+                params = BcurDecodeParams(part = part),
+                bcurResolver = object : BcurResolver {
+                    override fun requestData(): CompletableDeferred<String> {
+                        // Complete URs don't need more parts
+                        return CompletableDeferred<String>().also {
+                            it.completeExceptionally(Exception("id_decoding_error_try_again_by_scanning"))
+                        }
+                    }
+
+                    override fun progress(progress: Int) {
+                        _progress.value = progress
+                    }
+                }
+            )
+
+            barcodeScannerResult(ScanResult.from(bcurDecodedData))
+        } catch (e: CancellationException){
             e.printStackTrace()
+        }  catch (e: Exception) {
+            e.printStackTrace()
+            postSideEffect(SideEffects.ErrorDialog(e))
         }
     }
 
+    // Called from Android ViewModelX
+    override fun onCleared() {
+        super.onCleared()
+        urFrames?.close()
+    }
+
     companion object: Loggable()
 }
\ No newline at end of file
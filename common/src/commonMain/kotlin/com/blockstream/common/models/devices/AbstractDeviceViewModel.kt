@@ -150,7 +150,7 @@ abstract class AbstractDeviceViewModel constructor(
                 )
             }
             is FirmwareUpdateState.Uploading -> {
-
+                logger.d { "firmwareUploading: ${state.written}/${state.totalSize} ${state.bytesPerSecond} B/s, chunk latency ${state.chunkLatency}" }
             }
             is FirmwareUpdateState.Uploaded -> {
                 logger.i { "firmwareComplete: ${state.success}" }
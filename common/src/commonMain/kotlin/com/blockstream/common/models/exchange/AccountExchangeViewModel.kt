@@ -418,7 +418,7 @@ class AccountExchangeViewModel(
                     to = toAccountAsset.value,
                     addressees = listOf(params).toJsonElement(),
                     feeRate = getFeeRate(),
-                    utxos = unspentOutputs.unspentOutputs
+                    utxos = unspentOutputs.unspentOutputsJson
                 )
             }
         })
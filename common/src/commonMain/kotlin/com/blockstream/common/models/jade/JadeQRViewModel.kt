@@ -18,6 +18,9 @@ import cafe.adriel.voyager.core.lifecycle.JavaSerializable
 import com.blockstream.common.Parcelable
 import com.blockstream.common.Parcelize
 import com.blockstream.common.Urls
+import com.blockstream.common.bcur.AnimatedUr
+import com.blockstream.common.bcur.QrDensity
+import com.blockstream.common.bcur.QrFrameRate
 import com.blockstream.common.data.GreenWallet
 import com.blockstream.common.data.NavAction
 import com.blockstream.common.data.NavData
@@ -43,16 +46,23 @@ import com.blockstream.common.navigation.NavigateDestinations
 import com.blockstream.common.sideeffects.SideEffects
 import com.blockstream.common.utils.Loggable
 import com.rickclephas.kmp.nativecoroutines.NativeCoroutinesState
+import com.rickclephas.kmp.observableviewmodel.MutableStateFlow
 import com.rickclephas.kmp.observableviewmodel.coroutineScope
 import com.rickclephas.kmp.observableviewmodel.launch
+import com.rickclephas.kmp.observableviewmodel.stateIn
+import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.SharingStarted
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.isActive
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 import kotlinx.serialization.json.decodeFromJsonElement
 import kotlinx.serialization.json.jsonObject
 import kotlinx.serialization.json.jsonPrimitive
@@ -107,6 +117,23 @@ abstract class JadeQRViewModelAbstract(
     @NativeCoroutinesState
     abstract val urPart: StateFlow<String?>
 
+    // All the frames of the animated QR, to be rendered once
+    @NativeCoroutinesState
+    abstract val urParts: StateFlow<List<String>>
+
+    @NativeCoroutinesState
+    abstract val urPartIndex: StateFlow<Int>
+
+    @NativeCoroutinesState
+    abstract val qrDensity: MutableStateFlow<QrDensity>
+
+    @NativeCoroutinesState
+    abstract val qrFrameRate: MutableStateFlow<QrFrameRate>
+
+    // Time to display all the frames once with the selected density and frame rate
+    @NativeCoroutinesState
+    abstract val qrLoopDurationMillis: StateFlow<Long>
+
     abstract val scenario: StateFlow<Scenario>
 
     @NativeCoroutinesState
@@ -125,7 +152,29 @@ class JadeQRViewModel(
 ) {
     private var _urParts = MutableStateFlow<List<String>?>(null)
 
-    private var _urPartIndex = 0
+    override val qrDensity = MutableStateFlow(viewModelScope, QrDensity.Low)
+    override val qrFrameRate = MutableStateFlow(viewModelScope, QrFrameRate.Slow)
+
+    // GDK parts re-encoded with the selected density and extended with fountain parts
+    private val _animatedUr: StateFlow<AnimatedUr?> = combine(_urParts, qrDensity) { parts, density ->
+        parts?.let {
+            withContext(context = Dispatchers.Default) {
+                AnimatedUr.create(parts = it, density = density)
+            }
+        }
+    }.stateIn(viewModelScope, SharingStarted.Eagerly, null)
+
+    override val urParts: StateFlow<List<String>> = _animatedUr.map {
+        it?.parts ?: listOf()
+    }.stateIn(viewModelScope, SharingStarted.Eagerly, listOf())
+
+    override val qrLoopDurationMillis: StateFlow<Long> = combine(_animatedUr, qrFrameRate) { animatedUr, frameRate ->
+        animatedUr?.loopDurationMillis(frameRate) ?: 0L
+    }.stateIn(viewModelScope, SharingStarted.Eagerly, 0L)
+
+    private val _urPartIndex = MutableStateFlow(viewModelScope, 0)
+    override val urPartIndex: StateFlow<Int> = _urPartIndex.asStateFlow()
+
     private val _urPart: MutableStateFlow<String?> = MutableStateFlow(null)
     override val urPart: StateFlow<String?> = _urPart.asStateFlow()
 
@@ -142,6 +191,8 @@ class JadeQRViewModel(
 
     private var _job: Job? = null
 
+    private var _displayedUr: AnimatedUr? = null
+
     private val _isLightTheme = MutableStateFlow(false)
     override val isLightTheme: StateFlow<Boolean> = _isLightTheme
 
@@ -175,35 +226,47 @@ class JadeQRViewModel(
             )
         }.launchIn(this)
 
-        _urParts.onEach { parts ->
-            _job?.cancel()
+        _urParts.onEach {
+            _isValid.value = false
+        }.launchIn(this)
 
-            _urPartIndex = 0
+        combine(_animatedUr, qrFrameRate) { animatedUr, frameRate ->
+            animatedUr to frameRate
+        }.onEach { (animatedUr, frameRate) ->
+            _job?.cancel()
 
-            _urPart.value = parts?.firstOrNull()
+            // Keep the position if only the frame rate changed
+            if (animatedUr !== _displayedUr) {
+                _displayedUr = animatedUr
+                _urPartIndex.value = 0
+            }
 
-            _isValid.value = false
+            _urPart.value = animatedUr?.parts?.getOrNull(_urPartIndex.value)
 
             _job = viewModelScope.coroutineScope.launch(context = logException(countly)) {
                 // Rotate qr codes
-                if (parts != null && parts.size > 1) {
+                if (animatedUr != null && animatedUr.isAnimated) {
+                    val parts = animatedUr.parts
+
+                    logger.d { "Animating ${parts.size} parts of ${animatedUr.seqLen} fragments at ${frameRate.fps} fps, loop of ${animatedUr.loopDurationMillis(frameRate)}ms" }
+
                     while (isActive) {
-                        if (_urPartIndex >= parts.size) {
-                            _urPartIndex = 0
+                        var index = _urPartIndex.value
+                        if (index >= parts.size) {
+                            index = 0
                         }
 
-                        logger.d { "Displaying $_urPartIndex/${parts.size}" }
-
-                        // If half are displayed
-                        if (_urPartIndex >= (parts.size / 2)) {
+                        // If half of the fragments are displayed
+                        if (index >= (animatedUr.seqLen / 2)) {
                             _isValid.value = true
                         }
 
-                        _urPart.value = parts[_urPartIndex]
-                        _urPartIndex++
-                        delay(500L)
+                        _urPartIndex.value = index
+                        _urPart.value = parts[index]
+                        delay(frameRate.frameDurationMillis)
+                        _urPartIndex.value = index + 1
                     }
-                } else {
+                } else if (animatedUr != null) {
                     delay(3000L)
                     _isValid.value = true
                 }
@@ -476,6 +539,16 @@ class JadeQRViewModelPreview() : JadeQRViewModelAbstract(
     override val urPart =
         MutableStateFlow("Lorem ipsum dolor sit amet, consectetur adipiscing elit.")
 
+    override val urParts = MutableStateFlow(listOf(urPart.value))
+
+    override val urPartIndex = MutableStateFlow(0)
+
+    override val qrDensity = MutableStateFlow(viewModelScope, QrDensity.Low)
+
+    override val qrFrameRate = MutableStateFlow(viewModelScope, QrFrameRate.Slow)
+
+    override val qrLoopDurationMillis = MutableStateFlow(1000L)
+
     override val scenario = MutableStateFlow(PsbtScenario)
 
     override fun setScanResult(scanResult: ScanResult) {
@@ -43,6 +43,7 @@ import com.blockstream.common.lightning.fromSwapInfo
 import com.blockstream.common.lightning.onchainBalanceSatoshi
 import com.blockstream.common.looks.account.LightningInfoLook
 import com.blockstream.common.looks.transaction.TransactionLook
+import com.blockstream.common.looks.transaction.TransactionLookCache
 import com.blockstream.common.models.GreenViewModel
 import com.blockstream.common.navigation.NavigateDestinations
 import com.blockstream.common.sideeffects.SideEffects
@@ -147,6 +148,8 @@ class AccountOverviewViewModel(greenWallet: GreenWallet, accountAsset: AccountAs
             } else null
         } ?: emptyFlow()).stateIn(viewModelScope, SharingStarted.WhileSubscribed(), null)
 
+    private val transactionLookCache = TransactionLookCache()
+
     override val transactions: StateFlow<DataState<List<TransactionLook>>> = combine(
         session.accountTransactions(account),
         (session.takeIf { account.isLightning }?.ifConnected {
@@ -164,13 +167,7 @@ class AccountOverviewViewModel(greenWallet: GreenWallet, accountAsset: AccountAs
         .map { transactionsLooks ->
             val hideAmounts = settingsManager.appSettings.hideAmounts
             transactionsLooks.mapSuccess {
-                it.map {
-                    TransactionLook.create(it, session).let { look ->
-                        if (hideAmounts) {
-                            look.asMasked
-                        } else look
-                    }
-                }
+                transactionLookCache.create(it, session, hideAmounts)
             }
         }.stateIn(viewModelScope, SharingStarted.WhileSubscribed(), DataState.Loading)
 
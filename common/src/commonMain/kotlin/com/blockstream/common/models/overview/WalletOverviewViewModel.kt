@@ -26,6 +26,7 @@ import com.blockstream.common.gdk.data.AccountBalance
 import com.blockstream.common.gdk.data.WalletEvents
 import com.blockstream.common.looks.account.LightningInfoLook
 import com.blockstream.common.looks.transaction.TransactionLook
+import com.blockstream.common.looks.transaction.TransactionLookCache
 import com.blockstream.common.models.GreenViewModel
 import com.blockstream.common.navigation.NavigateDestinations
 import com.blockstream.common.sideeffects.SideEffect
@@ -170,14 +171,15 @@ class WalletOverviewViewModel(greenWallet: GreenWallet) :
     } ?: emptyFlow()).stateIn(viewModelScope, SharingStarted.WhileSubscribed(), null)
 
 
+    private val transactionLookCache = TransactionLookCache()
+
     private val _transactions: StateFlow<DataState<List<TransactionLook>>> = combine(
         session.walletTransactions.filter { session.isConnected },
         session.settings()
     ) { transactions, _ ->
         transactions.mapSuccess {
-            it.map {
-                TransactionLook.create(it, session)
-            }
+            // Masking is applied below, looks are cached unmasked
+            transactionLookCache.create(it, session, hideAmounts = false)
         }
     }.stateIn(viewModelScope, SharingStarted.WhileSubscribed(), DataState.Loading)
 
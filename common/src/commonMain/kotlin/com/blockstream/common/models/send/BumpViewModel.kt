@@ -165,7 +165,7 @@ class BumpViewModel(
             CreateTransactionParams(
                 subaccount = account.pointer,
                 feeRate = getFeeRate(),
-                utxos = unspentOutputs.unspentOutputs,
+                utxos = unspentOutputs.unspentOutputsJson,
                 previousTransaction = transaction
             )
         } catch (e: Exception) {
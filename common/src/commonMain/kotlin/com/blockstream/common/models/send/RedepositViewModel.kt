@@ -115,7 +115,7 @@ class RedepositViewModel(
 
         return (if (isRedeposit2FA) {
             CreateTransactionParams(
-                utxos = unspentOutputs.unspentOutputs,
+                utxos = unspentOutputs.unspentOutputsJson,
                 feeRate = getFeeRate(),
                 feeSubaccount = account.pointer,
                 isRedeposit = true
@@ -136,7 +136,7 @@ class RedepositViewModel(
             CreateTransactionParams(
                 from = accountAsset.value,
                 addressees = addressee.toJsonElement(),
-                utxos = unspentOutputs.unspentOutputs,
+                utxos = unspentOutputs.unspentOutputsJson,
                 feeRate = getFeeRate(),
                 isRedeposit = true
             )
@@ -33,6 +33,7 @@ import com.blockstream.common.extensions.startsWith
 import com.blockstream.common.extensions.tryCatch
 import com.blockstream.common.gdk.data.AccountAsset
 import com.blockstream.common.gdk.data.AccountAssetBalance
+import com.blockstream.common.gdk.data.CreateTransaction
 import com.blockstream.common.gdk.data.Network
 import com.blockstream.common.gdk.data.PendingTransaction
 import com.blockstream.common.gdk.params.AddressParams
@@ -54,15 +55,18 @@ import com.blockstream.common.utils.toAmountLook
 import com.rickclephas.kmp.nativecoroutines.NativeCoroutinesState
 import com.rickclephas.kmp.observableviewmodel.stateIn
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.SharingStarted
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
 import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.debounce
 import kotlinx.coroutines.flow.filterNotNull
 import kotlinx.coroutines.flow.flatMapLatest
 import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.mapLatest
 import kotlinx.coroutines.flow.merge
 import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.withContext
@@ -70,6 +74,8 @@ import kotlinx.serialization.json.buildJsonObject
 import org.jetbrains.compose.resources.getString
 import saschpe.kase64.base64DecodedBytes
 import kotlin.math.absoluteValue
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.TimeSource
 
 abstract class SendViewModelAbstract(greenWallet: GreenWallet) :
     CreateTransactionViewModelAbstract(greenWallet = greenWallet) {
@@ -312,8 +318,11 @@ class SendViewModel(
 
                 // Prefer the real network from the account
                 _network.value = network?.let { accountAsset.value?.account?.network } ?: network
+            }.debounce(CREATE_TRANSACTION_DEBOUNCE).mapLatest {
+                // Latest wins, building params of a superseded input is cancelled
+                tryCatch (context = Dispatchers.Default) { createTransactionParams() }
             }.onEach {
-                createTransactionParams.value = tryCatch (context = Dispatchers.Default) { createTransactionParams() }
+                createTransactionParams.value = it
             }.launchIn(this)
 
             error.onEach {
@@ -429,17 +438,43 @@ class SendViewModel(
                     from = accountAsset.value,
                     addressees = listOf(params).toJsonElement(),
                     feeRate = getFeeRate(),
-                    utxos = unspentOutputs?.unspentOutputs
+                    utxos = unspentOutputs?.unspentOutputsJson
                 )
             }
         })
     }
 
+    private var createTransactionJob: Job? = null
+    private var isFinalCheckJob = false
+
+    // Last built transaction, identical params (eg. on denomination change) reuse it
+    private var lastTransaction: Pair<CreateTransactionParams, CreateTransaction>? = null
+
+    private suspend fun buildTransaction(network: Network, params: CreateTransactionParams, useCache: Boolean): CreateTransaction {
+        lastTransaction?.takeIf { useCache && it.first == params }?.also {
+            logger.d { "createTransaction: reusing previous build" }
+            return it.second
+        }
+
+        val mark = TimeSource.Monotonic.markNow()
+
+        return session.createTransaction(network, params).also {
+            logger.d { "createTransaction: built in ${mark.elapsedNow().inWholeMilliseconds}ms" }
+            lastTransaction = params to it
+        }
+    }
+
     override fun createTransaction(
         params: CreateTransactionParams?,
         finalCheckBeforeContinue: Boolean
     ) {
-        doAsync({
+        // A pending build is stale once a new one is requested, unless it's the final check before continuing
+        if (!isFinalCheckJob) {
+            createTransactionJob?.cancel()
+        }
+        isFinalCheckJob = finalCheckBeforeContinue
+
+        createTransactionJob = doAsync({
             if (params == null) {
                 _isAmountLocked.value = false
                 _metadataDomain.value = null
@@ -453,7 +488,12 @@ class SendViewModel(
             accountAsset.value?.let { accountAsset ->
                 val network = accountAsset.account.network
 
-                val tx = session.createTransaction(network, params)
+                // Always build a fresh transaction before continuing, Lightning params can be equal while the invoice state changes
+                val tx = buildTransaction(
+                    network = network,
+                    params = params,
+                    useCache = !finalCheckBeforeContinue && !network.isLightning
+                )
 
                 _isNoteEditable.value = tx.isLightningDescriptionEditable
 
@@ -723,6 +763,9 @@ class SendViewModel(
 
     companion object : Loggable() {
         val DustLimit = 546
+
+        // Wait for the user to stop typing before building the transaction
+        val CREATE_TRANSACTION_DEBOUNCE = 250.milliseconds
     }
 }
 
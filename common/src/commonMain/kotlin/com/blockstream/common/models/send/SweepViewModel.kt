@@ -166,7 +166,7 @@ class SweepViewModel(greenWallet: GreenWallet, privateKey: String?, accountAsset
                 feeRate = getFeeRate(),
                 privateKey = privateKey.value.trim(),
                 addressees = listOf(params).toJsonElement(),
-                utxos = unspentOutputs?.unspentOutputs
+                utxos = unspentOutputs?.unspentOutputsJson
             )
         }
     }
@@ -84,7 +84,7 @@ class JadeFirmwareUpdateViewModel(
                     }
                     is FirmwareUpdateState.Uploading -> {
                         _progress.value = ((it.written / it.totalSize.toFloat()) * 100).toInt()
-                        _transfer.value = "${it.written} / ${it.totalSize}"
+                        _transfer.value = "${it.written} / ${it.totalSize}" + (it.bytesPerSecond.takeIf { it > 0 }?.let { " (${it / 1024} KB/s)" } ?: "")
                     }
                     is FirmwareUpdateState.Failed -> {
                         postSideEffect(SideEffects.Dismiss)
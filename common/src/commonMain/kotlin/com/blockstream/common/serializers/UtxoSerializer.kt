@@ -0,0 +1,32 @@
+package com.blockstream.common.serializers
+
+import com.blockstream.common.gdk.data.Utxo
+import kotlinx.serialization.KSerializer
+import kotlinx.serialization.descriptors.SerialDescriptor
+import kotlinx.serialization.encoding.Decoder
+import kotlinx.serialization.encoding.Encoder
+import kotlinx.serialization.json.JsonDecoder
+import kotlinx.serialization.json.JsonEncoder
+
+// GDK expects the utxos back as it returned them, so each one keeps the json object it was read from
+object UtxoSerializer : KSerializer<Utxo> {
+    override val descriptor: SerialDescriptor = Utxo.serializer().descriptor
+
+    override fun serialize(encoder: Encoder, value: Utxo) {
+        val jsonElement = value.jsonElement
+        if (encoder is JsonEncoder && jsonElement != null) {
+            encoder.encodeJsonElement(jsonElement)
+        } else {
+            Utxo.serializer().serialize(encoder, value)
+        }
+    }
+
+    override fun deserialize(decoder: Decoder): Utxo {
+        if (decoder !is JsonDecoder) return Utxo.serializer().deserialize(decoder)
+
+        val jsonElement = decoder.decodeJsonElement()
+        return decoder.json.decodeFromJsonElement(Utxo.serializer(), jsonElement).also {
+            it.jsonElement = jsonElement
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.blockstream.common.utils
+
+import com.blockstream.common.gdk.data.Balance
+
+/**
+ * Kotlin implementation of GDK convert_amount for satoshi amounts.
+ *
+ * Given the exchange rate that GDK reports for the session, it produces the same [Balance] strings
+ * as GDK (fixed decimals per unit, fiat rounded half-up to cents) using exact decimal arithmetic,
+ * so that rendering amounts doesn't require a native call per amount.
+ */
+object AmountConverter {
+    // 21M BTC, out of range amounts are left to GDK so that it can report the error
+    const val MAX_SATOSHI = 2_100_000_000_000_000L
+
+    // Returns null if the amount or the rate can't be handled, callers should fallback to GDK
+    fun convert(
+        satoshi: Long,
+        fiatRate: String?,
+        fiatCurrency: String?,
+        isCurrent: Boolean? = null,
+        assetPrecision: Int? = null
+    ): Balance? {
+        if (satoshi !in -MAX_SATOSHI..MAX_SATOSHI) return null
+
+        val fiat = fiatRate?.let { fiat(satoshi, it) ?: return null }
+
+        return Balance(
+            bits = format(satoshi, scale = 2, decimals = 2),
+            btc = format(satoshi, scale = 8, decimals = 8),
+            fiat = fiat,
+            fiatCurrency = fiatCurrency,
+            fiatRate = fiatRate,
+            mbtc = format(satoshi, scale = 5, decimals = 5),
+            satoshi = satoshi,
+            sats = satoshi.toString(),
+            ubtc = format(satoshi, scale = 2, decimals = 2),
+            isCurrent = isCurrent,
+            assetAmount = assetPrecision?.takeIf { it in 0..MAX_PRECISION }?.let {
+                format(satoshi, scale = it, decimals = it)
+            }
+        )
+    }
+
+    // satoshi * rate / 10^8 with 2 decimals
+    fun fiat(satoshi: Long, fiatRate: String): String? {
+        val match = RATE_REGEX.matchEntire(fiatRate.trim()) ?: return null
+        val integer = match.groupValues[1]
+        val fraction = match.groupValues[2]
+
+        if (integer.isEmpty() && fraction.isEmpty()) return null
+
+        val product = multiply(satoshi.absoluteDigits(), (integer + fraction).ifEmpty { "0" })
+
+        return format(
+            isNegative = satoshi < 0,
+            digits = product,
+            scale = 8 + fraction.length,
+            decimals = 2
+        )
+    }
+
+    // value / 10^scale with the given decimals
+    fun format(value: Long, scale: Int, decimals: Int): String = format(
+        isNegative = value < 0,
+        digits = value.absoluteDigits(),
+        scale = scale,
+        decimals = decimals
+    )
+
+    private fun format(isNegative: Boolean, digits: String, scale: Int, decimals: Int): String {
+        val padded = digits.padStart(scale + 1, '0')
+        var integer = padded.substring(0, padded.length - scale)
+        var fraction = padded.substring(padded.length - scale)
+
+        if (decimals >= scale) {
+            fraction = fraction.padEnd(decimals, '0')
+        } else {
+            val roundUp = fraction[decimals] >= '5'
+            fraction = fraction.substring(0, decimals)
+
+            if (roundUp) {
+                val incremented = increment(integer + fraction)
+                integer = incremented.substring(0, incremented.length - decimals)
+                fraction = incremented.substring(incremented.length - decimals)
+            }
+        }
+
+        integer = integer.trimStart('0').ifEmpty { "0" }
+
+        val isZero = integer == "0" && fraction.all { it == '0' }
+
+        return buildString {
+            if (isNegative && !isZero) append('-')
+            append(integer)
+            if (decimals > 0) {
+                append('.')
+                append(fraction)
+            }
+        }
+    }
+
+    // Digits of the absolute value, also for Long.MIN_VALUE
+    private fun Long.absoluteDigits(): String = toString().removePrefix("-")
+
+    private fun increment(digits: String): String {
+        val chars = digits.toCharArray()
+        var i = chars.lastIndex
+        while (i >= 0) {
+            if (chars[i] == '9') {
+                chars[i] = '0'
+                i--
+            } else {
+                chars[i] = chars[i] + 1
+                return chars.concatToString()
+            }
+        }
+        return "1" + chars.concatToString()
+    }
+
+    private fun multiply(a: String, b: String): String {
+        val result = IntArray(a.length + b.length)
+
+        for (i in a.indices.reversed()) {
+            val x = a[i] - '0'
+            for (j in b.indices.reversed()) {
+                val sum = result[i + j + 1] + x * (b[j] - '0')
+                result[i + j + 1] = sum % 10
+                result[i + j] += sum / 10
+            }
+        }
+
+        return result.joinToString("").trimStart('0').ifEmpty { "0" }
+    }
+
+    private const val MAX_PRECISION = 18
+
+    private val RATE_REGEX = Regex("""^(\d*)(?:\.(\d*))?$""")
+}
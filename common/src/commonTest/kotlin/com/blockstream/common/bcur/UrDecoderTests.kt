@@ -0,0 +1,153 @@
+package com.blockstream.common.bcur
+
+import kotlin.random.Random
+import kotlin.test.Test
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+// Vectors from the BC-UR reference implementation
+class UrDecoderTests {
+
+    private fun makeMessage(length: Int, seed: String = "Wolf"): ByteArray {
+        val rng = Xoshiro256(seed.encodeToByteArray())
+        return ByteArray(length) { rng.nextInt(0, 255).toByte() }
+    }
+
+    private fun makeMessageUr(length: Int, seed: String = "Wolf") =
+        Ur(type = "bytes", cbor = CborWriter().apply { writeBytes(makeMessage(length, seed)) }.toByteArray())
+
+    @Test
+    fun `test xoshiro and crc32`() {
+        val rng = Xoshiro256("Wolf".encodeToByteArray())
+        assertEquals(
+            listOf(42, 81, 85, 8, 82, 84, 76, 73, 70, 88, 2, 74, 40, 48, 77, 54, 88, 7, 5, 88),
+            List(20) { (rng.next() % 100u).toInt() }
+        )
+
+        assertEquals(0xebe6c6e6L, Crc32.checksum("Hello, world!".encodeToByteArray()))
+        assertEquals(0x598c84dcL, Crc32.checksum("Wolf".encodeToByteArray()))
+    }
+
+    @Test
+    fun `test single part`() {
+        val ur = makeMessageUr(50)
+        val singlePart = "ur:bytes/hdeymejtswhhylkepmykhhtsytsnoyoyaxaedsuttydmmhhpktpmsrjtgwdpfnsboxgwlbaawzuefywkdplrsrjynbvygabwjldapfcsdwkbrkch"
+
+        assertEquals(singlePart, ur.toSinglePart())
+        assertContentEquals(ur.cbor, Bytewords.decodeMinimal(singlePart.substringAfter("ur:bytes/")))
+        assertFalse(UrDecoder.isMultipart(singlePart))
+    }
+
+    @Test
+    fun `test encoder`() {
+        val encoder = UrEncoder(makeMessageUr(256), maxFragmentLen = 30)
+        val parts = List(20) { encoder.nextPart() }
+
+        assertEquals(9, encoder.seqLen)
+        assertEquals("ur:bytes/1-9/lpadascfadaxcywenbpljkhdcahkadaemejtswhhylkepmykhhtsytsnoyoyaxaedsuttydmmhhpktpmsrjtdkgslpgh", parts[0])
+        assertEquals("ur:bytes/9-9/lpasascfadaxcywenbpljkhdcajskecpmdckihdyhphfotjojtfmlnwmadspaxrkytbztpbauotbgtgtaeaevtgavtny", parts[8])
+        assertEquals("ur:bytes/10-9/lpbkascfadaxcywenbpljkhdcahkadaemejtswhhylkepmykhhtsytsnoyoyaxaedsuttydmmhhpktpmsrjtwdkiplzs", parts[9])
+        assertEquals("ur:bytes/20-9/lpbbascfadaxcywenbpljkhdcayapmrleeleaxpasfrtrdkncffwjyjzgyetdmlewtkpktgllepfrltataztksmhkbot", parts[19])
+
+        assertEquals(1764, UrEncoder.findNominalFragmentLength(12345, 1005, 1955))
+    }
+
+    @Test
+    fun `test duplicated and foreign frames are ignored`() {
+        val encoder = UrEncoder(makeMessageUr(256), maxFragmentLen = 30)
+        val first = encoder.nextPart()
+        val decoder = UrDecoder()
+
+        assertTrue(decoder.receivePart(first))
+        assertFalse(decoder.receivePart(first))
+        assertFalse(decoder.receivePart(first.uppercase()))
+        assertEquals(11, decoder.progress)
+
+        assertFalse(decoder.receivePart(UrEncoder(makeMessageUr(256, "Other"), maxFragmentLen = 20).nextPart().replace("ur:bytes", "ur:crypto-psbt")))
+        assertNull(decoder.result)
+    }
+
+    @Test
+    fun `test malformed frames keep the collected parts`() {
+        val ur = makeMessageUr(256)
+        val encoder = UrEncoder(ur, maxFragmentLen = 30)
+        val decoder = UrDecoder()
+
+        assertTrue(decoder.receivePart(encoder.nextPart()))
+
+        // The scanner skips these and keeps going with the same decoder
+        assertFailsWith<IllegalArgumentException> { decoder.receivePart("ur:bytes/0-9/lpadascfadax") }
+        assertFailsWith<IllegalArgumentException> { decoder.receivePart("ur:bytes/lpadascfadax/1") }
+        assertEquals(11, decoder.progress)
+
+        while (!decoder.isComplete) {
+            decoder.receivePart(encoder.nextPart())
+        }
+        assertContentEquals(ur.cbor, decoder.result?.cbor)
+    }
+
+    @Test
+    fun `test frame loss`() {
+        val random = Random(42)
+
+        // Message length, max fragment length, frame loss
+        listOf(
+            Triple(256, 30, 0.0),
+            Triple(1_000, 100, 0.3),
+            Triple(2_500, 200, 0.5),
+            Triple(10_000, 400, 0.5),
+            Triple(32_767, 1_000, 0.8),
+        ).forEach { (length, maxFragmentLen, loss) ->
+            val ur = makeMessageUr(length, seed = "$length")
+            val encoder = UrEncoder(ur, maxFragmentLen = maxFragmentLen)
+            val decoder = UrDecoder()
+
+            var frames = 0
+            while (!decoder.isComplete) {
+                val part = encoder.nextPart()
+
+                if (random.nextDouble() < loss) continue
+
+                // The camera delivers the same frame more than once
+                repeat(random.nextInt(1, 3)) {
+                    decoder.receivePart(part)
+                }
+
+                frames++
+                assertTrue(decoder.progress in 0..100)
+                assertTrue(encoder.seqNum < encoder.seqLen * 10, "Decoder didn't converge")
+            }
+
+            assertEquals(100, decoder.progress)
+            assertEquals("bytes", decoder.result?.type)
+            assertContentEquals(ur.cbor, decoder.result?.cbor)
+            assertTrue(frames >= encoder.seqLen)
+        }
+    }
+
+    @Test
+    fun `test animated ur`() {
+        val ur = makeMessageUr(2_000)
+        val gdkParts = UrEncoder(ur, maxFragmentLen = 50).let { encoder -> List(encoder.seqLen) { encoder.nextPart() } }
+
+        val animatedUr = AnimatedUr.create(gdkParts, QrDensity.High)
+        assertEquals(9, animatedUr.seqLen)
+        assertEquals(9 + 4, animatedUr.parts.size)
+
+        // Uppercase parts fit the alphanumeric QR mode
+        assertTrue(animatedUr.parts.all { it == it.uppercase() && it.startsWith("UR:BYTES/") })
+
+        // Fountain parts make up for frames missed in the first loop
+        val decoder = UrDecoder()
+        animatedUr.parts.filterIndexed { index, _ -> index != 2 && index != 7 }.forEach { decoder.receivePart(it) }
+        assertContentEquals(ur.cbor, decoder.result?.cbor)
+
+        val single = AnimatedUr.create(listOf(makeMessageUr(50).toSinglePart()), QrDensity.Low)
+        assertFalse(single.isAnimated)
+        assertEquals(makeMessageUr(50).toSinglePart().uppercase(), single.parts.first())
+    }
+}
@@ -0,0 +1,79 @@
+package com.blockstream.common.gdk
+
+import kotlinx.coroutines.test.advanceTimeBy
+import kotlinx.coroutines.test.runCurrent
+import kotlinx.coroutines.test.runTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.time.Duration.Companion.milliseconds
+
+class NotificationCoalescerTests {
+
+    @Test
+    fun `test events within the window are flushed once`() = runTest {
+        val flushed = mutableListOf<Set<String>>()
+
+        val coalescer = NotificationCoalescer<String>(backgroundScope, 500.milliseconds) {
+            flushed += it
+        }
+
+        coalescer.post("account_0")
+        advanceTimeBy(100)
+        coalescer.post("account_0", "account_1")
+        advanceTimeBy(100)
+        coalescer.post(listOf("account_1"))
+
+        advanceTimeBy(301)
+        runCurrent()
+        assertEquals(listOf(setOf("account_0", "account_1")), flushed)
+
+        coalescer.post("account_2")
+        advanceTimeBy(501)
+        runCurrent()
+        assertEquals(listOf(setOf("account_0", "account_1"), setOf("account_2")), flushed)
+    }
+
+    @Test
+    fun `test cleared events are not flushed`() = runTest {
+        val flushed = mutableListOf<Set<String>>()
+
+        val coalescer = NotificationCoalescer<String>(backgroundScope, 500.milliseconds) {
+            flushed += it
+        }
+
+        coalescer.post("account_0")
+        coalescer.clear()
+        advanceTimeBy(1_000)
+        runCurrent()
+
+        assertEquals(listOf(), flushed)
+    }
+
+    @Test
+    fun `test merge head page`() {
+        val key: (Pair<String, Int>) -> String = { it.first }
+        val loaded = listOf("e" to 0, "d" to 1, "c" to 2, "b" to 3, "a" to 4)
+
+        // New transaction, confirmations of the head are updated
+        assertEquals(
+            listOf("f" to 0, "e" to 1, "d" to 2, "c" to 2, "b" to 3, "a" to 4),
+            mergeHeadPage(loaded, listOf("f" to 0, "e" to 1, "d" to 2), pageSize = 3, key = key)
+        )
+
+        // Replaced transaction is dropped
+        assertEquals(
+            listOf("x" to 0, "d" to 2, "c" to 3, "b" to 3, "a" to 4),
+            mergeHeadPage(loaded, listOf("x" to 0, "d" to 2, "c" to 3), pageSize = 3, key = key)
+        )
+
+        // Partial head page is the whole list
+        assertEquals(
+            listOf("f" to 0, "e" to 1),
+            mergeHeadPage(listOf("e" to 0), listOf("f" to 0, "e" to 1), pageSize = 3, key = key)
+        )
+
+        // No overlap, needs a reload
+        assertNull(mergeHeadPage(loaded, listOf("i" to 0, "h" to 0, "g" to 0), pageSize = 3, key = key))
+    }
+}
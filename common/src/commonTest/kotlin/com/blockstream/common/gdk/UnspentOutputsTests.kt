@@ -0,0 +1,45 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.gdk.JsonConverter.Companion.JsonDeserializer
+import com.blockstream.common.gdk.data.UnspentOutputs
+import com.blockstream.common.gdk.params.CreateTransactionParams
+import kotlinx.serialization.decodeFromString
+import kotlinx.serialization.json.jsonArray
+import kotlinx.serialization.json.jsonObject
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class UnspentOutputsTests {
+
+    private val json = """
+        {"unspent_outputs": {"btc": [
+            {"txhash": "aa", "pt_idx": 1, "satoshi": 1000, "block_height": 10, "address_type": "p2wpkh", "subaccount": 0, "pointer": 5, "prevout_script": "0014ab"},
+            {"txhash": "bb", "pt_idx": 0, "satoshi": 2000, "address_type": "csv", "subaccount": 1, "pointer": 7, "user_status": 0}
+        ]}}
+    """.trimIndent()
+
+    @Test
+    fun `test utxos are decoded into models`() {
+        val utxos = JsonDeserializer.decodeFromString<UnspentOutputs>(json).unspentOutputs.getValue("btc")
+
+        assertEquals(listOf("aa", "bb"), utxos.map { it.txHash })
+        assertEquals(listOf(1000L, 2000L), utxos.map { it.satoshi })
+        assertEquals(listOf(10L, null), utxos.map { it.blockHeight })
+        assertEquals(listOf("p2wpkh", "csv"), utxos.map { it.addressType })
+    }
+
+    @Test
+    fun `test utxos are passed back to gdk unchanged`() {
+        val expected = JsonDeserializer.parseToJsonElement(json).jsonObject["unspent_outputs"]!!.jsonObject
+
+        val unspentOutputs = JsonDeserializer.decodeFromString<UnspentOutputs>(json)
+        assertEquals(expected.getValue("btc").jsonArray.toList(), unspentOutputs.unspentOutputsJson.getValue("btc"))
+
+        // Fields the model doesn't know about are kept
+        val params = CreateTransactionParams(utxos = unspentOutputs.unspentOutputsJson)
+        assertEquals(
+            expected,
+            JsonDeserializer.parseToJsonElement(params.toJson()).jsonObject["utxos"]
+        )
+    }
+}
@@ -0,0 +1,77 @@
+package com.blockstream.common.utils
+
+import com.blockstream.common.BITS_UNIT
+import com.blockstream.common.BTC_UNIT
+import com.blockstream.common.MBTC_UNIT
+import com.blockstream.common.SATOSHI_UNIT
+import com.blockstream.common.UBTC_UNIT
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+// Expected values are worked out by hand following GDK's convert_amount rules:
+// btc/mbtc/bits are exact decimal shifts and fiat is rounded half up to 2 decimals
+class AmountConverterTests {
+
+    private class Conversion(
+        val satoshi: Long,
+        val fiatRate: String,
+        val btc: String,
+        val mbtc: String,
+        val bits: String,
+        val fiat: String
+    )
+
+    private val conversions = listOf(
+        Conversion(0, "63123.45", "0.00000000", "0.00000", "0.00", "0.00"),
+        Conversion(1, "63123.45", "0.00000001", "0.00001", "0.01", "0.00"),
+        Conversion(100_000_000, "63123.45", "1.00000000", "1000.00000", "1000000.00", "63123.45"),
+        Conversion(123_456_789, "27123.456789", "1.23456789", "1234.56789", "1234567.89", "33485.75"),
+        Conversion(-123_456_789, "27123.456789", "-1.23456789", "-1234.56789", "-1234567.89", "-33485.75"),
+        Conversion(-5_000, "60000", "-0.00005000", "-0.05000", "-50.00", "-3.00"),
+        Conversion(5_000_000, "0.1", "0.05000000", "50.00000", "50000.00", "0.01"),
+        Conversion(99_999_999, "0.995", "0.99999999", "999.99999", "999999.99", "0.99"),
+        Conversion(99_999_999, "1", "0.99999999", "999.99999", "999999.99", "1.00"),
+        Conversion(2_100_000_000_000_000, "100000.00", "21000000.00000000", "21000000000.00000", "21000000000000.00", "2100000000000.00"),
+    )
+
+    @Test
+    fun `test units and fiat`() {
+        conversions.forEach {
+            val balance = AmountConverter.convert(satoshi = it.satoshi, fiatRate = it.fiatRate, fiatCurrency = "USD")!!
+
+            assertEquals(it.satoshi, balance.satoshi)
+            assertEquals(it.satoshi.toString(), balance.getValue(SATOSHI_UNIT))
+            assertEquals(it.btc, balance.getValue(BTC_UNIT))
+            assertEquals(it.mbtc, balance.getValue(MBTC_UNIT))
+            assertEquals(it.bits, balance.getValue(BITS_UNIT))
+            assertEquals(it.bits, balance.getValue(UBTC_UNIT))
+            assertEquals(it.fiat, balance.getValue("USD"))
+            assertEquals(it.fiatRate, balance.fiatRate)
+            assertEquals("USD", balance.fiatCurrency)
+        }
+    }
+
+    @Test
+    fun `test asset precision`() {
+        assertEquals("123456", AmountConverter.convert(123_456, null, null, assetPrecision = 0)?.assetAmount)
+        assertEquals("1234.56", AmountConverter.convert(123_456, null, null, assetPrecision = 2)?.assetAmount)
+        assertEquals("0.00000001", AmountConverter.convert(1, null, null, assetPrecision = 8)?.assetAmount)
+        assertEquals("-12.3", AmountConverter.convert(-123, null, null, assetPrecision = 1)?.assetAmount)
+        assertNull(AmountConverter.convert(123_456, null, null)?.assetAmount)
+    }
+
+    @Test
+    fun `test fallback to gdk`() {
+        // Out of range amounts are reported by GDK
+        assertNull(AmountConverter.convert(AmountConverter.MAX_SATOSHI + 1, "1", "USD"))
+        assertNull(AmountConverter.convert(Long.MIN_VALUE, "1", "USD"))
+
+        // Unknown rate format
+        assertNull(AmountConverter.convert(1, "1e5", "USD"))
+        assertNull(AmountConverter.convert(1, "", "USD"))
+
+        // No rate, no fiat
+        assertNull(AmountConverter.convert(1, null, null)?.fiat)
+    }
+}
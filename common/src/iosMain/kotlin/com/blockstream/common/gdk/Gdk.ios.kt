@@ -639,7 +639,7 @@ class IOSGdkBinding constructor(config: InitConfig) : GdkBinding {
                     call = gaAuthHandler.asGAAuthHandler(), output = gaJson.ptr
                 ).okOrThrow {
                     gaJson.toJsonString(this).let {
-                        JsonConverter.JsonDeserializer.decodeFromString(it)
+                        AuthHandlerStatus.from(it)
                     }
                 }
             }
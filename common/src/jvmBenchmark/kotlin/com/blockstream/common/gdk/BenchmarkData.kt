@@ -0,0 +1,39 @@
+package com.blockstream.common.gdk
+
+import kotlinx.serialization.json.JsonArray
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.put
+
+/** Synthetic GDK responses, generated by the simulator so that every run measures the same data. */
+internal object BenchmarkData {
+    private val network = SimulatedNetwork(
+        id = "electrum-liquid",
+        name = "Liquid",
+        isMainnet = true,
+        isLiquid = true,
+        isSinglesig = true,
+        policyAsset = GdkSimulator.LIQUID_POLICY_ASSET
+    )
+
+    fun wallet(transactions: Int, assets: Int = 20) = SimulatedWallet(
+        chain = SimulatedChain(network),
+        credentials = "benchmark",
+        config = GdkSimulatorConfig(
+            seed = 42,
+            accounts = 1,
+            transactionsPerAccount = transactions,
+            utxosPerAccount = transactions / 2,
+            liquidAssets = assets
+        )
+    )
+
+    // get_transactions result, as returned by GDK
+    fun transactionsJson(count: Int): String = wallet(count).let { wallet ->
+        buildJsonObject {
+            put("transactions", JsonArray(wallet.accounts.first().transactions.map { wallet.transactionJson(it) }))
+        }.toString()
+    }
+
+    val policyAsset: String
+        get() = network.policyAsset
+}
@@ -0,0 +1,151 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.gdk.data.Addressee
+import com.blockstream.common.gdk.data.CreateTransaction
+import com.blockstream.common.gdk.data.InputOutput
+import com.blockstream.common.gdk.data.Output
+import com.blockstream.common.gdk.data.Transaction
+import com.blockstream.jade.api.Commitment
+import com.blockstream.jade.api.SignTransactionRequest
+import com.blockstream.jade.api.SignTransactionRequestParams
+import com.blockstream.jade.data.ChangeOutput
+import kotlinx.benchmark.Benchmark
+import kotlinx.benchmark.BenchmarkMode
+import kotlinx.benchmark.Blackhole
+import kotlinx.benchmark.Mode
+import kotlinx.benchmark.OutputTimeUnit
+import kotlinx.benchmark.Scope
+import kotlinx.benchmark.Setup
+import kotlinx.benchmark.State
+import kotlinx.serialization.ExperimentalSerializationApi
+import kotlinx.serialization.cbor.Cbor
+import kotlinx.serialization.json.Json
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * Serialization throughput of typical GDK and Jade messages, comparing a codec configured
+ * per call (legacy) with the codecs shared by [GreenJson] and the Jade serializer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@OptIn(ExperimentalSerializationApi::class)
+class GreenJsonBenchmark {
+
+    private lateinit var transaction: Transaction
+    private lateinit var createTransaction: CreateTransaction
+    private lateinit var signTransactionRequest: SignTransactionRequest
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+
+        fun hex(size: Int) = random.nextBytes(size).joinToString("") { it.toUByte().toString(16).padStart(2, '0') }
+
+        val inputOutput = InputOutput(
+            address = "bc1qar0srrr7xfkvy5l643lydnw9re59gtzzwf5mdq",
+            addressType = "p2wsh",
+            isOutput = true,
+            isRelevant = true,
+            pointer = 12,
+            satoshi = 150_000,
+            subaccount = 0,
+            txHash = hex(32)
+        )
+
+        transaction = Transaction(
+            blockHeight = 840_000,
+            createdAtTs = 1_713_571_767_000_000,
+            inputs = listOf(inputOutput.copy(isOutput = false)),
+            outputs = listOf(inputOutput, inputOutput.copy(pointer = 13, satoshi = 45_000)),
+            fee = 1_410,
+            feeRate = 10_000,
+            memo = "",
+            spvVerified = "verified",
+            txHash = hex(32),
+            type = "outgoing",
+            satoshi = mapOf("btc" to -46_410),
+            transactionVsize = 141,
+            transactionWeight = 561
+        )
+
+        createTransaction = CreateTransaction(
+            addressees = listOf(Addressee(address = "bc1qar0srrr7xfkvy5l643lydnw9re59gtzzwf5mdq", satoshi = 45_000)),
+            satoshi = mapOf("btc" to 45_000),
+            fee = 1_410,
+            feeRate = 10_000,
+            outputs = listOf(
+                Output(address = "bc1qar0srrr7xfkvy5l643lydnw9re59gtzzwf5mdq", satoshi = 45_000),
+                Output(address = "bc1q9h7garjdk6u6dhe4zn5ye6lj3fy2ve3sjnsrsr", isChange = true, satoshi = 103_590, userPath = listOf(1, 13))
+            ),
+            transaction = hex(222),
+            signWith = listOf("user", "green-backend")
+        )
+
+        signTransactionRequest = SignTransactionRequest(
+            id = "1001",
+            method = "sign_tx",
+            params = SignTransactionRequestParams(
+                network = "liquid",
+                txn = random.nextBytes(2 * 1024),
+                numInput = 2,
+                useAeSignatures = true,
+                trustedCommitments = List(3) {
+                    Commitment(
+                        assetId = random.nextBytes(32),
+                        value = 45_000,
+                        abf = random.nextBytes(32),
+                        vbf = random.nextBytes(32),
+                        blindingKey = random.nextBytes(33)
+                    )
+                },
+                change = listOf(null, ChangeOutput(path = listOf(1, 13), variant = "wpkh(k)"), null)
+            )
+        )
+    }
+
+    @Benchmark
+    fun transactionToJsonLegacy(blackhole: Blackhole) {
+        blackhole.consume(legacyJson().encodeToString(Transaction.serializer(), transaction))
+    }
+
+    @Benchmark
+    fun transactionToJson(blackhole: Blackhole) {
+        blackhole.consume(transaction.toJson())
+    }
+
+    @Benchmark
+    fun createTransactionToJsonLegacy(blackhole: Blackhole) {
+        blackhole.consume(legacyJson().encodeToString(CreateTransaction.serializer(), createTransaction))
+    }
+
+    @Benchmark
+    fun createTransactionToJson(blackhole: Blackhole) {
+        blackhole.consume(createTransaction.toJson())
+    }
+
+    @Benchmark
+    fun signTransactionToCborLegacy(blackhole: Blackhole) {
+        blackhole.consume(
+            Cbor {
+                encodeDefaults = false
+                ignoreUnknownKeys = true
+                useDefiniteLengthEncoding = true
+                alwaysUseByteString = true
+            }.encodeToByteArray(signTransactionRequest.kSerializer(), signTransactionRequest)
+        )
+    }
+
+    @Benchmark
+    fun signTransactionToCbor(blackhole: Blackhole) {
+        blackhole.consume(signTransactionRequest.toCbor())
+    }
+
+    // Codec configured on every call, as GreenJson did before sharing its codecs
+    private fun legacyJson() = Json {
+        encodeDefaults = true
+        explicitNulls = true
+        ignoreUnknownKeys = true
+    }
+}
@@ -0,0 +1,71 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.gdk.data.Transaction
+import com.blockstream.common.gdk.data.Transactions
+import kotlinx.benchmark.Benchmark
+import kotlinx.benchmark.BenchmarkMode
+import kotlinx.benchmark.Blackhole
+import kotlinx.benchmark.Mode
+import kotlinx.benchmark.OutputTimeUnit
+import kotlinx.benchmark.Param
+import kotlinx.benchmark.Scope
+import kotlinx.benchmark.Setup
+import kotlinx.benchmark.State
+import kotlinx.serialization.json.jsonArray
+import kotlinx.serialization.json.jsonObject
+import java.util.concurrent.TimeUnit
+
+/**
+ * Decoding and encoding of get_transactions results, a page as loaded by the account overview
+ * and a full history as loaded by the wallet overview and exports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class JsonConverterBenchmark {
+
+    @Param("10", "1000")
+    var count: Int = 0
+
+    private lateinit var transactionsJson: String
+    private lateinit var transactionJson: String
+    private lateinit var transactions: Transactions
+
+    @Setup
+    fun setup() {
+        transactionsJson = BenchmarkData.transactionsJson(count)
+        transactionJson = JsonConverter.toJsonElement(transactionsJson).jsonObject["transactions"]!!.jsonArray.first().toString()
+        transactions = JsonConverter.decode(GdkJson(transactionsJson))
+    }
+
+    @Benchmark
+    fun decodeTransactions(blackhole: Blackhole) {
+        blackhole.consume(JsonConverter.decode<Transactions>(GdkJson(transactionsJson)))
+    }
+
+    // The tree first, as done when the result is also kept as a JsonElement
+    @Benchmark
+    fun decodeTransactionsFromTree(blackhole: Blackhole) {
+        blackhole.consume(JsonConverter.decode<Transactions>(JsonConverter.toJsonElement(transactionsJson)))
+    }
+
+    @Benchmark
+    fun parseTransactionsTree(blackhole: Blackhole) {
+        blackhole.consume(JsonConverter.toJsonElement(transactionsJson))
+    }
+
+    @Benchmark
+    fun decodeTransaction(blackhole: Blackhole) {
+        blackhole.consume(JsonConverter.decode<Transaction>(GdkJson(transactionJson)))
+    }
+
+    @Benchmark
+    fun encodeTransactions(blackhole: Blackhole) {
+        blackhole.consume(transactions.toJson())
+    }
+
+    @Benchmark
+    fun roundTripTransactions(blackhole: Blackhole) {
+        blackhole.consume(JsonConverter.decode<Transactions>(GdkJson(transactions.toJson())))
+    }
+}
@@ -0,0 +1,71 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.gdk.data.Asset
+import com.blockstream.common.gdk.data.Transaction
+import com.blockstream.common.gdk.data.Transactions
+import kotlinx.benchmark.Benchmark
+import kotlinx.benchmark.BenchmarkMode
+import kotlinx.benchmark.Blackhole
+import kotlinx.benchmark.Mode
+import kotlinx.benchmark.OutputTimeUnit
+import kotlinx.benchmark.Param
+import kotlinx.benchmark.Scope
+import kotlinx.benchmark.Setup
+import kotlinx.benchmark.State
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * Sorting of the wallet transactions and assets with the [GdkSession] comparators, on lists the
+ * size of a heavily used wallet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class SortBenchmark {
+
+    @Param("100", "5000")
+    var count: Int = 0
+
+    private lateinit var transactions: List<Transaction>
+    private lateinit var assetIds: List<String>
+
+    private lateinit var assets: Map<String, Asset>
+    private lateinit var icons: Set<String>
+    private lateinit var weights: Map<String, Int>
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+
+        // Shuffled, as merged from several accounts
+        transactions = JsonConverter.decode<Transactions>(GdkJson(BenchmarkData.transactionsJson(count))).transactions.shuffled(random)
+
+        val wallet = BenchmarkData.wallet(transactions = 0, assets = count / 10)
+
+        // Assets without metadata are mixed with the registry ones
+        assetIds = (wallet.assets.map { it.assetId } + List(count / 10) { wallet.randomHex() } + BenchmarkData.policyAsset).shuffled(random)
+        assets = wallet.assets.associate { it.assetId to Asset(name = it.name, assetId = it.assetId, precision = it.precision, ticker = it.ticker) }
+        icons = wallet.assets.filterIndexed { index, _ -> index % 3 == 0 }.map { it.assetId }.toSet()
+        weights = wallet.assets.filterIndexed { index, _ -> index % 5 == 0 }.associate { it.assetId to 1 }
+    }
+
+    @Benchmark
+    fun sortTransactions(blackhole: Blackhole) {
+        blackhole.consume(transactions.sortedWith { t1, t2 -> GdkSession.sortTransactions(t1, t2) })
+    }
+
+    @Benchmark
+    fun sortAssets(blackhole: Blackhole) {
+        blackhole.consume(assetIds.sortedWith { a1, a2 ->
+            GdkSession.sortAssets(
+                a1 = a1,
+                a2 = a2,
+                isPolicyAsset = { it == BenchmarkData.policyAsset },
+                hasIcon = { it in icons },
+                asset = { assets[it] },
+                weight = { weights[it] ?: 0 }
+            )
+        })
+    }
+}
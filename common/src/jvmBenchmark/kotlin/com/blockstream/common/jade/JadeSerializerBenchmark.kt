@@ -0,0 +1,88 @@
+package com.blockstream.common.jade
+
+import com.blockstream.jade.api.ByteArrayResponse
+import com.blockstream.jade.api.Commitment
+import com.blockstream.jade.api.JadeSerializer
+import com.blockstream.jade.api.SignTransactionRequest
+import com.blockstream.jade.api.SignTransactionRequestParams
+import com.blockstream.jade.data.ChangeOutput
+import kotlinx.benchmark.Benchmark
+import kotlinx.benchmark.BenchmarkMode
+import kotlinx.benchmark.Blackhole
+import kotlinx.benchmark.Mode
+import kotlinx.benchmark.OutputTimeUnit
+import kotlinx.benchmark.Param
+import kotlinx.benchmark.Scope
+import kotlinx.benchmark.Setup
+import kotlinx.benchmark.State
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * CBOR encoding and decoding of the Jade messages exchanged while signing: the sign_tx request,
+ * sized by its raw transaction, and the per input signature responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+class JadeSerializerBenchmark {
+
+    @Param("2048", "65536")
+    var txSize: Int = 0
+
+    private lateinit var request: SignTransactionRequest
+    private lateinit var requestCbor: ByteArray
+
+    private lateinit var signature: ByteArrayResponse
+    private lateinit var signatureCbor: ByteArray
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+
+        request = SignTransactionRequest(
+            id = "1001",
+            method = "sign_liquid_tx",
+            params = SignTransactionRequestParams(
+                network = "liquid",
+                txn = random.nextBytes(txSize),
+                numInput = 2,
+                useAeSignatures = true,
+                trustedCommitments = List(3) {
+                    Commitment(
+                        assetId = random.nextBytes(32),
+                        value = 45_000,
+                        abf = random.nextBytes(32),
+                        vbf = random.nextBytes(32),
+                        blindingKey = random.nextBytes(33)
+                    )
+                },
+                change = listOf(null, ChangeOutput(path = listOf(1L, 13L), variant = "wpkh(k)"), null)
+            )
+        )
+        requestCbor = request.toCbor()
+
+        signature = ByteArrayResponse(id = "1002", result = random.nextBytes(71))
+        signatureCbor = signature.toCbor()
+    }
+
+    @Benchmark
+    fun encodeSignTransaction(blackhole: Blackhole) {
+        blackhole.consume(request.toCbor())
+    }
+
+    @Benchmark
+    fun decodeSignTransaction(blackhole: Blackhole) {
+        blackhole.consume(JadeSerializer.decode<SignTransactionRequest>(requestCbor))
+    }
+
+    @Benchmark
+    fun encodeSignature(blackhole: Blackhole) {
+        blackhole.consume(signature.toCbor())
+    }
+
+    @Benchmark
+    fun decodeSignature(blackhole: Blackhole) {
+        blackhole.consume(JadeSerializer.decode<ByteArrayResponse>(signatureCbor))
+    }
+}
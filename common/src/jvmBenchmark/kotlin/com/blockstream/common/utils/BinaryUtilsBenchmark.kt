@@ -0,0 +1,55 @@
+package com.blockstream.common.utils
+
+import kotlinx.benchmark.Benchmark
+import kotlinx.benchmark.BenchmarkMode
+import kotlinx.benchmark.Blackhole
+import kotlinx.benchmark.Mode
+import kotlinx.benchmark.OutputTimeUnit
+import kotlinx.benchmark.Param
+import kotlinx.benchmark.Scope
+import kotlinx.benchmark.Setup
+import kotlinx.benchmark.State
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+// Hex conversions of hashes (32 bytes) and raw transactions or PSBTs (16KB)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@OptIn(ExperimentalUnsignedTypes::class)
+class BinaryUtilsBenchmark {
+
+    @Param("32", "16384")
+    var size: Int = 0
+
+    private lateinit var bytes: ByteArray
+    private lateinit var ubytes: UByteArray
+    private lateinit var hex: String
+
+    @Setup
+    fun setup() {
+        bytes = Random(42).nextBytes(size)
+        ubytes = bytes.toUByteArray()
+        hex = bytes.toHex()
+    }
+
+    @Benchmark
+    fun toHex(blackhole: Blackhole) {
+        blackhole.consume(bytes.toHex())
+    }
+
+    @Benchmark
+    fun uByteArrayToHex(blackhole: Blackhole) {
+        blackhole.consume(ubytes.toHex())
+    }
+
+    @Benchmark
+    fun hexToByteArray(blackhole: Blackhole) {
+        blackhole.consume(hex.hexToByteArray())
+    }
+
+    @Benchmark
+    fun hexToByteArrayReversed(blackhole: Blackhole) {
+        blackhole.consume(hex.hexToByteArrayReversed())
+    }
+}
@@ -0,0 +1,88 @@
+package com.blockstream.common.utils
+
+import com.blockstream.common.BTC_UNIT
+import com.blockstream.common.SATOSHI_UNIT
+import kotlinx.benchmark.Benchmark
+import kotlinx.benchmark.BenchmarkMode
+import kotlinx.benchmark.Blackhole
+import kotlinx.benchmark.Mode
+import kotlinx.benchmark.OutputTimeUnit
+import kotlinx.benchmark.Scope
+import kotlinx.benchmark.Setup
+import kotlinx.benchmark.State
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * Amount formatting as done by toAmountLook for every amount on screen: the conversion of the
+ * satoshi amount and its formatting with the user locale.
+ *
+ * toAmountLook itself requires a logged in session, its conversion and formatting steps are
+ * measured separately instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+class FormatBenchmark {
+
+    private lateinit var amounts: LongArray
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+        amounts = LongArray(100) { random.nextLong(-AmountConverter.MAX_SATOSHI / 1000, AmountConverter.MAX_SATOSHI / 1000) }
+    }
+
+    @Benchmark
+    fun convert(blackhole: Blackhole) {
+        amounts.forEach {
+            blackhole.consume(AmountConverter.convert(satoshi = it, fiatRate = "64123.45", fiatCurrency = "USD"))
+        }
+    }
+
+    @Benchmark
+    fun formatBtc(blackhole: Blackhole) {
+        amounts.forEach {
+            blackhole.consume(
+                userNumberFormat(
+                    decimals = getDecimals(BTC_UNIT),
+                    withDecimalSeparator = false,
+                    withGrouping = true
+                ).format(AmountConverter.format(it, scale = 8, decimals = 8).toDouble())
+            )
+        }
+    }
+
+    @Benchmark
+    fun formatSats(blackhole: Blackhole) {
+        amounts.forEach {
+            blackhole.consume(
+                userNumberFormat(
+                    decimals = getDecimals(SATOSHI_UNIT),
+                    withDecimalSeparator = false,
+                    withGrouping = true
+                ).format(it)
+            )
+        }
+    }
+
+    @Benchmark
+    fun formatFiat(blackhole: Blackhole) {
+        amounts.forEach {
+            blackhole.consume(
+                userNumberFormat(
+                    decimals = 2,
+                    withDecimalSeparator = true,
+                    withGrouping = true
+                ).format(AmountConverter.fiat(it, "64123.45")?.toDouble() ?: 0.0)
+            )
+        }
+    }
+
+    @Benchmark
+    fun formatGdk(blackhole: Blackhole) {
+        amounts.forEach {
+            blackhole.consume(gdkNumberFormat(decimals = 8).format(it / 100_000_000.0))
+        }
+    }
+}
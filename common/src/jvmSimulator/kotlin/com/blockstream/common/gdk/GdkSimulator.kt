@@ -0,0 +1,830 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.BTC_POLICY_ASSET
+import com.blockstream.common.bcur.Ur
+import com.blockstream.common.bcur.UrDecoder
+import com.blockstream.common.bcur.UrEncoder
+import com.blockstream.common.gdk.data.AccountType
+import com.blockstream.common.gdk.data.AuthHandlerStatus
+import com.blockstream.common.gdk.data.Balance
+import com.blockstream.common.gdk.data.FeeEstimation
+import com.blockstream.common.gdk.data.LiquidAssets
+import com.blockstream.common.gdk.data.LoginData
+import com.blockstream.common.gdk.data.Networks
+import com.blockstream.common.gdk.data.Pricing
+import com.blockstream.common.gdk.data.ProxySettings
+import com.blockstream.common.gdk.data.Settings
+import com.blockstream.common.gdk.data.TwoFactorConfig
+import com.blockstream.common.gdk.data.TwoFactorMethodConfig
+import com.blockstream.common.gdk.data.TwoFactorReset
+import com.blockstream.common.gdk.params.AssetsParams
+import com.blockstream.common.gdk.params.BalanceParams
+import com.blockstream.common.gdk.params.BcurDecodeParams
+import com.blockstream.common.gdk.params.BcurEncodeParams
+import com.blockstream.common.gdk.params.BroadcastTransactionParams
+import com.blockstream.common.gdk.params.ConnectionParams
+import com.blockstream.common.gdk.params.CredentialsParams
+import com.blockstream.common.gdk.params.CsvParams
+import com.blockstream.common.gdk.params.DecryptWithPinParams
+import com.blockstream.common.gdk.params.DeviceParams
+import com.blockstream.common.gdk.params.EncryptWithPinParams
+import com.blockstream.common.gdk.params.GetAssetsParams
+import com.blockstream.common.gdk.params.Limits
+import com.blockstream.common.gdk.params.LoginCredentialsParams
+import com.blockstream.common.gdk.params.PreviousAddressParams
+import com.blockstream.common.gdk.params.ReceiveAddressParams
+import com.blockstream.common.gdk.params.ReconnectHintParams
+import com.blockstream.common.gdk.params.SignMessageParams
+import com.blockstream.common.gdk.params.SubAccountParams
+import com.blockstream.common.gdk.params.SubAccountsParams
+import com.blockstream.common.gdk.params.TransactionParams
+import com.blockstream.common.gdk.params.UnspentOutputsPrivateKeyParams
+import com.blockstream.common.gdk.params.UpdateSubAccountParams
+import com.blockstream.common.gdk.params.ValidateAddresseesParams
+import com.blockstream.common.utils.AmountConverter
+import com.blockstream.common.utils.Loggable
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.launch
+import kotlinx.serialization.json.JsonArray
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.JsonPrimitive
+import kotlinx.serialization.json.add
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.json.jsonPrimitive
+import kotlinx.serialization.json.longOrNull
+import kotlinx.serialization.json.put
+import kotlinx.serialization.json.putJsonArray
+import kotlinx.serialization.json.putJsonObject
+import okio.ByteString.Companion.decodeHex
+import okio.ByteString.Companion.encodeUtf8
+import okio.ByteString.Companion.toByteString
+import java.math.BigDecimal
+import java.math.RoundingMode
+import kotlin.random.Random
+import kotlin.time.Duration
+
+data class GdkSimulatorConfig(
+    val seed: Long = 0,
+    val accounts: Int = 2,
+    // At least utxosPerAccount, every unspent output is funded by its own transaction
+    val transactionsPerAccount: Int = 30,
+    val utxosPerAccount: Int = 10,
+    val liquidAssets: Int = 5,
+    // Duration.ZERO disables the scheduled notifications, see mineBlock and receiveTransaction
+    val blockInterval: Duration = Duration.ZERO,
+    val transactionInterval: Duration = Duration.ZERO,
+    // 2FA methods required by multisig sends and 2FA changes
+    val twoFactorMethods: List<String> = listOf(),
+    val twoFactorCode: String = "123456",
+    // Added to every auth handler call, to mimic the server roundtrip
+    val callLatency: Duration = Duration.ZERO,
+    val fiatRate: String = "50000.00",
+)
+
+/**
+ * In-memory [GdkBinding] for JVM tests and benchmarks.
+ *
+ * Logging in with any credentials opens a synthetic wallet, generated deterministically from the
+ * [GdkSimulatorConfig.seed], the network and the credentials, so the same login always returns
+ * the same accounts, transactions and unspent outputs. Sessions logged in with the same
+ * credentials share the wallet.
+ *
+ * Calls that return a [GAAuthHandler] go through the same state machine as GDK: multisig sends
+ * require a 2FA code when [GdkSimulatorConfig.twoFactorMethods] are set. Block and incoming
+ * transaction notifications are emitted on the configured schedule or on demand.
+ *
+ * Addresses, transactions and signatures are placeholders, hardware wallets, lightning and swaps
+ * are not simulated: their auth handlers end in the error state, as GDK does for a failed call.
+ *
+ * Only built into the jvmTest and jvmBenchmark compilations, pass it to [Gdk] as its binding.
+ */
+class GdkSimulator(
+    override val dataDir: String,
+    private val config: GdkSimulatorConfig = GdkSimulatorConfig()
+) : GdkBinding {
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.Default)
+
+    private val random = Random(config.seed)
+
+    private val networks: MutableMap<String, SimulatedNetwork> = listOf(
+        SimulatedNetwork("mainnet", "Bitcoin Multisig", isMainnet = true, isLiquid = false, isSinglesig = false, policyAsset = BTC_POLICY_ASSET),
+        SimulatedNetwork("liquid", "Liquid Multisig", isMainnet = true, isLiquid = true, isSinglesig = false, policyAsset = LIQUID_POLICY_ASSET),
+        SimulatedNetwork("testnet", "Testnet Multisig", isMainnet = false, isLiquid = false, isSinglesig = false, policyAsset = BTC_POLICY_ASSET),
+        SimulatedNetwork("testnet-liquid", "Liquid Testnet Multisig", isMainnet = false, isLiquid = true, isSinglesig = false, policyAsset = LIQUID_TESTNET_POLICY_ASSET),
+        SimulatedNetwork("electrum-mainnet", "Bitcoin", isMainnet = true, isLiquid = false, isSinglesig = true, policyAsset = BTC_POLICY_ASSET),
+        SimulatedNetwork("electrum-liquid", "Liquid", isMainnet = true, isLiquid = true, isSinglesig = true, policyAsset = LIQUID_POLICY_ASSET),
+        SimulatedNetwork("electrum-testnet", "Testnet", isMainnet = false, isLiquid = false, isSinglesig = true, policyAsset = BTC_POLICY_ASSET),
+        SimulatedNetwork("electrum-testnet-liquid", "Liquid Testnet", isMainnet = false, isLiquid = true, isSinglesig = true, policyAsset = LIQUID_TESTNET_POLICY_ASSET),
+    ).associateBy { it.id }.toMutableMap()
+
+    private val chains = mutableMapOf<String, SimulatedChain>()
+    private val wallets = mutableMapOf<String, SimulatedWallet>()
+    private val sessions = mutableListOf<SimulatedSession>()
+
+    // Pin identifier to pin and plaintext
+    private val pins = mutableMapOf<String, Pair<String, JsonElement>>()
+
+    private var notificationHandler: ((session: GASession, jsonObject: Any) -> Unit)? = null
+
+    private class SimulatedSession {
+        var network: SimulatedNetwork? = null
+        var wallet: SimulatedWallet? = null
+        var transactionsJob: Job? = null
+    }
+
+    override fun setNotificationHandler(notificationHandler: (session: GASession, jsonObject: Any) -> Unit) {
+        this.notificationHandler = notificationHandler
+    }
+
+    private fun emit(session: SimulatedSession, event: JsonObject) {
+        notificationHandler?.invoke(session, event)
+    }
+
+    private fun GASession.simulated(): SimulatedSession = this as SimulatedSession
+
+    private fun GASession.network(): SimulatedNetwork = simulated().network ?: throw Exception("id_you_are_not_connected")
+
+    private fun GASession.wallet(): SimulatedWallet = simulated().wallet ?: throw Exception("Authentication required")
+
+    private fun chain(network: SimulatedNetwork): SimulatedChain = synchronized(chains) {
+        chains.getOrPut(network.id) {
+            SimulatedChain(network).also { chain ->
+                if (config.blockInterval.isPositive()) {
+                    scope.launch {
+                        while (isActive) {
+                            delay(config.blockInterval)
+                            mineBlock(chain)
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Mines a block on [network], confirming the pending transactions of its wallets. */
+    fun mineBlock(network: String) {
+        mineBlock(chain(networks[network] ?: throw Exception("id_invalid_network")))
+    }
+
+    private fun mineBlock(chain: SimulatedChain) {
+        val event = synchronized(chain) {
+            chain.mine(synchronized(random) { random.nextBytes(32).toByteString().hex() })
+        }
+
+        synchronized(wallets) { wallets.values.filter { it.chain == chain } }.forEach { wallet ->
+            synchronized(wallet) { wallet.confirm() }
+        }
+
+        synchronized(sessions) { sessions.filter { it.network == chain.network } }.forEach { emit(it, event) }
+    }
+
+    /** Receives an unconfirmed transaction in the wallet of [session]. */
+    fun receiveTransaction(session: GASession) {
+        val wallet = session.wallet()
+        val event = synchronized(wallet) { wallet.receive() } ?: return
+
+        notifyWallet(wallet, event)
+    }
+
+    private fun notifyWallet(wallet: SimulatedWallet, event: JsonObject) {
+        synchronized(sessions) { sessions.filter { it.wallet == wallet } }.forEach { emit(it, event) }
+    }
+
+    /** Stops the scheduled notifications. */
+    fun close() {
+        scope.cancel()
+    }
+
+    override fun createSession(): GASession = SimulatedSession().also {
+        synchronized(sessions) { sessions += it }
+    }
+
+    override fun destroySession(session: GASession) {
+        session.simulated().transactionsJob?.cancel()
+        synchronized(sessions) { sessions -= session.simulated() }
+    }
+
+    override fun connect(session: GASession, params: ConnectionParams) {
+        val network = networks[params.networkName] ?: throw Exception("id_invalid_network")
+        val chain = chain(network)
+
+        sleep()
+        session.simulated().network = network
+
+        emit(session.simulated(), buildJsonObject {
+            put("event", "network")
+            putJsonObject("network") {
+                put("current_state", "connected")
+                put("next_state", "connected")
+                put("wait_ms", 0)
+            }
+        })
+
+        emit(session.simulated(), buildJsonObject {
+            put("event", "block")
+            putJsonObject("block") {
+                put("block_height", chain.blockHeight)
+                put("initial_timestamp", network.timestamp(chain.blockHeight) / 1_000_000)
+            }
+        })
+    }
+
+    override fun reconnectHint(session: GASession, hint: ReconnectHintParams) {}
+
+    override fun getProxySettings(session: GASession): ProxySettings = ProxySettings()
+
+    private fun credentials(deviceParams: DeviceParams, loginCredentialsParams: LoginCredentialsParams): String {
+        if (deviceParams.device != null) {
+            throw Exception("Hardware wallets are not simulated")
+        }
+
+        return with(loginCredentialsParams) {
+            mnemonic ?: pinData?.let { pinData ->
+                val (pin, plaintext) = synchronized(pins) { pins[pinData.pinIdentifier] } ?: throw Exception("id_invalid_pin")
+                if (pin != this.pin) throw Exception("id_invalid_pin")
+                plaintext.jsonObject["mnemonic"]?.jsonPrimitive?.content
+            } ?: username ?: coreDescriptors?.joinToString() ?: slip132ExtendedPubkeys?.joinToString()
+        } ?: throw Exception("id_invalid_credentials")
+    }
+
+    private fun loginData(network: SimulatedNetwork, credentials: String) = buildJsonObject {
+        put("xpub_hash_id", "xpub:$credentials".encodeUtf8().sha256().hex())
+        put("wallet_hash_id", "${network.id}:$credentials".encodeUtf8().sha256().hex())
+    }
+
+    override fun registerUser(
+        session: GASession,
+        deviceParams: DeviceParams,
+        loginCredentialsParams: LoginCredentialsParams
+    ): GAAuthHandler = authHandler("create_wallet") {
+        loginData(session.network(), credentials(deviceParams, loginCredentialsParams))
+    }
+
+    override fun loginUser(
+        session: GASession,
+        deviceParams: DeviceParams,
+        loginCredentialsParams: LoginCredentialsParams
+    ): GAAuthHandler = authHandler("login_user") {
+        val network = session.network()
+        val credentials = credentials(deviceParams, loginCredentialsParams)
+
+        val wallet = synchronized(wallets) {
+            wallets.getOrPut("${network.id}:$credentials") {
+                SimulatedWallet(chain(network), credentials, config).also {
+                    logger.d { "Generated wallet with ${it.accounts.size} accounts on ${network.id}" }
+                }
+            }
+        }
+
+        session.simulated().wallet = wallet
+
+        if (config.transactionInterval.isPositive()) {
+            session.simulated().transactionsJob?.cancel()
+            session.simulated().transactionsJob = scope.launch {
+                while (isActive) {
+                    delay(config.transactionInterval)
+                    receiveTransaction(session)
+                }
+            }
+        }
+
+        loginData(network, credentials)
+    }
+
+    override fun getWalletIdentifier(
+        connectionParams: ConnectionParams,
+        loginCredentialsParams: LoginCredentialsParams
+    ): LoginData {
+        val network = networks[connectionParams.networkName] ?: throw Exception("id_invalid_network")
+        return JsonConverter.decode(loginData(network, credentials(DeviceParams(), loginCredentialsParams)))
+    }
+
+    private fun validate(session: GASession, addressees: List<JsonElement>): GAAuthHandler = authHandler("validate") {
+        val prefix = session.network().addressPrefix
+        val errors = addressees.mapNotNull {
+            "id_invalid_address".takeIf { _ -> it.jsonObject["address"]?.jsonPrimitive?.content?.startsWith(prefix) != true }
+        }
+
+        buildJsonObject {
+            put("addressees", JsonArray(addressees))
+            put("is_valid", errors.isEmpty())
+            put("errors", JsonArray(errors.map { JsonPrimitive(it) }))
+        }
+    }
+
+    override fun validate(session: GASession, params: JsonElement): GAAuthHandler =
+        validate(session, params.jsonObject["addressees"] as? JsonArray ?: listOf())
+
+    override fun validate(session: GASession, params: ValidateAddresseesParams): GAAuthHandler =
+        validate(session, params.addressees.map { it.toJsonElement() })
+
+    override fun encryptWithPin(session: GASession, encryptWithPinParams: EncryptWithPinParams): GAAuthHandler =
+        authHandler("encrypt_with_pin") {
+            val pinIdentifier = synchronized(random) { random.nextBytes(16).toByteString().hex() }
+
+            synchronized(pins) { pins[pinIdentifier] = encryptWithPinParams.pin to encryptWithPinParams.plaintext }
+
+            buildJsonObject {
+                putJsonObject("pin_data") {
+                    put("encrypted_data", encryptWithPinParams.plaintext.toString().encodeUtf8().sha256().hex())
+                    put("pin_identifier", pinIdentifier)
+                    put("salt", pinIdentifier.encodeUtf8().md5().hex())
+                }
+            }
+        }
+
+    override fun decryptWithPin(session: GASession, decryptWithPinParams: DecryptWithPinParams): GAAuthHandler =
+        authHandler("decrypt_with_pin") {
+            val (pin, plaintext) = decryptWithPinParams.pinData?.pinIdentifier?.let { synchronized(pins) { pins[it] } } ?: throw Exception("id_invalid_pin")
+            if (pin != decryptWithPinParams.pin) throw Exception("id_invalid_pin")
+            plaintext
+        }
+
+    override fun getCredentials(session: GASession, params: CredentialsParams): GAAuthHandler = authHandler("get_credentials") {
+        buildJsonObject {
+            put("mnemonic", session.wallet().credentials)
+        }
+    }
+
+    override fun getReceiveAddress(session: GASession, params: ReceiveAddressParams): GAAuthHandler = walletAuthHandler(session, "get_receive_address") { wallet ->
+        val account = wallet.account(params.subaccount)
+        buildJsonObject {
+            put("address", wallet.address())
+            put("pointer", account.addressPointer++)
+            put("address_type", account.type.gdkType.takeIf { account.type.isSinglesig() } ?: "csv")
+            put("subaccount", account.pointer)
+        }
+    }
+
+    override fun getPreviousAddress(session: GASession, params: PreviousAddressParams): GAAuthHandler = walletAuthHandler(session, "get_previous_addresses") { wallet ->
+        val account = wallet.account(params.subaccount)
+        val last = (params.lastPointer?.toLong() ?: account.addressPointer).coerceAtMost(account.addressPointer)
+        val pointers = (last - 1 downTo maxOf(1, last - PREVIOUS_ADDRESSES_PAGE)).toList()
+
+        buildJsonObject {
+            put("last_pointer", pointers.lastOrNull()?.takeIf { it > 1 })
+            putJsonArray("list") {
+                pointers.forEach { pointer ->
+                    add(buildJsonObject {
+                        put("address", wallet.network.addressPrefix + "${account.pointer}/$pointer".encodeUtf8().sha256().hex().take(38))
+                        put("pointer", pointer)
+                        put("tx_count", 0)
+                    })
+                }
+            }
+        }
+    }
+
+    override fun refreshAssets(session: GASession, params: AssetsParams) {}
+
+    override fun getAssets(session: GASession, params: GetAssetsParams): LiquidAssets {
+        val network = session.network()
+        val assets = session.simulated().wallet?.assets ?: listOf()
+
+        return JsonConverter.decode(buildJsonObject {
+            putJsonObject("assets") {
+                params.assets.forEach { assetId ->
+                    if (assetId == network.policyAsset) {
+                        put(assetId, buildJsonObject {
+                            put("asset_id", assetId)
+                            put("name", "Liquid Bitcoin")
+                            put("ticker", "L-BTC")
+                            put("precision", 8)
+                        })
+                    } else {
+                        assets.find { it.assetId == assetId }?.also { put(assetId, it.toJsonElement()) }
+                    }
+                }
+            }
+        })
+    }
+
+    override fun getTransactions(session: GASession, details: TransactionParams): GAAuthHandler = walletAuthHandler(session, "get_transactions") { wallet ->
+        val account = wallet.account(details.subaccount)
+
+        buildJsonObject {
+            put("transactions", JsonArray(account.transactions.drop(details.offset).take(details.limit).map { wallet.transactionJson(it) }))
+        }
+    }
+
+    override fun getTwoFactorConfig(session: GASession): TwoFactorConfig {
+        val methods = session.wallet().twoFactorMethods.takeIf { it.isNotEmpty() } ?: return TwoFactorConfig.empty
+
+        fun method(name: String) = TwoFactorMethodConfig(confirmed = name in methods, enabled = name in methods, data = "***@simulator")
+
+        return TwoFactorConfig(
+            allMethods = TWO_FACTOR_METHODS,
+            enabledMethods = methods,
+            anyEnabled = true,
+            email = method("email"),
+            sms = method("sms"),
+            gauth = method("gauth"),
+            phone = method("phone"),
+            limits = Balance(),
+            twoFactorReset = TwoFactorReset()
+        )
+    }
+
+    override fun changeSettingsTwoFactor(
+        session: GASession,
+        method: String,
+        methodConfig: TwoFactorMethodConfig
+    ): GAAuthHandler = walletAuthHandler(session, "enable_2fa", requiresTwoFactor = true) { wallet ->
+        wallet.twoFactorMethods = if (methodConfig.enabled) {
+            (wallet.twoFactorMethods + method).distinct()
+        } else {
+            wallet.twoFactorMethods - method
+        }
+        null
+    }
+
+    override fun getWatchOnlyUsername(session: GASession): String? = null
+
+    override fun changeSettings(session: GASession, settings: Settings): GAAuthHandler = walletAuthHandler(session, "change_settings") { wallet ->
+        wallet.settings = settings
+
+        notifyWallet(wallet, buildJsonObject {
+            put("event", "settings")
+            put("settings", settings.toJsonElement())
+        })
+        null
+    }
+
+    override fun setCsvTime(session: GASession, value: CsvParams): GAAuthHandler = walletAuthHandler(session, "set_csvtime", requiresTwoFactor = true) { null }
+
+    override fun getSettings(session: GASession): Settings = session.wallet().let { synchronized(it) { it.settings } }
+
+    override fun getAvailableCurrencies(session: GASession): List<Pricing> = listOf("USD", "EUR", "GBP", "JPY").map {
+        Pricing(currency = it, exchange = "BITFINEX")
+    }
+
+    override fun getAuthHandlerStatus(gaAuthHandler: GAAuthHandler): AuthHandlerStatus = (gaAuthHandler as SimulatedAuthHandler).status()
+
+    override fun authHandlerCall(gaAuthHandler: GAAuthHandler) = (gaAuthHandler as SimulatedAuthHandler).call()
+
+    override fun authHandlerRequestCode(method: String, gaAuthHandler: GAAuthHandler) = (gaAuthHandler as SimulatedAuthHandler).requestCode(method)
+
+    override fun authHandlerResolveCode(code: String, gaAuthHandler: GAAuthHandler) = (gaAuthHandler as SimulatedAuthHandler).resolveCode(code)
+
+    override fun destroyAuthHandler(gaAuthHandler: GAAuthHandler) {}
+
+    override fun twoFactorReset(session: GASession, email: String, isDispute: Boolean): GAAuthHandler =
+        walletAuthHandler(session, "request_2fa_reset", requiresTwoFactor = true) { null }
+
+    override fun twoFactorUndoReset(session: GASession, email: String): GAAuthHandler =
+        walletAuthHandler(session, "undo_2fa_reset") { null }
+
+    override fun twoFactorCancelReset(session: GASession): GAAuthHandler =
+        walletAuthHandler(session, "cancel_2fa_reset", requiresTwoFactor = true) { null }
+
+    override fun twoFactorChangeLimits(session: GASession, limits: Limits): GAAuthHandler =
+        walletAuthHandler(session, "change_tx_limits", requiresTwoFactor = true) { null }
+
+    override fun bcurEncode(session: GASession, params: BcurEncodeParams): GAAuthHandler = authHandler("bcur_encode") {
+        val data = params.data ?: throw Exception("Only cbor data is simulated")
+        val encoder = UrEncoder(Ur(type = params.urType, cbor = data.decodeHex().toByteArray()), maxFragmentLen = params.maxFragmentLen)
+
+        buildJsonObject {
+            putJsonArray("parts") {
+                repeat(encoder.seqLen) { add(encoder.nextPart()) }
+            }
+        }
+    }
+
+    override fun bcurDecode(session: GASession, params: BcurDecodeParams): GAAuthHandler = authHandler("bcur_decode") {
+        if (UrDecoder.isMultipart(params.part)) {
+            throw Exception("Multipart URs are decoded by UrDecoder")
+        }
+
+        val ur = Ur.parse(params.part)
+
+        buildJsonObject {
+            put("ur_type", ur.type)
+            put("data", ur.cbor.toByteString().hex())
+        }
+    }
+
+    override fun sendNlocktimes(session: GASession) {}
+
+    // sat/kvB, the first being the minimum relay fee
+    override fun getFeeEstimates(session: GASession): FeeEstimation =
+        FeeEstimation(fees = List(25) { if (it == 0) 1000L else 1000L + (25 - it) * 500L })
+
+    override fun getSystemMessage(session: GASession): String? = null
+
+    override fun ackSystemMessage(session: GASession, message: String): GAAuthHandler = authHandler("ack_system_message") { null }
+
+    override fun setTransactionMemo(session: GASession, txHash: String, memo: String) {
+        val wallet = session.wallet()
+        synchronized(wallet) {
+            wallet.accounts.flatMap { it.transactions }.filter { it.txHash == txHash }.forEach { it.memo = memo }
+        }
+    }
+
+    override fun convertAmount(session: GASession, convert: JsonElement): JsonElement {
+        val json = convert.jsonObject
+        val currency = session.simulated().wallet?.settings?.pricing?.currency ?: "USD"
+        val rate = BigDecimal(config.fiatRate)
+
+        val assetId = json.keys.firstOrNull { it.length == 64 }
+        val precision = json["asset_info"]?.jsonObject?.get("precision")?.jsonPrimitive?.content?.toInt() ?: 0
+
+        fun amount(key: String, scale: Int) = json[key]?.jsonPrimitive?.content?.let { BigDecimal(it).movePointRight(scale) }
+
+        val value = json["satoshi"]?.jsonPrimitive?.longOrNull?.let { BigDecimal(it) }
+            ?: assetId?.let { amount(it, precision) }
+            ?: amount("sats", 0)
+            ?: amount("btc", 8)
+            ?: amount("mbtc", 5)
+            ?: amount("bits", 2)
+            ?: amount("ubtc", 2)
+            ?: json["fiat"]?.jsonPrimitive?.content?.takeIf { rate.signum() != 0 }?.let {
+                BigDecimal(it).movePointRight(8).divide(rate, 0, RoundingMode.HALF_UP)
+            }
+            ?: BigDecimal.ZERO
+
+        val satoshi = value.setScale(0, RoundingMode.DOWN)
+
+        if (satoshi.abs() > BigDecimal(AmountConverter.MAX_SATOSHI)) {
+            throw Exception(if (satoshi.signum() > 0) "id_amount_above_maximum_allowed" else "id_amount_below_minimum_allowed")
+        }
+
+        val balance = AmountConverter.convert(
+            satoshi = satoshi.longValueExact(),
+            fiatRate = config.fiatRate,
+            fiatCurrency = currency,
+            isCurrent = true,
+            assetPrecision = precision.takeIf { assetId != null }
+        ) ?: throw Exception("id_invalid_amount")
+
+        return buildJsonObject {
+            balance.toJsonElement().jsonObject.forEach { (key, value) -> put(key, value) }
+            assetId?.also { put(it, balance.assetAmount) }
+        }
+    }
+
+    override fun networks(): Networks = Networks.fromJsonElement(buildJsonObject {
+        val all = synchronized(networks) { networks.values.toList() }
+
+        putJsonArray("all_networks") {
+            all.forEach { add(it.id) }
+        }
+        all.forEach { put(it.id, it.toJsonElement()) }
+    })
+
+    override fun registerNetwork(id: String, network: JsonElement) {
+        val json = network.jsonObject
+
+        synchronized(networks) {
+            networks[id] = SimulatedNetwork(
+                id = id,
+                name = json["name"]?.jsonPrimitive?.content ?: id,
+                isMainnet = json["mainnet"]?.jsonPrimitive?.content == "true",
+                isLiquid = json["liquid"]?.jsonPrimitive?.content == "true",
+                isSinglesig = json["server_type"]?.jsonPrimitive?.content == "electrum",
+                policyAsset = json["policy_asset"]?.jsonPrimitive?.content ?: BTC_POLICY_ASSET
+            )
+        }
+    }
+
+    override fun blindTransaction(session: GASession, createTransaction: JsonElement): GAAuthHandler = authHandler("blind_transaction") {
+        JsonObject(createTransaction.jsonObject + ("is_blinded" to JsonPrimitive(true)))
+    }
+
+    override fun signTransaction(session: GASession, createTransaction: JsonElement): GAAuthHandler = authHandler("sign_transaction") {
+        JsonObject(createTransaction.jsonObject + ("is_signed" to JsonPrimitive(true)))
+    }
+
+    override fun psbtFromJson(session: GASession, transaction: JsonElement): GAAuthHandler =
+        unsupported("psbt_from_json", "PSBTs are not simulated")
+
+    override fun broadcastTransaction(session: GASession, broadcastTransactionParams: BroadcastTransactionParams): GAAuthHandler =
+        walletAuthHandler(session, "broadcast_transaction") { wallet ->
+            val transaction = wallet.pendingTransactions[broadcastTransactionParams.transaction] ?: throw Exception("id_invalid_transaction")
+
+            val txHash = if (broadcastTransactionParams.simulateOnly) {
+                transaction["txhash"]?.jsonPrimitive?.content
+            } else {
+                send(wallet, transaction)
+            }
+
+            buildJsonObject {
+                put("txhash", txHash)
+            }
+        }
+
+    override fun sendTransaction(session: GASession, transaction: JsonElement): GAAuthHandler =
+        walletAuthHandler(session, "send_raw_tx", requiresTwoFactor = true) { wallet ->
+            val txHash = send(wallet, transaction.jsonObject)
+
+            JsonObject(transaction.jsonObject + ("txhash" to JsonPrimitive(txHash)))
+        }
+
+    private fun send(wallet: SimulatedWallet, transaction: JsonObject): String {
+        val (txHash, event) = wallet.send(transaction, transaction["subaccount"]?.jsonPrimitive?.longOrNull)
+        notifyWallet(wallet, event)
+        return txHash
+    }
+
+    override fun signMessage(session: GASession, params: SignMessageParams): GAAuthHandler = authHandler("sign_message") {
+        buildJsonObject {
+            put("signature", "${params.address}:${params.message}".encodeUtf8().sha256().base64())
+        }
+    }
+
+    override fun createSubAccount(session: GASession, params: SubAccountParams): GAAuthHandler = walletAuthHandler(session, "create_subaccount") { wallet ->
+        if (params.type.isLightning() || params.type == AccountType.UNKNOWN) {
+            throw Exception("${params.type} accounts are not simulated")
+        }
+
+        wallet.accountJson(wallet.createAccount(name = params.name, type = params.type))
+    }
+
+    override fun getSubAccounts(session: GASession, params: SubAccountsParams): GAAuthHandler = walletAuthHandler(session, "get_subaccounts") { wallet ->
+        buildJsonObject {
+            put("subaccounts", JsonArray(wallet.accounts.map { wallet.accountJson(it) }))
+        }
+    }
+
+    override fun getSubAccount(session: GASession, index: Long): GAAuthHandler = walletAuthHandler(session, "get_subaccount") { wallet ->
+        wallet.accountJson(wallet.account(index))
+    }
+
+    override fun updateSubAccount(session: GASession, params: UpdateSubAccountParams): GAAuthHandler = walletAuthHandler(session, "update_subaccount") { wallet ->
+        wallet.account(params.subaccount).also { account ->
+            params.name?.also { account.name = it }
+            params.hidden?.also { account.hidden = it }
+        }
+        null
+    }
+
+    override fun getBalance(session: GASession, details: BalanceParams): GAAuthHandler = walletAuthHandler(session, "get_balance") { wallet ->
+        buildJsonObject {
+            wallet.account(details.subaccount).balance(wallet.network.policyAsset).forEach { (assetId, satoshi) -> put(assetId, satoshi) }
+        }
+    }
+
+    override fun getUnspentOutputs(session: GASession, details: BalanceParams): GAAuthHandler = walletAuthHandler(session, "get_unspent_outputs") { wallet ->
+        val account = wallet.account(details.subaccount)
+
+        buildJsonObject {
+            putJsonObject("unspent_outputs") {
+                account.utxos.filter { details.confirmations == 0 || it.blockHeight > 0 }.groupBy { it.assetId }.forEach { (assetId, utxos) ->
+                    put(assetId, JsonArray(utxos.map { wallet.utxoJson(account, it) }))
+                }
+            }
+        }
+    }
+
+    override fun getUnspentOutputsForPrivateKey(session: GASession, details: UnspentOutputsPrivateKeyParams): GAAuthHandler =
+        unsupported("get_unspent_outputs_for_private_key", "Sweeping is not simulated")
+
+    override fun createTransaction(session: GASession, params: GreenJson<*>): GAAuthHandler = walletAuthHandler(session, "create_transaction") { wallet ->
+        val json = JsonConverter.toJsonElement(params).jsonObject
+        val feeRate = json["fee_rate"]?.jsonPrimitive?.longOrNull ?: getFeeEstimates(session).fees.getOrElse(FeeBlockMedium) { 1000 }
+
+        wallet.createTransaction(json, feeRate)
+    }
+
+    override fun createRedepositTransaction(session: GASession, params: GreenJson<*>): GAAuthHandler =
+        unsupported("create_redeposit_transaction", "Redeposits are not simulated")
+
+    override fun createSwapTransaction(session: GASession, params: GreenJson<*>): GAAuthHandler =
+        unsupported("create_swap_transaction", "Swaps are not simulated")
+
+    override fun completeSwapTransaction(session: GASession, params: GreenJson<*>): GAAuthHandler =
+        unsupported("complete_swap_transaction", "Swaps are not simulated")
+
+    // GDK reports http_request failures in the result rather than by throwing
+    override fun httpRequest(session: GASession, data: JsonElement): JsonElement = buildJsonObject {
+        put("error", "HTTP requests are not simulated")
+    }
+
+    override fun generateMnemonic12(): String = generateMnemonic(12)
+
+    override fun generateMnemonic24(): String = generateMnemonic(24)
+
+    // Not BIP39 checksummed, the simulator accepts any mnemonic
+    private fun generateMnemonic(words: Int): String = synchronized(random) {
+        List(words) { WORDS[random.nextInt(WORDS.size)] }.joinToString(" ")
+    }
+
+    override fun getRandomBytes(size: Int): ByteArray = synchronized(random) { random.nextBytes(size) }
+
+    private fun sleep() {
+        if (config.callLatency.isPositive()) {
+            Thread.sleep(config.callLatency.inWholeMilliseconds)
+        }
+    }
+
+    private fun authHandler(action: String, twoFactorMethods: List<String> = listOf(), block: () -> JsonElement?): GAAuthHandler =
+        SimulatedAuthHandler(action, twoFactorMethods) {
+            sleep()
+            block()
+        }
+
+    private fun unsupported(action: String, error: String): GAAuthHandler = authHandler(action) {
+        throw Exception(error)
+    }
+
+    // Runs the call under the wallet lock, requesting a 2FA code if the wallet has 2FA enabled
+    private fun walletAuthHandler(
+        session: GASession,
+        action: String,
+        requiresTwoFactor: Boolean = false,
+        block: (wallet: SimulatedWallet) -> JsonElement?
+    ): GAAuthHandler {
+        val wallet = session.wallet()
+        val twoFactorMethods = if (requiresTwoFactor) synchronized(wallet) { wallet.twoFactorMethods } else listOf()
+
+        return authHandler(action, twoFactorMethods) {
+            synchronized(wallet) { block(wallet) }
+        }
+    }
+
+    /** The GA_auth_handler state machine: request_code -> resolve_code -> call -> done | error */
+    private inner class SimulatedAuthHandler(
+        private val action: String,
+        private val methods: List<String>,
+        private val block: () -> JsonElement?
+    ) {
+        private var status = if (methods.isEmpty()) AuthHandler.CALL else AuthHandler.REQUEST_CODE
+        private var method: String? = null
+        private var attemptsRemaining = 3
+        private var result: JsonElement? = null
+        private var error: String? = null
+
+        @Synchronized
+        fun status(): AuthHandlerStatus = buildJsonObject {
+            put("action", action)
+            put("status", status)
+            putJsonArray("methods") { methods.forEach { add(it) } }
+            method?.also { put("method", it) }
+
+            when (status) {
+                AuthHandler.RESOLVE_CODE -> put("attempts_remaining", attemptsRemaining)
+                AuthHandler.ERROR -> put("error", error)
+                AuthHandler.DONE -> result?.also { put("result", it) }
+            }
+        }.let {
+            AuthHandlerStatus.from(it.toString())
+        }
+
+        @Synchronized
+        fun call() {
+            check(status == AuthHandler.CALL) { "Invalid auth handler state $status" }
+
+            try {
+                result = block()
+                status = AuthHandler.DONE
+            } catch (e: Exception) {
+                error = e.message
+                status = AuthHandler.ERROR
+            }
+        }
+
+        @Synchronized
+        fun requestCode(method: String) {
+            check(status == AuthHandler.REQUEST_CODE) { "Invalid auth handler state $status" }
+            require(method in methods) { "id_invalid_twofactor_method" }
+
+            this.method = method
+            status = AuthHandler.RESOLVE_CODE
+        }
+
+        @Synchronized
+        fun resolveCode(code: String) {
+            check(status == AuthHandler.RESOLVE_CODE) { "Invalid auth handler state $status" }
+
+            if (code == config.twoFactorCode) {
+                status = AuthHandler.CALL
+            } else if (--attemptsRemaining == 0) {
+                error = "id_invalid_twofactor_code"
+                status = AuthHandler.ERROR
+            }
+        }
+    }
+
+    companion object : Loggable() {
+        const val LIQUID_POLICY_ASSET = "6f0279e9ed041c3d710a9f57d0c02928416460c4b722ae3457a11eec381c526d"
+        const val LIQUID_TESTNET_POLICY_ASSET = "144c654344aa716d6f3abcc1ca90e5641e4e2a7f633bc09fe3baf64585819a49"
+
+        private const val PREVIOUS_ADDRESSES_PAGE = 10
+
+        private val TWO_FACTOR_METHODS = listOf("email", "sms", "phone", "gauth")
+
+        private val WORDS = listOf(
+            "abandon", "ability", "able", "about", "above", "absent", "absorb", "abstract",
+            "absurd", "abuse", "access", "accident", "account", "accuse", "achieve", "acid",
+            "acoustic", "acquire", "across", "act", "action", "actor", "actress", "actual"
+        )
+    }
+}
@@ -0,0 +1,508 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.gdk.data.AccountType
+import com.blockstream.common.gdk.data.Pricing
+import com.blockstream.common.gdk.data.Settings
+import kotlinx.serialization.json.JsonArray
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.add
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.jsonArray
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.json.jsonPrimitive
+import kotlinx.serialization.json.long
+import kotlinx.serialization.json.longOrNull
+import kotlinx.serialization.json.put
+import kotlinx.serialization.json.putJsonArray
+import kotlinx.serialization.json.putJsonObject
+import okio.ByteString.Companion.encodeUtf8
+import okio.ByteString.Companion.toByteString
+import kotlin.random.Random
+
+internal class SimulatedNetwork(
+    val id: String,
+    val name: String,
+    val isMainnet: Boolean,
+    val isLiquid: Boolean,
+    val isSinglesig: Boolean,
+    val policyAsset: String
+) {
+    val addressPrefix: String
+        get() = when {
+            isLiquid && isSinglesig -> if (isMainnet) "ex1q" else "tex1q"
+            isLiquid -> if (isMainnet) "VJL" else "vjT"
+            isSinglesig -> if (isMainnet) "bc1q" else "tb1q"
+            else -> if (isMainnet) "3" else "2"
+        }
+
+    // Synthetic chain tip when the simulator starts
+    val initialBlockHeight: Long
+        get() = if (isLiquid) 3_000_000 else 850_000
+
+    val blockIntervalSeconds: Long
+        get() = if (isLiquid) 60 else 600
+
+    // Microseconds, as GDK reports them
+    fun timestamp(height: Long): Long =
+        (SimulatedWallet.BASE_TIMESTAMP - (initialBlockHeight - height) * blockIntervalSeconds) * 1_000_000
+
+    fun toJsonElement(): JsonElement = buildJsonObject {
+        put("network", id.removePrefix("electrum-"))
+        put("name", name)
+        put("mainnet", isMainnet)
+        put("liquid", isLiquid)
+        put("development", false)
+        put("server_type", if (isSinglesig) "electrum" else "green")
+        put("policy_asset", policyAsset)
+        putJsonArray("csv_buckets") {}
+    }
+}
+
+/** Chain tip shared by the wallets of a simulated network. */
+internal class SimulatedChain(val network: SimulatedNetwork) {
+    val blockHeight: Long
+        get() = chain.blockHeight
+
+    var twoFactorMethods: List<String> = if (network.isSinglesig) listOf() else config.twoFactorMethods
+
+    fun mine(blockHash: String): JsonObject {
+        blockHeight++
+
+        return buildJsonObject {
+            put("event", "block")
+            putJsonObject("block") {
+                put("block_height", blockHeight)
+                put("block_hash", blockHash)
+                put("initial_timestamp", network.timestamp(blockHeight) / 1_000_000)
+            }
+        }
+    }
+}
+
+internal class SimulatedUtxo(
+    val txHash: String,
+    val ptIdx: Long,
+    val satoshi: Long,
+    val assetId: String,
+    var blockHeight: Long,
+    val pointer: Long
+)
+
+internal class SimulatedTransaction(
+    val txHash: String,
+    var blockHeight: Long,
+    val createdAtTs: Long,
+    val type: String,
+    val satoshi: Map<String, Long>,
+    val fee: Long,
+    val feeRate: Long,
+    var memo: String,
+    val outputs: List<JsonElement>
+)
+
+internal class SimulatedAccount(val pointer: Long, var name: String, val type: AccountType, var hidden: Boolean = false) {
+    var addressPointer = 1L
+
+    // Newest first, as reported by GDK
+    val transactions = mutableListOf<SimulatedTransaction>()
+    val utxos = mutableListOf<SimulatedUtxo>()
+
+    fun balance(policyAsset: String): Map<String, Long> =
+        utxos.groupBy { it.assetId }.mapValues { (_, utxos) -> utxos.sumOf { it.satoshi } }.let {
+            // Policy asset is always reported
+            mapOf(policyAsset to 0L) + it
+        }
+}
+
+/**
+ * Synthetic wallet state of a simulated session, generated deterministically from the
+ * [GdkSimulatorConfig.seed], the network and the credentials.
+ *
+ * Every unspent output is funded by an incoming transaction and every spent history pair cancels
+ * out, so balances always equal both the sum of the unspent outputs and of the transaction amounts.
+ *
+ * Not thread safe, callers synchronize on the wallet.
+ */
+internal class SimulatedWallet(
+    val chain: SimulatedChain,
+    val credentials: String,
+    private val config: GdkSimulatorConfig
+) {
+    val network: SimulatedNetwork
+        get() = chain.network
+
+    private val random = Random("${config.seed}-${network.id}-$credentials".hashCode())
+
+    val accounts = mutableListOf<SimulatedAccount>()
+
+    val assets: List<SimulatedAsset> = if (network.isLiquid) {
+        List(config.liquidAssets) { index ->
+            SimulatedAsset(
+                assetId = randomHex(),
+                name = "Simulated Asset ${index + 1}",
+                ticker = "SA${index + 1}",
+                precision = index % 9
+            )
+        }
+    } else listOf()
+
+    val blockHeight: Long
+        get() = chain.blockHeight
+
+    var twoFactorMethods: List<String> = if (network.isSinglesig) listOf() else config.twoFactorMethods
+
+    var settings = Settings(pricing = Pricing(currency = "USD", exchange = "BITFINEX"), unit = "BTC")
+
+    // Transactions created by the simulator and not yet sent, by their raw hex
+    val pendingTransactions = mutableMapOf<String, JsonObject>()
+
+    init {
+        repeat(config.accounts) {
+            createAccount(name = "Account #${it + 1}", type = defaultAccountType()).also { account ->
+                generateHistory(account)
+            }
+        }
+    }
+
+    fun defaultAccountType() = if (network.isSinglesig) AccountType.BIP84_SEGWIT else AccountType.STANDARD
+
+    fun createAccount(name: String, type: AccountType): SimulatedAccount {
+        return SimulatedAccount(pointer = accounts.size.toLong(), name = name, type = type).also {
+            accounts += it
+        }
+    }
+
+    fun account(pointer: Long): SimulatedAccount =
+        accounts.find { it.pointer == pointer } ?: throw Exception("id_unknown_subaccount")
+
+    private fun generateHistory(account: SimulatedAccount) {
+        val fundingTxs = config.utxosPerAccount
+        val history = (config.transactionsPerAccount - fundingTxs).coerceAtLeast(0)
+
+        // Oldest first, reversed at the end
+        val transactions = mutableListOf<SimulatedTransaction>()
+        var height = blockHeight - (config.transactionsPerAccount + 1) * 10L
+
+        // Spent pairs, an incoming transaction and its full spend
+        repeat(history / 2) {
+            val amount = random.nextLong(10_000, 5_000_000)
+            transactions += incoming(account, amount, network.policyAsset, height++, ptIdx = 0)
+            transactions += outgoing(amount, height++, sent = amount - fee(DEFAULT_FEE_RATE))
+        }
+
+        repeat(fundingTxs) {
+            val asset = assets.takeIf { it.isNotEmpty() && random.nextInt(3) == 0 }?.random(random)?.assetId ?: network.policyAsset
+            val amount = random.nextLong(1_000, 5_000_000)
+            val tx = incoming(account, amount, asset, height++, ptIdx = random.nextLong(0, 2))
+
+            transactions += tx
+            account.utxos += SimulatedUtxo(tx.txHash, tx.outputs.first().ptIdx(), amount, asset, tx.blockHeight, account.addressPointer++)
+        }
+
+        // An odd history is completed by consolidating the first policy asset output to itself
+        if (history % 2 == 1) {
+            account.utxos.firstOrNull { it.assetId == network.policyAsset && it.satoshi > fee(DEFAULT_FEE_RATE) }?.also { utxo ->
+                val redeposit = redeposit(account, utxo, height++)
+                transactions += redeposit
+                account.utxos[account.utxos.indexOf(utxo)] = SimulatedUtxo(
+                    redeposit.txHash, 0, utxo.satoshi - redeposit.fee, utxo.assetId, redeposit.blockHeight, account.addressPointer++
+                )
+            }
+        }
+
+        account.transactions += transactions.reversed()
+    }
+
+    private fun incoming(account: SimulatedAccount, amount: Long, assetId: String, height: Long, ptIdx: Long) = SimulatedTransaction(
+        txHash = randomHex(),
+        blockHeight = height,
+        createdAtTs = timestamp(height),
+        type = "incoming",
+        satoshi = mapOf(assetId to amount),
+        fee = fee(DEFAULT_FEE_RATE),
+        feeRate = DEFAULT_FEE_RATE,
+        memo = "",
+        outputs = listOf(output(account, amount, assetId, ptIdx, isRelevant = true))
+    )
+
+    private fun outgoing(amount: Long, height: Long, sent: Long) = SimulatedTransaction(
+        txHash = randomHex(),
+        blockHeight = height,
+        createdAtTs = timestamp(height),
+        type = "outgoing",
+        satoshi = mapOf(network.policyAsset to -amount),
+        fee = amount - sent,
+        feeRate = DEFAULT_FEE_RATE,
+        memo = "",
+        outputs = listOf(buildJsonObject {
+            put("address", address())
+            put("satoshi", sent)
+            put("pt_idx", 0)
+            put("is_relevant", false)
+        })
+    )
+
+    private fun redeposit(account: SimulatedAccount, utxo: SimulatedUtxo, height: Long) = fee(DEFAULT_FEE_RATE).let { fee ->
+        SimulatedTransaction(
+            txHash = randomHex(),
+            blockHeight = height,
+            createdAtTs = timestamp(height),
+            type = "redeposit",
+            satoshi = mapOf(network.policyAsset to -fee),
+            fee = fee,
+            feeRate = DEFAULT_FEE_RATE,
+            memo = "",
+            outputs = listOf(output(account, utxo.satoshi - fee, utxo.assetId, 0, isRelevant = true))
+        )
+    }
+
+    private fun output(account: SimulatedAccount, amount: Long, assetId: String, ptIdx: Long, isRelevant: Boolean) = buildJsonObject {
+        put("address", address())
+        put("address_type", account.type.gdkType.takeIf { account.type.isSinglesig() } ?: "csv")
+        put("satoshi", amount)
+        put("pt_idx", ptIdx)
+        put("is_relevant", isRelevant)
+        put("subaccount", account.pointer)
+        put("pointer", account.addressPointer)
+        if (network.isLiquid) put("asset_id", assetId)
+    }
+
+    /** Receives a new unconfirmed transaction, returns the notification event. */
+    fun receive(): JsonObject? {
+        val account = accounts.filter { !it.hidden }.takeIf { it.isNotEmpty() }?.random(random) ?: return null
+        val asset = assets.takeIf { it.isNotEmpty() && random.nextInt(3) == 0 }?.random(random)?.assetId ?: network.policyAsset
+        val amount = random.nextLong(1_000, 1_000_000)
+        val tx = incoming(account, amount, asset, height = 0, ptIdx = 0)
+
+        account.transactions.add(0, tx)
+        account.utxos += SimulatedUtxo(tx.txHash, 0, amount, asset, 0, account.addressPointer++)
+
+        return transactionEvent(listOf(account.pointer), tx)
+    }
+
+    /** Confirms the pending transactions in the chain tip. */
+    fun confirm() {
+        accounts.forEach { account ->
+            account.transactions.filter { it.blockHeight == 0L }.forEach { it.blockHeight = blockHeight }
+            account.utxos.filter { it.blockHeight == 0L }.forEach { it.blockHeight = blockHeight }
+        }
+    }
+
+    fun createTransaction(params: JsonObject, feeRate: Long): JsonObject {
+        val addressees = params["addressees"]?.jsonArray?.map { it.jsonObject } ?: listOf()
+        val utxos = params["utxos"]?.jsonObject?.mapValues { (_, list) -> list.jsonArray.map { it.jsonObject } } ?: mapOf()
+        val fee = fee(feeRate)
+
+        // Amount sent per asset, greedy addressees take whatever is left
+        val sent = mutableMapOf<String, Long>()
+        val outputs = addressees.map { addressee ->
+            val assetId = addressee["asset_id"]?.jsonPrimitive?.content ?: network.policyAsset
+            val available = utxos[assetId]?.sumOf { it.satoshi() } ?: 0
+            val isGreedy = addressee["is_greedy"]?.jsonPrimitive?.content == "true"
+            val satoshi = if (isGreedy) {
+                available - (sent[assetId] ?: 0) - (if (assetId == network.policyAsset) fee else 0)
+            } else {
+                addressee["satoshi"]?.jsonPrimitive?.longOrNull ?: 0
+            }
+
+            sent[assetId] = (sent[assetId] ?: 0) + satoshi
+
+            buildJsonObject {
+                put("address", addressee["address"]?.jsonPrimitive?.content)
+                put("asset_id", assetId)
+                put("satoshi", satoshi)
+                put("is_change", false)
+            }
+        }
+
+        val error = when {
+            addressees.isEmpty() -> "id_no_recipients"
+            addressees.any { it["address"]?.jsonPrimitive?.content.isNullOrBlank() } -> "id_invalid_address"
+            outputs.any { it.satoshi() <= 0 } -> "id_invalid_amount"
+            else -> null
+        }
+
+        sent[network.policyAsset] = (sent[network.policyAsset] ?: 0) + fee
+
+        val inputs = mutableListOf<JsonObject>()
+        val change = mutableListOf<JsonObject>()
+
+        val fundingError = sent.firstNotNullOfOrNull { (assetId, amount) ->
+            var selected = 0L
+            utxos[assetId].orEmpty().sortedByDescending { it.satoshi() }.forEach {
+                if (selected < amount) {
+                    inputs += it
+                    selected += it.satoshi()
+                }
+            }
+
+            if (selected < amount) {
+                "id_insufficient_funds"
+            } else {
+                if (selected > amount) {
+                    change += buildJsonObject {
+                        put("address", address())
+                        put("asset_id", assetId)
+                        put("satoshi", selected - amount)
+                        put("is_change", true)
+                    }
+                }
+                null
+            }
+        }
+
+        val txHash = randomHex()
+
+        return buildJsonObject {
+            params.forEach { (key, value) -> put(key, value) }
+            put("fee", fee)
+            put("fee_rate", feeRate)
+            put("calculated_fee_rate", feeRate)
+            put("transaction_vsize", TX_VSIZE)
+            put("txhash", txHash)
+            put("transaction", "02000000$txHash")
+            put("error", error ?: fundingError ?: "")
+            putJsonObject("satoshi") {
+                sent.forEach { (assetId, amount) -> put(assetId, amount) }
+            }
+            put("transaction_inputs", JsonArray(inputs))
+            put("transaction_outputs", JsonArray(outputs + change))
+        }.also {
+            pendingTransactions[it["transaction"]!!.jsonPrimitive.content] = it
+        }
+    }
+
+    /** Spends the inputs of a created transaction, returns its hash and the notification event. */
+    fun send(transaction: JsonObject, subaccount: Long?): Pair<String, JsonObject> {
+        val error = transaction["error"]?.jsonPrimitive?.content
+        if (!error.isNullOrBlank()) throw Exception(error)
+
+        val txHash = transaction["txhash"]?.jsonPrimitive?.content ?: throw Exception("id_invalid_transaction")
+        pendingTransactions.remove(transaction["transaction"]?.jsonPrimitive?.content)
+
+        val inputs = transaction["transaction_inputs"]?.jsonArray?.map { it.jsonObject } ?: listOf()
+        val spent = inputs.map { it.txHash() to it.ptIdx() }.toSet()
+
+        val involved = accounts.filter { account -> account.utxos.any { (it.txHash to it.ptIdx) in spent } }
+            .ifEmpty { listOfNotNull(subaccount?.let { account(it) }) }
+
+        val fee = transaction["fee"]?.jsonPrimitive?.long ?: 0
+        val satoshi = transaction["satoshi"]?.jsonObject?.mapValues { -it.value.jsonPrimitive.long } ?: mapOf()
+
+        involved.forEachIndexed { index, account ->
+            account.utxos.removeAll { (it.txHash to it.ptIdx) in spent }
+
+            // Change returns to the first account
+            if (index == 0) {
+                transaction["transaction_outputs"]?.jsonArray?.map { it.jsonObject }?.forEachIndexed { ptIdx, output ->
+                    if (output["is_change"]?.jsonPrimitive?.content == "true") {
+                        account.utxos += SimulatedUtxo(
+                            txHash, ptIdx.toLong(), output.satoshi(),
+                            output["asset_id"]?.jsonPrimitive?.content ?: network.policyAsset, 0, account.addressPointer++
+                        )
+                    }
+                }
+
+                account.transactions.add(
+                    0, SimulatedTransaction(
+                        txHash = txHash,
+                        blockHeight = 0,
+                        createdAtTs = timestamp(blockHeight + 1),
+                        type = "outgoing",
+                        satoshi = satoshi,
+                        fee = fee,
+                        feeRate = transaction["fee_rate"]?.jsonPrimitive?.long ?: DEFAULT_FEE_RATE,
+                        memo = transaction["memo"]?.jsonPrimitive?.content ?: "",
+                        outputs = transaction["transaction_outputs"]?.jsonArray ?: listOf()
+                    )
+                )
+            }
+        }
+
+        return txHash to transactionEvent(involved.map { it.pointer }, involved.firstOrNull()?.transactions?.firstOrNull())
+    }
+
+    fun transactionJson(tx: SimulatedTransaction) = buildJsonObject {
+        put("block_height", tx.blockHeight)
+        put("created_at_ts", tx.createdAtTs)
+        put("txhash", tx.txHash)
+        put("type", tx.type)
+        put("fee", tx.fee)
+        put("fee_rate", tx.feeRate)
+        put("memo", tx.memo)
+        put("spv_verified", "disabled")
+        put("transaction_vsize", TX_VSIZE)
+        put("can_rbf", tx.blockHeight == 0L && tx.type != "incoming")
+        putJsonObject("satoshi") {
+            tx.satoshi.forEach { (assetId, amount) -> put(assetId, amount) }
+        }
+        putJsonArray("inputs") {}
+        put("outputs", JsonArray(tx.outputs))
+    }
+
+    fun utxoJson(account: SimulatedAccount, utxo: SimulatedUtxo) = buildJsonObject {
+        put("txhash", utxo.txHash)
+        put("pt_idx", utxo.ptIdx)
+        put("satoshi", utxo.satoshi)
+        put("block_height", utxo.blockHeight)
+        put("address_type", account.type.gdkType.takeIf { account.type.isSinglesig() } ?: "csv")
+        put("subaccount", account.pointer)
+        put("pointer", utxo.pointer)
+        if (network.isLiquid) put("asset_id", utxo.assetId)
+    }
+
+    fun accountJson(account: SimulatedAccount) = buildJsonObject {
+        put("name", account.name)
+        put("pointer", account.pointer)
+        put("type", account.type.gdkType)
+        put("hidden", account.hidden)
+        put("receiving_id", if (account.type.isSinglesig()) "" else "GA${account.pointer}${credentials.encodeUtf8().sha256().hex().take(24)}")
+    }
+
+    private fun transactionEvent(subaccounts: List<Long>, tx: SimulatedTransaction?) = buildJsonObject {
+        put("event", "transaction")
+        putJsonObject("transaction") {
+            putJsonArray("subaccounts") { subaccounts.forEach { add(it) } }
+            tx?.also {
+                put("txhash", it.txHash)
+                put("type", it.type)
+                put("satoshi", it.satoshi[network.policyAsset] ?: 0)
+            }
+        }
+    }
+
+    fun address(): String = network.addressPrefix + randomHex().take(38)
+
+    fun randomHex(): String = random.nextBytes(32).toByteString().hex()
+
+    private fun fee(feeRate: Long) = (feeRate * TX_VSIZE / 1000).coerceAtLeast(1)
+
+    private fun timestamp(height: Long): Long = network.timestamp(height)
+
+    private fun JsonObject.satoshi() = get("satoshi")?.jsonPrimitive?.longOrNull ?: 0
+    private fun JsonObject.txHash() = get("txhash")?.jsonPrimitive?.content
+    private fun JsonElement.ptIdx() = jsonObject["pt_idx"]?.jsonPrimitive?.longOrNull ?: 0
+
+    companion object {
+        const val DEFAULT_FEE_RATE = 1_000L // sat/kvB
+
+        // One input, two outputs p2wpkh
+        const val TX_VSIZE = 141L
+
+        // Chain tip timestamp, keeps the generated history reproducible
+        const val BASE_TIMESTAMP = 1_700_000_000L
+    }
+}
+
+internal class SimulatedAsset(val assetId: String, val name: String, val ticker: String, val precision: Int) {
+    fun toJsonElement(): JsonElement = buildJsonObject {
+        put("asset_id", assetId)
+        put("name", name)
+        put("ticker", ticker)
+        put("precision", precision)
+        putJsonObject("entity") {
+            put("domain", "simulator.blockstream.com")
+        }
+    }
+}
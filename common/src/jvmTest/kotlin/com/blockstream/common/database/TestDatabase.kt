@@ -0,0 +1,40 @@
+package com.blockstream.common.database
+
+import com.blockstream.common.crypto.GreenKeystore
+import com.blockstream.common.crypto.PlatformCipher
+import com.blockstream.common.data.EncryptedData
+import com.blockstream.common.managers.SettingsManager
+import com.russhwolf.settings.PropertiesSettings
+import java.util.Properties
+
+// The jvm driver is an in-memory database, each call returns an empty one
+fun testDatabase() = Database(
+    driverFactory = DriverFactory(),
+    settingsManager = SettingsManager(
+        settings = PropertiesSettings(Properties()),
+        analyticsFeatureEnabled = false,
+        lightningFeatureEnabled = false,
+        storeRateEnabled = false
+    )
+)
+
+// Reversible stand-in for the platform keystore, decryption fails once the key is invalidated
+class TestKeystore : GreenKeystore {
+    var isInvalidated = false
+
+    override fun encryptData(dataToEncrypt: ByteArray): EncryptedData =
+        EncryptedData.fromByteArray(dataToEncrypt.reversedArray(), byteArrayOf(0))
+
+    override fun encryptData(cipher: PlatformCipher, dataToEncrypt: ByteArray): EncryptedData =
+        encryptData(dataToEncrypt)
+
+    override fun decryptData(encryptedData: EncryptedData): ByteArray {
+        if (isInvalidated) throw Exception("Key permanently invalidated")
+        return encryptedData.getEncryptedData().reversedArray()
+    }
+
+    override fun decryptData(cipher: PlatformCipher, encryptedData: EncryptedData): ByteArray =
+        decryptData(encryptedData)
+
+    override fun canUseBiometrics(): Boolean = false
+}
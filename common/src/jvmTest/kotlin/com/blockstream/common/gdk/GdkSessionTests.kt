@@ -0,0 +1,155 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.BTC_POLICY_ASSET
+import com.blockstream.common.CountlyBase
+import com.blockstream.common.data.AppConfig
+import com.blockstream.common.data.AppInfo
+import com.blockstream.common.data.GreenWallet
+import com.blockstream.common.database.Database
+import com.blockstream.common.database.TestKeystore
+import com.blockstream.common.database.testDatabase
+import com.blockstream.common.di.ApplicationScope
+import com.blockstream.common.fcm.FcmCommon
+import com.blockstream.common.gdk.data.Network
+import com.blockstream.common.gdk.params.LoginCredentialsParams
+import com.blockstream.common.gdk.params.TransactionParams
+import com.blockstream.common.lightning.BreezNotification
+import com.blockstream.common.lightning.GreenlightKeys
+import com.blockstream.common.lightning.LightningManager
+import com.blockstream.common.managers.AssetManager
+import com.blockstream.common.managers.LifecycleManager
+import com.blockstream.common.managers.SessionManager
+import com.blockstream.common.managers.SettingsManager
+import com.russhwolf.settings.PropertiesSettings
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.test.runTest
+import java.util.Properties
+import kotlin.test.AfterTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+// Drives a wallet GdkSession end to end against the GDK simulator
+class GdkSessionTests {
+
+    private val mnemonic = "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about"
+
+    private val config = GdkSimulatorConfig(seed = 7, accounts = 2, transactionsPerAccount = 12, utxosPerAccount = 4)
+
+    private val scope: ApplicationScope = CoroutineScope(SupervisorJob())
+
+    private val appInfo = AppInfo(userAgent = "test", version = "1.0", isDebug = false, isDevelopment = false)
+    private val appConfig = AppConfig(
+        isDebug = false,
+        filesDir = "",
+        cacheDir = System.getProperty("java.io.tmpdir"),
+        analyticsFeatureEnabled = false,
+        lightningFeatureEnabled = false
+    )
+
+    private val database = testDatabase()
+    private val keystore = TestKeystore()
+    private val settingsManager = database.settingsManager
+    private val gdk = Gdk(settings = PropertiesSettings(Properties()), gdkBinding = GdkSimulator("", config))
+
+    private val sessionManager = SessionManager(
+        appInfo = appInfo,
+        lifecycleManager = LifecycleManager(settingsManager, keystore, scope),
+        lightningManager = LightningManager(
+            greenlightKeys = GreenlightKeys(breezApiKey = "", deviceKey = null, deviceCert = null),
+            appInfo = appInfo,
+            appConfig = appConfig,
+            scope = scope,
+            gdk = gdk,
+            firebase = TestFcm(scope)
+        ),
+        settingsManager = settingsManager,
+        assetManager = AssetManager(appConfig),
+        countly = TestCountly(appInfo, scope, settingsManager, database),
+        gdk = gdk,
+        wally = getWally(),
+        walletSnapshotStore = WalletSnapshotStore(database, keystore)
+    )
+
+    private val session = sessionManager.getWalletSessionOrCreate(GreenWallet.createWallet(name = "Wallet"))
+
+    @AfterTest
+    fun tearDown() {
+        session.disconnect()
+    }
+
+    private suspend fun login() = session.loginWithMnemonic(
+        isTestnet = false,
+        loginCredentialsParams = LoginCredentialsParams(mnemonic = mnemonic),
+        initNetworks = listOf(session.networks.bitcoinElectrum),
+        initializeSession = true,
+        isSmartDiscovery = false,
+        isCreate = false,
+        isRestore = false
+    )
+
+    @Test
+    fun `test login initializes the session`() = runTest {
+        val loginData = login()
+
+        assertTrue(session.isConnected)
+        assertEquals(loginData.xpubHashId, session.xPubHashId)
+        assertEquals(config.accounts, session.accounts.value.size)
+        assertTrue(session.accounts.value.all { it.network.id == Network.ElectrumMainnet })
+    }
+
+    @Test
+    fun `test transactions and balance of each account`() = runTest {
+        login()
+
+        session.accounts.value.forEach { account ->
+            val transactions = session.getTransactions(
+                account = account,
+                params = TransactionParams(subaccount = account.pointer, limit = 100)
+            ).transactions
+
+            assertEquals(config.transactionsPerAccount, transactions.size)
+            assertTrue(transactions.all { it.accountInjected == account })
+
+            // The balance is the sum of the history
+            assertEquals(
+                transactions.sumOf { it.satoshi[BTC_POLICY_ASSET] ?: 0L },
+                session.getBalance(account).policyAsset
+            )
+        }
+    }
+}
+
+private class TestCountly(
+    appInfo: AppInfo,
+    applicationScope: ApplicationScope,
+    settingsManager: SettingsManager,
+    database: Database
+) : CountlyBase(appInfo, applicationScope, settingsManager, database) {
+    override fun updateRemoteConfig(force: Boolean) {}
+    override fun updateOffset() {}
+    override fun updateDeviceId() {}
+    override fun updateConsent(withUserConsent: Boolean) {}
+    override fun viewRecord(viewName: String, segmentation: Map<String, Any>?) {}
+    override fun eventRecord(key: String, segmentation: Map<String, Any>?) {}
+    override fun eventStart(key: String) {}
+    override fun eventCancel(key: String) {}
+    override fun eventEnd(key: String, segmentation: Map<String, Any>?) {}
+    override fun traceStart(key: String) {}
+    override fun traceEnd(key: String) {}
+    override fun setProxy(proxyUrl: String?) {}
+    override fun updateUserWallets(wallets: Int) {}
+    override fun getRemoteConfigValueAsString(key: String): String? = null
+    override fun getRemoteConfigValueAsBoolean(key: String): Boolean? = null
+    override fun getRemoteConfigValueAsNumber(key: String): Long? = null
+    override fun recordExceptionImpl(throwable: Throwable) {}
+    override fun recordFeedback(rating: Int, email: String?, comment: String) {}
+}
+
+private class TestFcm(applicationScope: ApplicationScope) : FcmCommon(applicationScope) {
+    override fun scheduleLightningBackgroundJob(walletId: String, breezNotification: BreezNotification) {}
+    override suspend fun showLightningPaymentNotification(wallet: GreenWallet, paymentHash: String, satoshi: Long) {}
+    override suspend fun showOpenWalletNotification(wallet: GreenWallet, breezNotification: BreezNotification) {}
+    override fun showDebugNotification(title: String, message: String) {}
+}
@@ -0,0 +1,129 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.gdk.params.BalanceParams
+import com.blockstream.common.gdk.params.ConnectionParams
+import com.blockstream.common.gdk.params.CreateTransactionParams
+import com.blockstream.common.gdk.params.DeviceParams
+import com.blockstream.common.gdk.params.LoginCredentialsParams
+import com.blockstream.common.gdk.params.SubAccountsParams
+import com.blockstream.common.gdk.params.TransactionParams
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.jsonArray
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.json.jsonPrimitive
+import kotlinx.serialization.json.long
+import kotlinx.serialization.json.put
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class GdkSimulatorTests {
+
+    private val mnemonic = "abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon abandon about"
+
+    private fun GdkSimulator.login(network: String): GASession = createSession().also { session ->
+        connect(session, ConnectionParams(networkName = network, useTor = false, userAgent = "test", proxy = ""))
+        resolve(loginUser(session, DeviceParams(), LoginCredentialsParams(mnemonic = mnemonic)))
+    }
+
+    // Resolves the auth handler, answering 2FA requests with the given codes
+    private fun GdkSimulator.resolve(authHandler: GAAuthHandler, codes: MutableList<String> = mutableListOf()): JsonObject? {
+        while (true) {
+            val status = getAuthHandlerStatus(authHandler)
+            when (status.status) {
+                AuthHandler.CALL -> authHandlerCall(authHandler)
+                AuthHandler.REQUEST_CODE -> authHandlerRequestCode(status.methods.first(), authHandler)
+                AuthHandler.RESOLVE_CODE -> authHandlerResolveCode(codes.removeFirst(), authHandler)
+                AuthHandler.ERROR -> throw Exception(status.error)
+                else -> return JsonConverter.JsonDeserializer.parseToJsonElement(status.statusJson!!).jsonObject["result"] as? JsonObject
+            }
+        }
+    }
+
+    @Test
+    fun `test wallets are deterministic and consistent`() {
+        val config = GdkSimulatorConfig(seed = 42, accounts = 3, transactionsPerAccount = 25, utxosPerAccount = 8, liquidAssets = 4)
+
+        val transactions = listOf(GdkSimulator("", config), GdkSimulator("", config)).map { gdk ->
+            val session = gdk.login("electrum-liquid")
+
+            val accounts = gdk.resolve(gdk.getSubAccounts(session, SubAccountsParams()))!!["subaccounts"]!!.jsonArray
+            assertEquals(3, accounts.size)
+
+            accounts.map { it.jsonObject["pointer"]!!.jsonPrimitive.long }.map { pointer ->
+                val txs = gdk.resolve(gdk.getTransactions(session, TransactionParams(subaccount = pointer, limit = 100)))!!["transactions"]!!.jsonArray
+                val balance = gdk.resolve(gdk.getBalance(session, BalanceParams(subaccount = pointer, confirmations = 0)))!!
+                val utxos = gdk.resolve(gdk.getUnspentOutputs(session, BalanceParams(subaccount = pointer, confirmations = 0)))!!["unspent_outputs"]!!.jsonObject
+
+                assertEquals(25, txs.size)
+                assertEquals(8, utxos.values.sumOf { it.jsonArray.size })
+
+                // Balance matches both the unspent outputs and the transaction history
+                balance.forEach { (assetId, satoshi) ->
+                    assertEquals(satoshi.jsonPrimitive.long, utxos[assetId]?.jsonArray?.sumOf { it.jsonObject["satoshi"]!!.jsonPrimitive.long } ?: 0L)
+                    assertEquals(satoshi.jsonPrimitive.long, txs.sumOf { it.jsonObject["satoshi"]!!.jsonObject[assetId]?.jsonPrimitive?.long ?: 0L })
+                }
+
+                txs.map { it.jsonObject["txhash"]!!.jsonPrimitive.content }
+            }
+        }
+
+        assertEquals(transactions[0], transactions[1])
+    }
+
+    @Test
+    fun `test send with 2fa`() {
+        val gdk = GdkSimulator("", GdkSimulatorConfig(twoFactorMethods = listOf("email")))
+        val events = mutableListOf<String>()
+        gdk.setNotificationHandler { _, json -> events += (json as JsonObject)["event"]!!.jsonPrimitive.content }
+
+        val session = gdk.login("testnet")
+        val balance = { gdk.resolve(gdk.getBalance(session, BalanceParams(subaccount = 0, confirmations = 0)))!!["btc"]!!.jsonPrimitive.long }
+        val initialBalance = balance()
+
+        val utxos = gdk.resolve(gdk.getUnspentOutputs(session, BalanceParams(subaccount = 0, confirmations = 0)))!!["unspent_outputs"]!!.jsonObject
+        val params = CreateTransactionParams(
+            subaccount = 0,
+            feeRate = 1000,
+            utxos = utxos.mapValues { it.value.jsonArray },
+            addressees = listOf(buildJsonObject {
+                put("address", "2N1simulated")
+                put("satoshi", 10_000)
+            })
+        )
+
+        val transaction = gdk.resolve(gdk.createTransaction(session, params))!!
+        assertEquals("", transaction["error"]!!.jsonPrimitive.content)
+
+        // A wrong code is retried
+        gdk.resolve(gdk.sendTransaction(session, transaction), mutableListOf("000000", "123456"))
+
+        assertEquals(initialBalance - transaction["satoshi"]!!.jsonObject["btc"]!!.jsonPrimitive.long, balance())
+        assertEquals(listOf("network", "block", "transaction"), events)
+
+        // The change output is confirmed by the next block
+        val unspentOutputs = { confirmations: Int ->
+            gdk.resolve(gdk.getUnspentOutputs(session, BalanceParams(subaccount = 0, confirmations = confirmations)))!!["unspent_outputs"]!!.jsonObject.values.sumOf { it.jsonArray.size }
+        }
+        assertTrue(unspentOutputs(1) < unspentOutputs(0))
+
+        gdk.mineBlock("testnet")
+        assertEquals(unspentOutputs(0), unspentOutputs(1))
+        assertEquals("block", events.last())
+    }
+
+    @Test
+    fun `test unsupported calls end in the error state`() {
+        val gdk = GdkSimulator("")
+        val session = gdk.login("testnet")
+
+        val error = assertFailsWith<Exception> {
+            gdk.resolve(gdk.psbtFromJson(session, buildJsonObject { }))
+        }
+        assertEquals("PSBTs are not simulated", error.message)
+
+        assertEquals("HTTP requests are not simulated", gdk.httpRequest(session, buildJsonObject { }).jsonObject["error"]!!.jsonPrimitive.content)
+    }
+}
@@ -0,0 +1,100 @@
+package com.blockstream.common.gdk
+
+import com.blockstream.common.crypto.NoKeystore
+import com.blockstream.common.data.GreenWallet
+import com.blockstream.common.database.TestKeystore
+import com.blockstream.common.database.testDatabase
+import com.blockstream.common.gdk.data.WalletSnapshot
+import kotlinx.coroutines.test.runTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class WalletSnapshotStoreTests {
+
+    private val xPubHashId = "xpub_hash_id"
+
+    private val database = testDatabase()
+    private val keystore = TestKeystore()
+    private val store = WalletSnapshotStore(database, keystore)
+
+    private val snapshot = WalletSnapshot(
+        accounts = listOf(),
+        walletAssets = mapOf("btc" to 123_456L, "asset_id" to 7L)
+    )
+
+    private suspend fun insertWallet() = GreenWallet.createWallet(name = "Wallet", xPubHashId = xPubHashId).also {
+        database.insertWallet(it)
+    }
+
+    @Test
+    fun `test snapshot round trip`() = runTest {
+        insertWallet()
+
+        assertNull(store.get(xPubHashId))
+        store.put(xPubHashId, snapshot)
+        assertEquals(snapshot, store.get(xPubHashId))
+
+        val updated = snapshot.copy(walletAssets = mapOf("btc" to 1L))
+        store.put(xPubHashId, updated)
+        assertEquals(updated, store.get(xPubHashId))
+    }
+
+    @Test
+    fun `test snapshots are only kept for stored wallets`() = runTest {
+        store.put(xPubHashId, snapshot)
+        assertNull(database.getWalletSnapshot(xPubHashId))
+
+        val wallet = insertWallet()
+        store.put(xPubHashId, snapshot)
+        assertNotNull(database.getWalletSnapshot(xPubHashId))
+
+        database.deleteWallet(wallet.id)
+        assertNull(database.getWalletSnapshot(xPubHashId))
+    }
+
+    @Test
+    fun `test undecryptable snapshot is discarded`() = runTest {
+        insertWallet()
+        store.put(xPubHashId, snapshot)
+
+        keystore.isInvalidated = true
+        assertNull(store.get(xPubHashId))
+        assertNull(database.getWalletSnapshot(xPubHashId))
+
+        keystore.isInvalidated = false
+        assertNull(store.get(xPubHashId))
+    }
+
+    @Test
+    fun `test snapshot with an unknown format is discarded`() = runTest {
+        insertWallet()
+        database.replaceWalletSnapshot(
+            xPubHashId = xPubHashId,
+            snapshot = keystore.encryptData("{\"version\": 0}".encodeToByteArray()),
+            updatedAt = 0
+        )
+
+        assertNull(store.get(xPubHashId))
+        assertNull(database.getWalletSnapshot(xPubHashId))
+    }
+
+    @Test
+    fun `test snapshots are not persisted without a platform keystore`() = runTest {
+        insertWallet()
+        val store = WalletSnapshotStore(database, NoKeystore())
+
+        store.put(xPubHashId, snapshot)
+        assertNull(database.getWalletSnapshot(xPubHashId))
+
+        // Plaintext snapshots stored before are dropped
+        database.replaceWalletSnapshot(
+            xPubHashId = xPubHashId,
+            snapshot = NoKeystore().encryptData(snapshot.toJson().encodeToByteArray()),
+            updatedAt = 0
+        )
+        assertNull(store.get(xPubHashId))
+        assertNull(database.getWalletSnapshot(xPubHashId))
+    }
+}
@@ -0,0 +1,43 @@
+package com.blockstream.common.gdk.device
+
+import com.blockstream.common.database.TestKeystore
+import com.blockstream.common.database.testDatabase
+import com.blockstream.common.gdk.data.Network
+import kotlinx.coroutines.test.runTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+class HwBlindingKeyCacheTests {
+
+    private val network = Network(network = "liquid", name = "Liquid", isMainnet = true, isLiquid = true, isDevelopment = false)
+
+    private val cache = HwBlindingKeyCache(testDatabase(), TestKeystore())
+
+    private fun blindingKeys(scripts: List<String>) = scripts.map { "xpub-master/blinding/$it" }
+
+    @Test
+    fun `test missing scripts are requested in one batch`() = runTest {
+        val device = TestHardwareWallet()
+
+        assertEquals(blindingKeys(listOf("a", "b")), cache.getBlindingKeys(device, network, listOf("a", "b"), null))
+        assertEquals(
+            blindingKeys(listOf("b", "c", "a", "d", "c")),
+            cache.getBlindingKeys(device, network, listOf("b", "c", "a", "d", "c"), null)
+        )
+        assertEquals(listOf(listOf("a", "b"), listOf("c", "d")), device.blindingKeyRequests)
+    }
+
+    @Test
+    fun `test missing keys from the device fail the lookup`() = runTest {
+        val device = TestHardwareWallet().also { it.dropResults = true }
+
+        assertFailsWith<Exception> {
+            cache.getBlindingKeys(device, network, listOf("a", "b"), null)
+        }
+
+        device.dropResults = false
+        assertEquals(blindingKeys(listOf("a", "b")), cache.getBlindingKeys(device, network, listOf("a", "b"), null))
+        assertEquals(listOf(listOf("a", "b"), listOf("a", "b")), device.blindingKeyRequests)
+    }
+}
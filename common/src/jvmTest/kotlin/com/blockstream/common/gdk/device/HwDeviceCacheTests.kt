@@ -0,0 +1,117 @@
+package com.blockstream.common.gdk.device
+
+import com.blockstream.common.data.GreenWallet
+import com.blockstream.common.database.TestKeystore
+import com.blockstream.common.database.testDatabase
+import com.blockstream.common.gdk.data.Network
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.test.runTest
+import java.util.Collections
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+
+class HwDeviceCacheTests {
+
+    private val bitcoin = Network(network = "mainnet", name = "Bitcoin", isMainnet = true, isLiquid = false, isDevelopment = false)
+    private val testnet = Network(network = "testnet", name = "Testnet", isMainnet = false, isLiquid = false, isDevelopment = false)
+
+    private val database = testDatabase()
+    private val keystore = TestKeystore()
+    private val cache = HwDeviceCache(database, keystore, "test")
+
+    private val requests: MutableList<List<String>> = Collections.synchronizedList(mutableListOf())
+
+    private fun values(masterXpub: String, network: Network, keys: List<String>) = keys.map { "$masterXpub/${network.id}/$it" }
+
+    private suspend fun get(device: TestHardwareWallet, network: Network, keys: List<String>, masterXpub: String = "xpub-master") =
+        cache.get(device, network, keys, null) { missing ->
+            requests += missing
+            values(masterXpub, network, missing)
+        }
+
+    @Test
+    fun `test only missing keys are requested from the device`() = runTest {
+        assertEquals(values("xpub-master", bitcoin, listOf("a", "b")), get(TestHardwareWallet(), bitcoin, listOf("a", "b")))
+        assertEquals(
+            values("xpub-master", bitcoin, listOf("b", "c", "a", "c")),
+            get(TestHardwareWallet(), bitcoin, listOf("b", "c", "a", "c"))
+        )
+        assertEquals(listOf(listOf("a", "b"), listOf("c")), requests)
+    }
+
+    @Test
+    fun `test entries are cached per device and network`() = runTest {
+        get(TestHardwareWallet("xpub-master"), bitcoin, listOf("a"))
+
+        assertEquals(
+            values("xpub-other", bitcoin, listOf("a")),
+            get(TestHardwareWallet("xpub-other"), bitcoin, listOf("a"), masterXpub = "xpub-other")
+        )
+        assertEquals(values("xpub-master", testnet, listOf("a")), get(TestHardwareWallet("xpub-master"), testnet, listOf("a")))
+        assertEquals(3, requests.size)
+    }
+
+    @Test
+    fun `test entries are stored encrypted`() = runTest {
+        get(TestHardwareWallet(), bitcoin, listOf("a"))
+
+        val stored = database.getHwCache(HwDeviceCache.fingerprint("xpub-master"), bitcoin.id, "test")
+        assertNotNull(stored)
+        assertFalse(stored.getEncryptedData().decodeToString().contains("xpub-master"))
+    }
+
+    @Test
+    fun `test concurrent lookups do not lose entries`() = runTest {
+        val keys = (0 until 8).map { "key_$it" }
+
+        keys.map { key ->
+            async { get(TestHardwareWallet(), bitcoin, listOf(key)) }
+        }.awaitAll()
+
+        requests.clear()
+        assertEquals(values("xpub-master", bitcoin, keys), get(TestHardwareWallet(), bitcoin, keys))
+        assertEquals(listOf(), requests)
+    }
+
+    @Test
+    fun `test missing values from the device are not cached`() = runTest {
+        assertFailsWith<Exception> {
+            cache.get(TestHardwareWallet(), bitcoin, listOf("a", "b"), null) { missing ->
+                values("xpub-master", bitcoin, missing).drop(1)
+            }
+        }
+        assertNull(database.getHwCache(HwDeviceCache.fingerprint("xpub-master"), bitcoin.id, "test"))
+    }
+
+    @Test
+    fun `test undecryptable entries are discarded and requested again`() = runTest {
+        get(TestHardwareWallet(), bitcoin, listOf("a"))
+
+        keystore.isInvalidated = true
+        assertEquals(values("xpub-master", bitcoin, listOf("a")), get(TestHardwareWallet(), bitcoin, listOf("a")))
+        assertEquals(listOf(listOf("a"), listOf("a")), requests)
+
+        keystore.isInvalidated = false
+        get(TestHardwareWallet(), bitcoin, listOf("a"))
+        assertEquals(2, requests.size)
+    }
+
+    @Test
+    fun `test deleting a hardware wallet clears the device caches`() = runTest {
+        val software = GreenWallet.createWallet(name = "Software").also { database.insertWallet(it) }
+        val hardware = GreenWallet.createWallet(name = "Hardware", isHardware = true).also { database.insertWallet(it) }
+
+        get(TestHardwareWallet(), bitcoin, listOf("a"))
+
+        database.deleteWallet(software.id)
+        assertNotNull(database.getHwCache(HwDeviceCache.fingerprint("xpub-master"), bitcoin.id, "test"))
+
+        database.deleteWallet(hardware.id)
+        assertNull(database.getHwCache(HwDeviceCache.fingerprint("xpub-master"), bitcoin.id, "test"))
+    }
+}
@@ -0,0 +1,29 @@
+package com.blockstream.common.gdk.device
+
+import com.blockstream.common.database.TestKeystore
+import com.blockstream.common.database.testDatabase
+import com.blockstream.common.gdk.data.Network
+import kotlinx.coroutines.test.runTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class HwXpubCacheTests {
+
+    private val bitcoin = Network(network = "mainnet", name = "Bitcoin", isMainnet = true, isLiquid = false, isDevelopment = false)
+
+    private val cache = HwXpubCache(testDatabase(), TestKeystore())
+
+    private val account0 = listOf(0x80000000.toInt() + 49, 0x80000000.toInt(), 0x80000000.toInt())
+    private val account1 = listOf(0x80000000.toInt() + 49, 0x80000000.toInt(), 0x80000001.toInt())
+
+    private fun xpubs(paths: List<List<Int>>) = paths.map { "xpub-master/${bitcoin.id}/${it.joinToString("/")}" }
+
+    @Test
+    fun `test missing paths are requested from the device`() = runTest {
+        val device = TestHardwareWallet()
+
+        assertEquals(xpubs(listOf(account0)), cache.getXpubs(device, bitcoin, listOf(account0), null))
+        assertEquals(xpubs(listOf(account1, account0)), cache.getXpubs(device, bitcoin, listOf(account1, account0), null))
+        assertEquals(listOf(listOf(account0), listOf(account1)), device.xpubRequests)
+    }
+}
@@ -0,0 +1,82 @@
+package com.blockstream.common.gdk.device
+
+import com.blockstream.common.gdk.data.Account
+import com.blockstream.common.gdk.data.Device
+import com.blockstream.common.gdk.data.InputOutput
+import com.blockstream.common.gdk.data.Network
+import kotlinx.coroutines.flow.StateFlow
+import java.util.Collections
+
+// Derives fake xpubs and blinding keys from the master xpub and records what the device was asked for
+class TestHardwareWallet(private val masterXpub: String = "xpub-master") : GdkHardwareWallet() {
+    val xpubRequests: MutableList<List<List<Int>>> = Collections.synchronizedList(mutableListOf())
+    val blindingKeyRequests: MutableList<List<String>> = Collections.synchronizedList(mutableListOf())
+
+    // Simulates a device returning fewer results than requested
+    var dropResults = false
+
+    override val disconnectEvent: StateFlow<Boolean>? = null
+
+    override val firmwareVersion: String? = null
+
+    override val model: String = "Test"
+
+    override val device: Device
+        get() = throw NotImplementedError()
+
+    override fun getXpubs(network: Network, paths: List<List<Int>>, hwInteraction: HardwareWalletInteraction?): List<String> {
+        // The master xpub identifies the device, it is not part of the cached requests
+        if (paths != listOf(listOf<Int>())) xpubRequests += paths
+        return paths.map { path ->
+            if (path.isEmpty()) masterXpub else "$masterXpub/${network.id}/${path.joinToString("/")}"
+        }.let { if (dropResults && paths.size > 1) it.drop(1) else it }
+    }
+
+    override fun getBlindingKey(scriptHex: String, hwInteraction: HardwareWalletInteraction?): String =
+        "$masterXpub/blinding/$scriptHex"
+
+    override fun getBlindingKeys(scripts: List<String>, hwInteraction: HardwareWalletInteraction?): List<String> {
+        blindingKeyRequests += scripts
+        return super.getBlindingKeys(scripts, hwInteraction).let { if (dropResults) it.drop(1) else it }
+    }
+
+    override fun signMessage(
+        path: List<Int>,
+        message: String,
+        useAeProtocol: Boolean,
+        aeHostCommitment: String?,
+        aeHostEntropy: String?,
+        hwInteraction: HardwareWalletInteraction?
+    ): SignMessageResult = throw NotImplementedError()
+
+    override fun signTransaction(
+        network: Network,
+        transaction: String,
+        inputs: List<InputOutput>,
+        outputs: List<InputOutput>,
+        transactions: Map<String, String>?,
+        useAeProtocol: Boolean,
+        hwInteraction: HardwareWalletInteraction?
+    ): SignTransactionResult = throw NotImplementedError()
+
+    override fun getBlindingFactors(
+        inputs: List<InputOutput>,
+        outputs: List<InputOutput>,
+        hwInteraction: HardwareWalletInteraction?
+    ): BlindingFactorsResult = throw NotImplementedError()
+
+    override fun getMasterBlindingKey(hwInteraction: HardwareWalletInteraction?): String = throw NotImplementedError()
+
+    override fun getBlindingNonce(pubKey: String, scriptHex: String, hwInteraction: HardwareWalletInteraction?): String =
+        throw NotImplementedError()
+
+    override fun getGreenAddress(
+        network: Network,
+        account: Account,
+        path: List<Long>,
+        csvBlocks: Long,
+        hwInteraction: HardwareWalletInteraction?
+    ): String = throw NotImplementedError()
+
+    override fun disconnect() {}
+}
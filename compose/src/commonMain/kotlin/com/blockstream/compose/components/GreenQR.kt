@@ -18,6 +18,7 @@ import androidx.compose.material3.Card
 import androidx.compose.material3.CardDefaults
 import androidx.compose.runtime.Composable
 import androidx.compose.runtime.getValue
+import androidx.compose.runtime.key
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
 import androidx.compose.runtime.setValue
@@ -25,6 +26,7 @@ import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.graphics.ColorFilter
+import androidx.compose.ui.graphics.painter.Painter
 import androidx.compose.ui.unit.dp
 import androidx.compose.ui.window.Dialog
 import androidx.compose.ui.window.DialogProperties
@@ -41,6 +43,18 @@ import io.github.alexzhirkevich.qrose.rememberQrCodePainter
 import org.jetbrains.compose.resources.painterResource
 import org.jetbrains.compose.resources.stringResource
 
+@Composable
+fun rememberGreenQrPainter(data: String, isJadeQR: Boolean): Painter =
+    rememberQrCodePainter(data = data, errorCorrectionLevel = if (isJadeQR) QrErrorCorrectionLevel.Low else QrErrorCorrectionLevel.Auto)
+
+// Painters of all the frames of an animated QR, each frame is encoded once and reused on every loop
+@Composable
+fun rememberGreenQrPainters(parts: List<String>, isJadeQR: Boolean = true): List<Painter> = parts.map { part ->
+    key(part) {
+        rememberGreenQrPainter(data = part, isJadeQR = isJadeQR)
+    }
+}
+
 @OptIn(ExperimentalFoundationApi::class)
 @Composable
 fun GreenQR(
@@ -48,13 +62,14 @@ fun GreenQR(
     data: String?,
     isVisible: Boolean = true,
     isJadeQR: Boolean = false,
+    painter: Painter? = null,
     onQrClick: (() -> Unit)? = null,
     visibilityClick: () -> Unit = {}
 ) {
     var isFullscreen by remember { mutableStateOf(false) }
     val isVisibleAndNotBlank = isVisible && data.isNotBlank()
     val qrPadding = if(isJadeQR) 28.dp else 18.dp
-    val qrCodePainter = rememberQrCodePainter(data = data ?: "", errorCorrectionLevel = if(isJadeQR) QrErrorCorrectionLevel.Low else QrErrorCorrectionLevel.Auto)
+    val qrCodePainter = painter ?: rememberGreenQrPainter(data = data ?: "", isJadeQR = isJadeQR)
 
     Column(
         modifier = Modifier
@@ -1,6 +1,9 @@
 package com.blockstream.compose.extensions
 
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.getValue
+import androidx.compose.runtime.produceState
+import androidx.compose.runtime.remember
 import androidx.compose.ui.graphics.Color
 import androidx.compose.ui.graphics.painter.Painter
 import blockstream_green.common.generated.resources.Res
@@ -216,7 +219,15 @@ fun String?.assetIcon(session: GdkSession? = null, isLightning: Boolean = false)
             painterResource(it)
         }
     } else {
-        session?.networkAssetManager?.getAssetIcon(this, session)?.toPainter() ?: painterResource(Res.drawable.unknown)
+        // Icons are cached, the same instance is returned so that the decoded bitmap can be reused.
+        // A memory miss is loaded in the background, showing the unknown icon meanwhile
+        val assetId = this
+        val icon by produceState(session?.networkAssetManager?.getCachedAssetIcon(assetId), assetId, session) {
+            if (value == null && session != null) {
+                value = session.networkAssetManager.loadAssetIcon(assetId, session)
+            }
+        }
+        remember(icon) { icon.toPainter() } ?: painterResource(Res.drawable.unknown)
     }
 }
 
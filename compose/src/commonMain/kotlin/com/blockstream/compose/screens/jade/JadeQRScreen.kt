@@ -7,11 +7,14 @@ import androidx.compose.foundation.layout.fillMaxWidth
 import androidx.compose.foundation.layout.padding
 import androidx.compose.foundation.layout.size
 import androidx.compose.material3.CircularProgressIndicator
+import androidx.compose.material3.ExperimentalMaterial3Api
 import androidx.compose.material3.MaterialTheme
 import androidx.compose.material3.Scaffold
+import androidx.compose.material3.SegmentedButton
+import androidx.compose.material3.SegmentedButtonDefaults
+import androidx.compose.material3.SingleChoiceSegmentedButtonRow
 import androidx.compose.material3.Text
 import androidx.compose.runtime.Composable
-import androidx.compose.runtime.collectAsState
 import androidx.compose.runtime.getValue
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
@@ -20,8 +23,14 @@ import androidx.compose.ui.text.style.TextAlign
 import androidx.compose.ui.unit.dp
 import androidx.lifecycle.compose.collectAsStateWithLifecycle
 import blockstream_green.common.generated.resources.Res
+import blockstream_green.common.generated.resources.id_1d_qr_2d_fps_3ss
 import blockstream_green.common.generated.resources.id_check_transaction_details
+import blockstream_green.common.generated.resources.id_fast
+import blockstream_green.common.generated.resources.id_high
+import blockstream_green.common.generated.resources.id_low
+import blockstream_green.common.generated.resources.id_medium
 import blockstream_green.common.generated.resources.id_next
+import blockstream_green.common.generated.resources.id_slow
 import blockstream_green.common.generated.resources.id_step_1s
 import blockstream_green.common.generated.resources.id_troubleshoot
 import blockstream_green.common.generated.resources.qr_code
@@ -32,6 +41,8 @@ import cafe.adriel.voyager.koin.koinScreenModel
 import com.arkivanov.essenty.parcelable.IgnoredOnParcel
 import com.blockstream.common.Parcelable
 import com.blockstream.common.Parcelize
+import com.blockstream.common.bcur.QrDensity
+import com.blockstream.common.bcur.QrFrameRate
 import com.blockstream.common.data.GreenWallet
 import com.blockstream.common.devices.DeviceBrand
 import com.blockstream.common.events.Events
@@ -47,6 +58,7 @@ import com.blockstream.compose.components.GreenButtonType
 import com.blockstream.compose.components.GreenColumn
 import com.blockstream.compose.components.GreenQR
 import com.blockstream.compose.components.GreenScanner
+import com.blockstream.compose.components.rememberGreenQrPainters
 import com.blockstream.compose.navigation.getNavigationResult
 import com.blockstream.compose.navigation.getNavigationResultForKey
 import com.blockstream.compose.navigation.resultKey
@@ -57,6 +69,7 @@ import com.blockstream.compose.theme.GreenTheme
 import com.blockstream.compose.theme.green
 import com.blockstream.compose.theme.headlineSmall
 import com.blockstream.compose.theme.labelLarge
+import com.blockstream.compose.theme.labelMedium
 import com.blockstream.compose.theme.textHigh
 import com.blockstream.compose.theme.textMedium
 import com.blockstream.compose.utils.AppBar
@@ -185,7 +198,9 @@ fun JadeQRScreen(
                 }
 
 
-                val qrCode by viewModel.urPart.collectAsState()
+                val urParts by viewModel.urParts.collectAsStateWithLifecycle()
+                val urPartIndex by viewModel.urPartIndex.collectAsStateWithLifecycle()
+                val qrCodePainters = rememberGreenQrPainters(urParts)
                 val onProgress by viewModel.onProgress.collectAsStateWithLifecycle()
                 Box(
                     modifier = Modifier
@@ -212,7 +227,8 @@ fun JadeQRScreen(
                             )
                         } else {
                             GreenQR(
-                                data = qrCode,
+                                data = urParts.getOrNull(urPartIndex),
+                                painter = qrCodePainters.getOrNull(urPartIndex),
                                 isJadeQR = true,
                                 modifier = Modifier
                                     .align(Alignment.Center)
@@ -224,6 +240,10 @@ fun JadeQRScreen(
 
                 GreenColumn(padding = 0, space = 8) {
 
+                    if (!step.isScan && urParts.size > 1) {
+                        AnimatedQrSettings(viewModel = viewModel, parts = urParts.size)
+                    }
+
                     if (!step.isScan) {
 
                         if((viewModel.operation as? JadeQrOperation.Psbt)?.transactionConfirmLook != null) {
@@ -264,4 +284,67 @@ fun JadeQRScreen(
             }
         }
     }
-}
\ No newline at end of file
+}
+
+@OptIn(ExperimentalMaterial3Api::class)
+@Composable
+private fun AnimatedQrSettings(viewModel: JadeQRViewModelAbstract, parts: Int) {
+    val qrDensity by viewModel.qrDensity.collectAsStateWithLifecycle()
+    val qrFrameRate by viewModel.qrFrameRate.collectAsStateWithLifecycle()
+    val qrLoopDurationMillis by viewModel.qrLoopDurationMillis.collectAsStateWithLifecycle()
+
+    GreenColumn(padding = 0, space = 6, horizontalAlignment = Alignment.CenterHorizontally) {
+        SingleChoiceSegmentedButtonRow(modifier = Modifier.fillMaxWidth()) {
+            QrDensity.entries.forEachIndexed { index, density ->
+                SegmentedButton(
+                    shape = SegmentedButtonDefaults.itemShape(index = index, count = QrDensity.entries.size),
+                    onClick = { viewModel.qrDensity.value = density },
+                    selected = qrDensity == density
+                ) {
+                    Text(
+                        stringResource(
+                            when (density) {
+                                QrDensity.Low -> Res.string.id_low
+                                QrDensity.Medium -> Res.string.id_medium
+                                QrDensity.High -> Res.string.id_high
+                            }
+                        )
+                    )
+                }
+            }
+        }
+
+        SingleChoiceSegmentedButtonRow(modifier = Modifier.fillMaxWidth()) {
+            QrFrameRate.entries.forEachIndexed { index, frameRate ->
+                SegmentedButton(
+                    shape = SegmentedButtonDefaults.itemShape(index = index, count = QrFrameRate.entries.size),
+                    onClick = { viewModel.qrFrameRate.value = frameRate },
+                    selected = qrFrameRate == frameRate
+                ) {
+                    Text(
+                        stringResource(
+                            when (frameRate) {
+                                QrFrameRate.Slow -> Res.string.id_slow
+                                QrFrameRate.Medium -> Res.string.id_medium
+                                QrFrameRate.Fast -> Res.string.id_fast
+                            }
+                        )
+                    )
+                }
+            }
+        }
+
+        // Live feedback of the loop duration for the selected settings
+        Text(
+            text = stringResource(
+                Res.string.id_1d_qr_2d_fps_3ss,
+                parts,
+                qrFrameRate.fps,
+                ((qrLoopDurationMillis / 100) / 10.0).toString()
+            ),
+            style = labelMedium,
+            color = textMedium
+        )
+    }
+}
+
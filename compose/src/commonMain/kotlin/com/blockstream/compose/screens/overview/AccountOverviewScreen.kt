@@ -355,7 +355,7 @@ fun AccountOverviewScreen(
             }
 
             transactions.data()?.let {
-                items(items = it, key = { it.transaction.txHash.hashCode() + it.transaction.txType.gdkType.hashCode() }) {
+                items(items = it, key = { it.key }) {
                     GreenTransaction(transactionLook = it) {
                         viewModel.postEvent(Events.Transaction(transaction = it.transaction))
                     }
@@ -440,7 +440,7 @@ fun WalletOverviewScreen(
 
                 transactions.data()?.also {
                     items(items = it, key = {
-                        it.transaction.txHash.hashCode() + it.transaction.txType.gdkType.hashCode()
+                        it.key
                     }) { item ->
                         GreenTransaction(transactionLook = item) {
                             viewModel.postEvent(Events.Transaction(transaction = it.transaction))
@@ -22,6 +22,7 @@ package com.btchip;
 import com.blockstream.common.gdk.data.InputOutput;
 import com.blockstream.libwally.Wally;
 import com.btchip.comm.BTChipTransport;
+import com.btchip.comm.BTChipTransportAsync;
 import com.btchip.utils.BufferUtils;
 import com.btchip.utils.CoinFormatUtils;
 import com.btchip.utils.Dump;
@@ -34,6 +35,9 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class BTChipDongle implements BTChipConstants {
 
@@ -352,15 +356,23 @@ public class BTChipDongle implements BTChipConstants {
 	}
 
 	private BTChipTransport transport;
+	private BTChipTransportAsync io;
 	private int lastSW;
 	private boolean supportScreen;
 
+	// Exchange sent ahead, its response is checked before anything else is sent
+	private Future<byte[]> pendingExchange;
+	private int pendingAcceptedSW[];
+
+	// Long enough for the user to confirm on the device
+	private static final long TIMEOUT_MS = 5 * 60 * 1000;
+
 	private static final int OK[] = { SW_OK };
 	private static final int OK_OR_NOT_SUPPORTED[] = { SW_OK, SW_INS_NOT_SUPPORTED };
 	private static final byte DUMMY[] = { 0 };
 
 	public BTChipDongle(BTChipTransport transport, boolean supportScreen) {
-		this.transport = transport;
+		setTransport(transport);
 		this.supportScreen = supportScreen;
 	}
 
@@ -374,12 +386,45 @@ public class BTChipDongle implements BTChipConstants {
 
 	public void setTransport(BTChipTransport transport) {
 		this.transport = transport;
+		this.io = new BTChipTransportAsync(transport);
+		pendingExchange = null;
+		pendingAcceptedSW = null;
+	}
+
+	/**
+	 * Cancel the exchanges in progress, eg. when the device is disconnected. The transport is
+	 * closed, a new one has to be set before the dongle can be used again.
+	 */
+	public void cancel() {
+		io.cancel();
+	}
+
+	/**
+	 * Cancel the exchanges in progress and close the transport
+	 */
+	public void close() throws BTChipException {
+		io.close();
 	}
 
 	private byte[] exchange(byte[] apdu) throws BTChipException {
+		awaitPending();
+		return receive(io.exchange(apdu));
+	}
+
+	private byte[] receive(Future<byte[]> future) throws BTChipException {
 		byte[] response;
 		try {
-			response = transport.exchange(apdu).get();
+			response = future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		}
+		catch(TimeoutException e) {
+			// The response may still come, it can't be told apart from the next one
+			io.cancel();
+			throw new BTChipException("Timeout", e);
+		}
+		catch(InterruptedException e) {
+			io.cancel();
+			Thread.currentThread().interrupt();
+			throw new BTChipException("Interrupted", e);
 		}
 		catch(Exception e) {
 			throw new BTChipException("I/O error", e);
@@ -394,20 +439,47 @@ public class BTChipDongle implements BTChipConstants {
 		return result;
 	}
 
-	private byte[] exchangeCheck(byte[] apdu, int acceptedSW[]) throws BTChipException {
-		byte[] response = exchange(apdu);
+	private void checkStatus(int acceptedSW[]) throws BTChipException {
 		if (acceptedSW == null) {
-			return response;
+			return;
 		}
 		for (int SW : acceptedSW) {
 			if (lastSW == SW) {
-				return response;
+				return;
 			}
 		}
 		throw new BTChipException("Invalid status", lastSW);
 	}
 
-	private byte[] exchangeApdu(byte cla, byte ins, byte p1, byte p2, byte[] data, int acceptedSW[]) throws BTChipException {
+	private byte[] exchangeCheck(byte[] apdu, int acceptedSW[]) throws BTChipException {
+		byte[] response = exchange(apdu);
+		checkStatus(acceptedSW);
+		return response;
+	}
+
+	/**
+	 * Send an APDU without waiting for its response, so that the next one can be prepared while
+	 * the device processes it. Its status is checked before the next APDU is sent.
+	 */
+	private void exchangeAhead(byte[] apdu, int acceptedSW[]) throws BTChipException {
+		awaitPending();
+		pendingExchange = io.exchange(apdu);
+		pendingAcceptedSW = acceptedSW;
+	}
+
+	private void awaitPending() throws BTChipException {
+		if (pendingExchange == null) {
+			return;
+		}
+		Future<byte[]> future = pendingExchange;
+		int acceptedSW[] = pendingAcceptedSW;
+		pendingExchange = null;
+		pendingAcceptedSW = null;
+		receive(future);
+		checkStatus(acceptedSW);
+	}
+
+	private byte[] buildApdu(byte cla, byte ins, byte p1, byte p2, byte[] data) {
 		byte[] apdu = new byte[data.length + 5];
 		apdu[0] = cla;
 		apdu[1] = ins;
@@ -415,7 +487,15 @@ public class BTChipDongle implements BTChipConstants {
 		apdu[3] = p2;
 		apdu[4] = (byte)(data.length);
 		System.arraycopy(data, 0, apdu, 5, data.length);
-		return exchangeCheck(apdu, acceptedSW);
+		return apdu;
+	}
+
+	private byte[] exchangeApdu(byte cla, byte ins, byte p1, byte p2, byte[] data, int acceptedSW[]) throws BTChipException {
+		return exchangeCheck(buildApdu(cla, ins, p1, p2, data), acceptedSW);
+	}
+
+	private void exchangeApduAhead(byte cla, byte ins, byte p1, byte p2, byte[] data, int acceptedSW[]) throws BTChipException {
+		exchangeAhead(buildApdu(cla, ins, p1, p2, data), acceptedSW);
 	}
 
 	private byte[] exchangeApdu(byte cla, byte ins, byte p1, byte p2, int length, int acceptedSW[]) throws BTChipException {
@@ -431,6 +511,10 @@ public class BTChipDongle implements BTChipConstants {
 	}
 
 	private byte[] exchangeApduSplit(byte cla, byte ins, byte p1, byte p2, byte[] data, int acceptedSW[]) throws BTChipException {
+		return exchangeApduSplit(cla, ins, p1, p2, data, acceptedSW, false);
+	}
+
+	private byte[] exchangeApduSplit(byte cla, byte ins, byte p1, byte p2, byte[] data, int acceptedSW[], boolean ahead) throws BTChipException {
 		int offset = 0;
 		byte[] result = null;
 		while (offset < data.length) {
@@ -442,15 +526,28 @@ public class BTChipDongle implements BTChipConstants {
 			apdu[3] = p2;
 			apdu[4] = (byte)(blockLength);
 			System.arraycopy(data, offset, apdu, 5, blockLength);
-			result = exchangeCheck(apdu, acceptedSW);
+			if (ahead) {
+				exchangeAhead(apdu, acceptedSW);
+			}
+			else {
+				result = exchangeCheck(apdu, acceptedSW);
+			}
 			offset += blockLength;
 		}
 		return result;
 	}
 
 	private byte[] exchangeApduSplit2(byte cla, byte ins, byte p1, byte p2, byte[] data, byte[] data2, int acceptedSW[]) throws BTChipException {
+		return exchangeApduSplit2(cla, ins, p1, p2, data, data2, acceptedSW, false);
+	}
+
+	private byte[] exchangeApduSplit2(byte cla, byte ins, byte p1, byte p2, byte[] data, byte[] data2, int acceptedSW[], boolean ahead) throws BTChipException {
 		// If data is empty, just send data2 immediately
 		if (data.length == 0) {
+			if (ahead) {
+				exchangeApduAhead(cla, ins, p1, p2, data2, acceptedSW);
+				return null;
+			}
 			return exchangeApdu(cla, ins, p1, p2, data2, acceptedSW);
 		}
 
@@ -471,7 +568,12 @@ public class BTChipDongle implements BTChipConstants {
 			if (lastBlock) {
 				System.arraycopy(data2, 0, apdu, 5 + blockLength, data2.length);
 			}
-			result = exchangeCheck(apdu, acceptedSW);
+			if (ahead) {
+				exchangeAhead(apdu, acceptedSW);
+			}
+			else {
+				result = exchangeCheck(apdu, acceptedSW);
+			}
 			offset += blockLength;
 		}
 		return result;
@@ -548,30 +650,30 @@ public class BTChipDongle implements BTChipConstants {
 		BufferUtils.writeUint32BE(data, index);
 		BufferUtils.writeBuffer(data, transaction.getVersion());
 		VarintUtils.write(data, transaction.getInputs().size());
-		exchangeApdu(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x00, (byte)0x00, data.toByteArray(), OK);
-		// Each input
+		exchangeApduAhead(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x00, (byte)0x00, data.toByteArray(), OK);
+		// Each input, sent ahead of the previous response
 		for (BitcoinTransaction.BitcoinInput input : transaction.getInputs()) {
 			data = new ByteArrayOutputStream();
 			BufferUtils.writeBuffer(data, input.getPrevOut());
 			VarintUtils.write(data, input.getScript().length);
-			exchangeApdu(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
+			exchangeApduAhead(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
 			data = new ByteArrayOutputStream();
 			BufferUtils.writeBuffer(data, input.getScript());
-			exchangeApduSplit2(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), input.getSequence(), OK);
+			exchangeApduSplit2(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), input.getSequence(), OK, true);
 		}
 		// Number of outputs
 		data = new ByteArrayOutputStream();
 		VarintUtils.write(data, transaction.getOutputs().size());
-		exchangeApdu(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
+		exchangeApduAhead(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
 		// Each output
 		for (BitcoinTransaction.BitcoinOutput output : transaction.getOutputs()) {
 			data = new ByteArrayOutputStream();
 			BufferUtils.writeBuffer(data, output.getAmount());
 			VarintUtils.write(data, output.getScript().length);
-			exchangeApdu(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
+			exchangeApduAhead(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
 			data = new ByteArrayOutputStream();
 			BufferUtils.writeBuffer(data, output.getScript());
-			exchangeApduSplit(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
+			exchangeApduSplit(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, data.toByteArray(), OK, true);
 		}
 		// Locktime
 		byte[] response = exchangeApdu(BTCHIP_CLA, BTCHIP_INS_GET_TRUSTED_INPUT, (byte)0x80, (byte)0x00, transaction.getLockTime(), OK);
@@ -593,7 +695,7 @@ public class BTChipDongle implements BTChipConstants {
 		ByteArrayOutputStream data = new ByteArrayOutputStream();
 		BufferUtils.writeUint32LE(data, txVersion);
 		VarintUtils.write(data, usedInputList.length);
-		exchangeApdu(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x00, (newTransaction ? (segwit ? (byte)0x02 : (byte)0x00) : (byte)0x80), data.toByteArray(), OK);
+		exchangeApduAhead(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x00, (newTransaction ? (segwit ? (byte)0x02 : (byte)0x00) : (byte)0x80), data.toByteArray(), OK);
 		// Loop for each input
 		long currentIndex = 0;
 		for (BTChipInput input : usedInputList) {
@@ -606,13 +708,14 @@ public class BTChipDongle implements BTChipConstants {
 			}
 			BufferUtils.writeBuffer(data, input.getValue());
 			VarintUtils.write(data, script.length);
-			exchangeApdu(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
+			exchangeApduAhead(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
 			data = new ByteArrayOutputStream();
 			BufferUtils.writeBuffer(data, script);
 			BufferUtils.writeBuffer(data, input.getSequence());
-			exchangeApduSplit(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
+			exchangeApduSplit(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x80, (byte)0x00, data.toByteArray(), OK, true);
 			currentIndex++;
 		}
+		awaitPending();
 	}
 
 	public void startUntrustedLiquidTransaction(long txVersion, boolean newTransaction, long inputIndex, BTChipLiquidInput usedInputList[], byte[] redeemScript) throws BTChipException {
@@ -620,7 +723,7 @@ public class BTChipDongle implements BTChipConstants {
 		ByteArrayOutputStream data = new ByteArrayOutputStream();
 		BufferUtils.writeUint32LE(data, txVersion);
 		VarintUtils.write(data, usedInputList.length);
-		exchangeApdu(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x00, (newTransaction ? (byte)0x06 : (byte)0x80), data.toByteArray(), OK);
+		exchangeApduAhead(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x00, (newTransaction ? (byte)0x06 : (byte)0x80), data.toByteArray(), OK);
 		// Loop for each input
 		long currentIndex = 0;
 		for (BTChipLiquidInput input : usedInputList) {
@@ -629,13 +732,14 @@ public class BTChipDongle implements BTChipConstants {
 			data.write((byte)0x03); // Liquid inputW
 			BufferUtils.writeBuffer(data, input.getValue());
 			VarintUtils.write(data, script.length);
-			exchangeApdu(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
+			exchangeApduAhead(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
 			data = new ByteArrayOutputStream();
 			BufferUtils.writeBuffer(data, script);
 			BufferUtils.writeBuffer(data, input.getSequence());
-			exchangeApduSplit(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x80, (byte)0x00, data.toByteArray(), OK);
+			exchangeApduSplit(BTCHIP_CLA, BTCHIP_INS_HASH_INPUT_START, (byte)0x80, (byte)0x00, data.toByteArray(), OK, true);
 			currentIndex++;
 		}
+		awaitPending();
 	}
 
 	private byte[] foldListOfByteArray(List<byte[]> l) {
@@ -0,0 +1,121 @@
+package com.btchip.comm;
+
+import com.btchip.BTChipException;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the exchanges of a blocking transport on a dedicated I/O thread
+ *
+ * Exchanges are queued and sent to the device in submission order, the returned futures complete
+ * once the response is received so the caller is free to prepare the next command meanwhile.
+ * The queue is bounded, submitting while it is full fails instead of buffering without limit.
+ * The I/O thread is released after being idle for a while and recreated on demand.
+ *
+ * Once cancelled the wrapper is closed for good: a blocked read can't always be interrupted
+ * (eg. UsbDeviceConnection.requestWait) and the late response of an abandoned command would be
+ * taken for the reply to the next one, so the transport is closed and later exchanges fail.
+ */
+public class BTChipTransportAsync implements BTChipTransport {
+
+	private static final int DEFAULT_QUEUE_CAPACITY = 16;
+	private static final long IDLE_TIMEOUT_S = 30;
+
+	private final BTChipTransport transport;
+	private final ThreadPoolExecutor executor;
+	private final Set<Future<byte[]>> pending = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	public BTChipTransportAsync(BTChipTransport transport) {
+		this(transport, DEFAULT_QUEUE_CAPACITY);
+	}
+
+	public BTChipTransportAsync(BTChipTransport transport, int capacity) {
+		this.transport = transport;
+		executor = new ThreadPoolExecutor(1, 1, IDLE_TIMEOUT_S, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(capacity), runnable -> {
+			Thread thread = new Thread(runnable, "BTChipTransport-IO");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @return the blocking transport the exchanges run on
+	 */
+	public BTChipTransport getTransport() {
+		return transport;
+	}
+
+	@Override
+	public Future<byte[]> exchange(final byte[] command) throws BTChipException {
+		if (closed.get()) {
+			throw new BTChipException("Transport closed");
+		}
+		FutureTask<byte[]> task = new FutureTask<byte[]>(() -> transport.exchange(command).get()) {
+			@Override
+			protected void done() {
+				pending.remove(this);
+			}
+		};
+		pending.add(task);
+		try {
+			executor.execute(task);
+		}
+		catch(RejectedExecutionException e) {
+			pending.remove(task);
+			throw new BTChipException(executor.isShutdown() ? "Transport closed" : "Too many pending exchanges", e);
+		}
+		return task;
+	}
+
+	/**
+	 * Cancel the queued exchanges and the one in progress, if any, and close the transport
+	 */
+	public void cancel() {
+		try {
+			close();
+		}
+		catch(BTChipException e) {
+			// Closed anyway, nothing else can be sent on it
+		}
+	}
+
+	/**
+	 * @return true once cancelled or closed
+	 */
+	public boolean isClosed() {
+		return closed.get();
+	}
+
+	@Override
+	public void close() throws BTChipException {
+		if (closed.getAndSet(true)) {
+			return;
+		}
+		for (Future<byte[]> future : pending) {
+			future.cancel(true);
+		}
+		executor.shutdownNow();
+		// Unblocks a read in progress that the interrupt didn't
+		transport.close();
+	}
+
+	@Override
+	public void setDebug(boolean debugFlag) {
+		transport.setDebug(debugFlag);
+	}
+
+	@Override
+	public Boolean isUsb() {
+		return transport.isUsb();
+	}
+}
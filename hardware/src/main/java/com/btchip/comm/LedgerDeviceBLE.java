@@ -5,7 +5,6 @@ import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.List;
-import java.io.ByteArrayOutputStream;
 
 import android.annotation.SuppressLint;
 import android.bluetooth.BluetoothGatt;
@@ -62,6 +61,7 @@ public class LedgerDeviceBLE implements BTChipTransport {
   private GattCallback gattCallback;
   private LinkedBlockingQueue<GattCallback.GattEvent> blockingQueue;
   private byte transferBuffer[];
+  private final LedgerFrameDecoder decoder = new LedgerFrameDecoder();
   private boolean opened;
   private boolean disconnected;
 
@@ -236,7 +236,6 @@ public class LedgerDeviceBLE implements BTChipTransport {
   @Override
   public Future<byte[]> exchange(byte[] apdu) throws LedgerException {
     GattCallback.GattEvent event = null;
-    ByteArrayOutputStream response = new ByteArrayOutputStream();
     byte[] responseData = null;
     int offset = 0;
     int responseSize;
@@ -269,7 +268,7 @@ public class LedgerDeviceBLE implements BTChipTransport {
     if (!event.getEventType().equals(GattCallback.GattEventType.GATT_CHARACTERISTIC_CHANGED)) {
       event = null;
     }
-    int packageSize = mtu;
+    decoder.reset();
     while (responseData == null) {
       if (event == null) {
         event = waitEvent(GattCallback.GattEventType.GATT_CHARACTERISTIC_CHANGED, NOTIFY_CHARACTERISTIC_UUID);
@@ -279,10 +278,7 @@ public class LedgerDeviceBLE implements BTChipTransport {
         Log.d(LOG_STRING, "<= Fragment " + Dump.dump(data));
       }
 
-      response.write(data, 0, data.length);
-      responseData = LedgerWrapper.unwrapResponseAPDU(response.toByteArray(), packageSize);
-      if (responseData == null)
-        packageSize = data.length;
+      responseData = decoder.decode(data, data.length);
       event = null;
     }
     if (debug) {
@@ -0,0 +1,93 @@
+package com.btchip.comm;
+
+/**
+ * Reassemble a response APDU from packets received over the chosen bearer, one packet at a time.
+ *
+ * Each packet is checked (channel, tag, sequence index) and its payload copied once into a
+ * buffer sized from the length announced by the first packet, so nothing received so far is
+ * copied or parsed again when the next packet arrives.
+ */
+public class LedgerFrameDecoder {
+	private final int channel;
+	private final boolean hasChannel;
+
+	private byte[] response;
+	private int offset;
+	private int sequenceIdx;
+
+	/**
+	 * Decoder for a bearer including channel information (HID)
+	 * @param channel dummy channel to use
+	 */
+	public LedgerFrameDecoder(int channel) {
+		this(channel, true);
+	}
+
+	/**
+	 * Decoder for a bearer without channel information (BLE)
+	 */
+	public LedgerFrameDecoder() {
+		this(0, false);
+	}
+
+	private LedgerFrameDecoder(int channel, boolean hasChannel) {
+		this.channel = channel;
+		this.hasChannel = hasChannel;
+	}
+
+	/**
+	 * Drop any partially received response, to be called before each exchange
+	 */
+	public void reset() {
+		response = null;
+		offset = 0;
+		sequenceIdx = 0;
+	}
+
+	/**
+	 * Consume the next packet received over the chosen bearer
+	 * @param packet packet data
+	 * @param length number of valid bytes in packet, padding included
+	 * @return the response APDU once complete, null if more packets are expected
+	 */
+	public byte[] decode(byte[] packet, int length) throws LedgerException {
+		int index = 0;
+		int headerSize = (hasChannel ? 5 : 3) + (sequenceIdx == 0 ? 2 : 0);
+		if (length < headerSize) {
+			throw new LedgerException(LedgerException.ExceptionReason.IO_ERROR, "Invalid packet size");
+		}
+		if (hasChannel) {
+			if (packet[index++] != (byte) (channel >> 8)) {
+				throw new LedgerException(LedgerException.ExceptionReason.IO_ERROR, "Invalid channel");
+			}
+			if (packet[index++] != (byte) channel) {
+				throw new LedgerException(LedgerException.ExceptionReason.IO_ERROR, "Invalid channel");
+			}
+		}
+		if (packet[index++] != LedgerWrapper.TAG_APDU) {
+			throw new LedgerException(LedgerException.ExceptionReason.IO_ERROR, "Invalid tag");
+		}
+		if (packet[index++] != (byte) (sequenceIdx >> 8)) {
+			throw new LedgerException(LedgerException.ExceptionReason.IO_ERROR, "Invalid sequence");
+		}
+		if (packet[index++] != (byte) sequenceIdx) {
+			throw new LedgerException(LedgerException.ExceptionReason.IO_ERROR, "Invalid sequence");
+		}
+		if (sequenceIdx == 0) {
+			int responseLength = ((packet[index++] & 0xff) << 8);
+			responseLength |= (packet[index++] & 0xff);
+			response = new byte[responseLength];
+			offset = 0;
+		}
+		sequenceIdx++;
+		int blockSize = Math.min(response.length - offset, length - index);
+		System.arraycopy(packet, index, response, offset, blockSize);
+		offset += blockSize;
+		if (offset != response.length) {
+			return null;
+		}
+		byte[] result = response;
+		reset();
+		return result;
+	}
+}
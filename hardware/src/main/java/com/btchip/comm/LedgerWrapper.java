@@ -6,7 +6,7 @@ import java.io.ByteArrayOutputStream;
  * Package commands and responses to be sent over the chosen bearer
 */
 public class LedgerWrapper {
-	private static final int TAG_APDU = 0x05;
+	static final int TAG_APDU = 0x05;
 	
 	/**
 	 * Prepare an APDU to be sent over the chosen bearer
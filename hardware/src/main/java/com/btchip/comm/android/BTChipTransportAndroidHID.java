@@ -28,6 +28,7 @@ import android.util.Log;
 
 import com.btchip.BTChipException;
 import com.btchip.comm.BTChipTransport;
+import com.btchip.comm.LedgerFrameDecoder;
 import com.btchip.comm.LedgerWrapper;
 import com.btchip.utils.Dump;
 import com.btchip.utils.FutureUtils;
@@ -35,6 +36,8 @@ import com.btchip.utils.FutureUtils;
 import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class BTChipTransportAndroidHID implements BTChipTransport {
 
@@ -47,6 +50,14 @@ public class BTChipTransportAndroidHID implements BTChipTransport {
 	private boolean debug;
 	private boolean ledger;
 	private UsbDevice mUsb;
+	// One request per direction, kept for the lifetime of the connection
+	private volatile UsbRequest requestOut;
+	private volatile UsbRequest requestIn;
+	// Held for the duration of an exchange, close() never waits on it as requestWait can block forever
+	private final ReentrantLock exchangeLock = new ReentrantLock();
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private final ByteBuffer responseBuffer = ByteBuffer.allocate(HID_BUFFER_SIZE);
+	private final LedgerFrameDecoder decoder = new LedgerFrameDecoder(LEDGER_DEFAULT_CHANNEL);
 	
 	public BTChipTransportAndroidHID(UsbDevice device, UsbDeviceConnection connection, UsbInterface dongleInterface, UsbEndpoint in, UsbEndpoint out, int timeout, boolean ledger) {
 		this.connection = connection;
@@ -63,8 +74,70 @@ public class BTChipTransportAndroidHID implements BTChipTransport {
 		transferBuffer = new byte[HID_BUFFER_SIZE];
 	}
 
+	private UsbRequest initializeRequest(UsbEndpoint endpoint) throws BTChipException {
+		UsbRequest request = new UsbRequest();
+		if (!request.initialize(connection, endpoint)) {
+			request.close();
+			throw new BTChipException("I/O error");
+		}
+		return request;
+	}
+
+	private void waitRequest() throws BTChipException {
+		UsbRequest request = connection.requestWait();
+		if (closed.get()) {
+			throw new BTChipException("Transport closed");
+		}
+		if (request == null) {
+			throw new BTChipException("I/O error");
+		}
+	}
+
+	private void readPacket() throws BTChipException {
+		responseBuffer.clear();
+		if (!requestIn.queue(responseBuffer, HID_BUFFER_SIZE)) {
+			throw new BTChipException("I/O error");
+		}
+		waitRequest();
+		responseBuffer.rewind();
+	}
+
+	// Must be called with the exchange lock held
+	private void closeRequests() {
+		if (requestOut != null) {
+			requestOut.close();
+			requestOut = null;
+		}
+		if (requestIn != null) {
+			requestIn.close();
+			requestIn = null;
+		}
+	}
+
 	@Override
-	public synchronized Future<byte[]> exchange(byte[] command) throws BTChipException {
+	public Future<byte[]> exchange(byte[] command) throws BTChipException {
+		exchangeLock.lock();
+		try {
+			if (closed.get()) {
+				throw new BTChipException("Transport closed");
+			}
+			return exchangeLocked(command);
+		}
+		finally {
+			exchangeLock.unlock();
+			// close() couldn't take the lock while this exchange was running
+			if (closed.get() && exchangeLock.tryLock()) {
+				try {
+					closeRequests();
+				}
+				finally {
+					exchangeLock.unlock();
+				}
+			}
+		}
+	}
+
+	private Future<byte[]> exchangeLocked(byte[] command) throws BTChipException {
 		ByteArrayOutputStream response = new ByteArrayOutputStream();
 		byte[] responseData;
 		int offset = 0;
@@ -75,31 +148,23 @@ public class BTChipTransportAndroidHID implements BTChipTransport {
 		if (ledger) {
 			command = LedgerWrapper.wrapCommandAPDU(LEDGER_DEFAULT_CHANNEL, command, HID_BUFFER_SIZE);
 		}
-		UsbRequest request = new UsbRequest();
-		if (!request.initialize(connection, out)) {
-			throw new BTChipException("I/O error");
+		if (requestOut == null) {
+			requestOut = initializeRequest(out);
+		}
+		if (requestIn == null) {
+			requestIn = initializeRequest(in);
 		}
 		while(offset != command.length) {
 			int blockSize = (command.length - offset > HID_BUFFER_SIZE ? HID_BUFFER_SIZE : command.length - offset);
 			System.arraycopy(command, offset, transferBuffer, 0, blockSize);
-			if (!request.queue(ByteBuffer.wrap(transferBuffer), HID_BUFFER_SIZE)) {
+			if (!requestOut.queue(ByteBuffer.wrap(transferBuffer), HID_BUFFER_SIZE)) {
 				throw new BTChipException("I/O error");	
 			}
-			connection.requestWait();
+			waitRequest();
 			offset += blockSize;
 		}
-		request.close();
-		ByteBuffer responseBuffer = ByteBuffer.allocate(HID_BUFFER_SIZE);
-		request = new UsbRequest();
-		if (!request.initialize(connection, in)) {
-			throw new BTChipException("I/O error");
-		}
 		if (!ledger) {
-			if (!request.queue(responseBuffer, HID_BUFFER_SIZE)) {
-				throw new BTChipException("I/O error");
-			}
-			connection.requestWait();
-			responseBuffer.rewind();
+			readPacket();
 			int sw1 = responseBuffer.get() & 0xff;
 			int sw2 = responseBuffer.get() & 0xff;
 			if (sw1 != SW1_DATA_AVAILABLE) {
@@ -114,34 +179,21 @@ public class BTChipTransportAndroidHID implements BTChipTransport {
 				response.write(transferBuffer, 0, blockSize);
 				offset += blockSize;
 				while (offset != responseSize) {
-					responseBuffer.clear();
-					if (!request.queue(responseBuffer, HID_BUFFER_SIZE)) {
-						throw new BTChipException("I/O error");
-					}
-					connection.requestWait();
-					responseBuffer.rewind();
+					readPacket();
 					blockSize = (responseSize - offset > HID_BUFFER_SIZE ? HID_BUFFER_SIZE : responseSize - offset);
 					responseBuffer.get(transferBuffer, 0, blockSize);
 					response.write(transferBuffer, 0, blockSize);
 					offset += blockSize;				
 				}
-				responseBuffer.clear();
 			}
 			responseData = response.toByteArray();
 		}
-		else {			
-			while ((responseData = LedgerWrapper.unwrapResponseAPDU(LEDGER_DEFAULT_CHANNEL, response.toByteArray(), HID_BUFFER_SIZE)) == null) {
-				responseBuffer.clear();
-				if (!request.queue(responseBuffer, HID_BUFFER_SIZE)) {
-					throw new BTChipException("I/O error");
-				}
-				connection.requestWait();
-				responseBuffer.rewind();
-				responseBuffer.get(transferBuffer, 0, HID_BUFFER_SIZE);
-				response.write(transferBuffer, 0, HID_BUFFER_SIZE);				
-			}						
+		else {
+			decoder.reset();
+			do {
+				readPacket();
+			} while ((responseData = decoder.decode(responseBuffer.array(), HID_BUFFER_SIZE)) == null);
 		}		
-		request.close();
 		if (debug) {
 			Log.d(BTChipTransportAndroid.LOG_STRING, "<= " + Dump.dump(responseData));
 		}
@@ -150,8 +202,29 @@ public class BTChipTransportAndroidHID implements BTChipTransport {
 
 	@Override
 	public void close() {
+		if (closed.getAndSet(true)) {
+			return;
+		}
+		// Unblock an exchange in progress first, it fails once requestWait returns
+		UsbRequest request = requestOut;
+		if (request != null) {
+			request.cancel();
+		}
+		request = requestIn;
+		if (request != null) {
+			request.cancel();
+		}
 		connection.releaseInterface(dongleInterface);
 		connection.close();
+		// Otherwise the exchange in progress closes them once it returns
+		if (exchangeLock.tryLock()) {
+			try {
+				closeRequests();
+			}
+			finally {
+				exchangeLock.unlock();
+			}
+		}
 	}
 
 	
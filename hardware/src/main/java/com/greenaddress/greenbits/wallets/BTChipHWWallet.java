@@ -54,6 +54,9 @@ public class BTChipHWWallet extends GdkHardwareWallet {
     private final BTChipDongle mDongle;
     private final String mPin;
     private final Map<String, String> mUserXPubs = new HashMap<>();
+    // Trusted inputs by outpoint, the device accepts them for as long as it stays connected.
+    // Sequence and segwit flag are not part of the device response and are set per signing.
+    private final Map<String, byte[]> mTrustedInputs = new HashMap<>();
     private final StateFlow<Boolean> mDisconnectEvent;
 
     private final Network mNetwork;
@@ -112,8 +115,12 @@ public class BTChipHWWallet extends GdkHardwareWallet {
     }
 
     @Override
-    public synchronized void disconnect() {
-        // No-op
+    public void disconnect() {
+        // Not synchronized, it has to unblock a call waiting for the device
+        mDongle.cancel();
+        synchronized (this) {
+            mTrustedInputs.clear();
+        }
     }
 
     @NonNull
@@ -356,44 +363,74 @@ public class BTChipHWWallet extends GdkHardwareWallet {
                 throw new RuntimeException("Signing Error: " + e.getMessage());
             }
         }else {
-            try {
+            if (useAeProtocol) {
+                throw new RuntimeException("Hardware Wallet does not support the Anti-Exfil protocol");
+            }
 
-                if (useAeProtocol) {
-                    throw new RuntimeException("Hardware Wallet does not support the Anti-Exfil protocol");
-                }
+            while (true) {
+                final boolean usesCachedTrustedInputs = usesCachedTrustedInputs(inputs);
+                try {
+                    return signBitcoinTransaction(hwInteraction, txBytes, inputs, outputs, transactions);
+                } catch (final BTChipException e) {
+                    e.printStackTrace();
+                    // eg. the app was restarted and cached trusted inputs are no longer accepted
+                    mTrustedInputs.clear();
 
-                final Object wallyTx = Wally.tx_from_bytes(txBytes, Wally.WALLY_TX_FLAG_USE_WITNESS);
+                    // Rebuild the trusted inputs and sign once more, the cache is empty on the retry
+                    if (usesCachedTrustedInputs && e.getSW() != BTChipConstants.SW_USER_REJECT)
+                        continue;
 
-                boolean sw = false;
-                boolean p2sh = false;
-                for (final InputOutput in : inputs) {
-                    if (in.isSegwit()) {
-                        sw = true;
-                    } else {
-                        p2sh = true;
-                    }
+                    throw new RuntimeException("Signing Error: " + e.getMessage());
                 }
+            }
+        }
+    }
 
-                // Sanity check on the firmware version, in case devices have been swapped
-                if (sw && !mDongle.shouldUseNewSigningApi())
-                    throw new RuntimeException("Segwit not supported");
+    private SignTransactionResult signBitcoinTransaction(final HardwareWalletInteraction hwInteraction,
+                                                         final byte[] txBytes,
+                                                         final List<InputOutput> inputs,
+                                                         final List<InputOutput> outputs,
+                                                         final Map<String, String> transactions) throws BTChipException {
+        final Object wallyTx = Wally.tx_from_bytes(txBytes, Wally.WALLY_TX_FLAG_USE_WITNESS);
+
+        boolean sw = false;
+        boolean p2sh = false;
+        for (final InputOutput in : inputs) {
+            if (in.isSegwit()) {
+                sw = true;
+            } else {
+                p2sh = true;
+            }
+        }
 
-                final List<byte[]> swSigs = sw ? signSW(hwInteraction, wallyTx, inputs, outputs, transactions) : new ArrayList<>();
-                final List<byte[]> p2shSigs = p2sh ? signNonSW(hwInteraction, wallyTx, inputs, outputs,
-                        transactions) : new ArrayList<>();
+        // Sanity check on the firmware version, in case devices have been swapped
+        if (sw && !mDongle.shouldUseNewSigningApi())
+            throw new RuntimeException("Segwit not supported");
 
-                final List<String> sigs = new ArrayList<>(inputs.size());
-                for (final InputOutput in : inputs) {
-                    final byte[] sig = (in.isSegwit() ? swSigs : p2shSigs).remove(0);
-                    sigs.add(Wally.hex_from_bytes(sig));
-                }
-                return new SignTransactionResult(sigs, null);
-            } catch (final BTChipException e) {
-                e.printStackTrace();
-                throw new RuntimeException("Signing Error: " + e.getMessage());
-            }
+        final List<byte[]> swSigs = sw ? signSW(hwInteraction, wallyTx, inputs, outputs, transactions) : new ArrayList<>();
+        final List<byte[]> p2shSigs = p2sh ? signNonSW(hwInteraction, wallyTx, inputs, outputs,
+                transactions) : new ArrayList<>();
+
+        final List<String> sigs = new ArrayList<>(inputs.size());
+        for (final InputOutput in : inputs) {
+            final byte[] sig = (in.isSegwit() ? swSigs : p2shSigs).remove(0);
+            sigs.add(Wally.hex_from_bytes(sig));
         }
+        return new SignTransactionResult(sigs, null);
     }
+
+    private boolean usesCachedTrustedInputs(final List<InputOutput> inputs) {
+        for (final InputOutput in : inputs) {
+            if (mTrustedInputs.containsKey(outpoint(in)))
+                return true;
+        }
+        return false;
+    }
+
+    private static String outpoint(final InputOutput in) {
+        return in.getTxHash() + ":" + in.getPtIdxInt();
+    }
+
     // Helper to get the hw inputs
     private BTChipDongle.BTChipInput[] getHwInputs(final List<InputOutput> inputs,
                                                    final Map<String, String> transactions,
@@ -402,15 +439,27 @@ public class BTChipHWWallet extends GdkHardwareWallet {
         final boolean preferTrustedInputs = !segwit || mDongle.shouldUseTrustedInputForSegwit();
 
         if (preferTrustedInputs && mDongle.supportScreen()) {
+            // Previous transactions are parsed once, even when several of their outputs are spent
+            final Map<String, BitcoinTransaction> parents = new HashMap<>();
             for (int i = 0; i < hwInputs.length; ++i) {
                 final InputOutput in = inputs.get(i);
-                final String txHex = transactions.get(in.getTxHash());
-                if (txHex == null)
-                    throw new BTChipException(String.format("previous transaction %s not found", in.getTxHash()));
-
-                final ByteArrayInputStream is = new ByteArrayInputStream(Wally.hex_to_bytes(txHex));
-                hwInputs[i] = mDongle.getTrustedInput(new BitcoinTransaction(is), in.getPtIdxInt(),
-                                                      in.getSequenceInt(), segwit);
+                final String outpoint = outpoint(in);
+                byte[] trustedInput = mTrustedInputs.get(outpoint);
+                if (trustedInput == null) {
+                    BitcoinTransaction parent = parents.get(in.getTxHash());
+                    if (parent == null) {
+                        final String txHex = transactions.get(in.getTxHash());
+                        if (txHex == null)
+                            throw new BTChipException(String.format("previous transaction %s not found", in.getTxHash()));
+
+                        final ByteArrayInputStream is = new ByteArrayInputStream(Wally.hex_to_bytes(txHex));
+                        parent = new BitcoinTransaction(is);
+                        parents.put(in.getTxHash(), parent);
+                    }
+                    trustedInput = mDongle.getTrustedInput(parent, in.getPtIdxInt(), in.getSequenceInt(), segwit).getValue();
+                    mTrustedInputs.put(outpoint, trustedInput);
+                }
+                hwInputs[i] = mDongle.createInput(trustedInput, sequenceBytes(in), true, segwit);
             }
         } else {
             for (int i = 0; i < hwInputs.length; ++i) {
@@ -620,7 +669,7 @@ public class BTChipHWWallet extends GdkHardwareWallet {
         catch(final Exception e) {
                 Log.d(TAG, "Connection not connected");
                 try {
-                        mDongle.getTransport().close();
+                        mDongle.close();
                         Log.d(TAG, "Connection closed");
                 }
                 catch(final Exception e1) {
@@ -44,7 +44,7 @@ public class TrezorHWWallet extends GdkHardwareWallet {
     private final Map<String, TrezorType.HDNodeType> mUserXPubs = new HashMap<>();
     private final Map<String, TrezorType.HDNodeType> mServiceXPubs = new HashMap<>();
     private final Map<String, TrezorType.HDNodeType> mRecoveryXPubs = new HashMap<>();
-    private final Map<String, Object> mPrevTxs = new HashMap<>();
+    private final Map<ByteString, PrevTx> mPrevTxs = new HashMap<>();
 
     private final Device device;
     private final String model;
@@ -58,8 +58,8 @@ public class TrezorHWWallet extends GdkHardwareWallet {
     }
 
     @Override
-    public synchronized void disconnect() {
-        // No-op
+    public void disconnect() {
+        mTrezor.close();
     }
 
     @NonNull
@@ -131,10 +131,6 @@ public class TrezorHWWallet extends GdkHardwareWallet {
 
             return signTransactionImpl(network, hwInteraction, transaction, inputs, outputs, transactions);
         } finally {
-            // Free all wally txs to ensure we don't leak any memory
-            for (Map.Entry<String, Object> entry : mPrevTxs.entrySet()) {
-                Wally.tx_free(entry.getValue());
-            }
             mPrevTxs.clear();
         }
     }
@@ -154,7 +150,7 @@ public class TrezorHWWallet extends GdkHardwareWallet {
 
         if (transactions != null) {
             for (Map.Entry<String, String> t : transactions.entrySet())
-                mPrevTxs.put(t.getKey(), Wally.tx_from_hex(t.getValue(), Wally.WALLY_TX_FLAG_USE_WITNESS));
+                mPrevTxs.put(ByteString.copyFrom(Wally.hex_to_bytes(t.getKey())), PrevTx.fromHex(t.getValue()));
         }
 
         // Fetch and cache all required pubkeys before signing
@@ -190,21 +186,25 @@ public class TrezorHWWallet extends GdkHardwareWallet {
                 TrezorType.TransactionType.Builder ack = TrezorType.TransactionType.newBuilder();
 
                 if (r.getRequestType().equals(TrezorType.RequestType.TXINPUT)) {
-                    m = txio(ack.addInputs(createInput(network, hwInteraction, txRequest, inputs)));
+                    if (txRequest.hasTxHash())
+                        m = txio(ack.addInputs(findPrevTx(txRequest).inputs.get(txRequest.getRequestIndex())));
+                    else
+                        m = txio(ack.addInputs(createInput(network, hwInteraction, txRequest, inputs)));
                     continue;
                 } else if (r.getRequestType().equals(TrezorType.RequestType.TXOUTPUT)) {
                     if (txRequest.hasTxHash())
-                        m = txio(ack.addBinOutputs(createBinOutput(txRequest)));
+                        m = txio(ack.addBinOutputs(findPrevTx(txRequest).outputs.get(txRequest.getRequestIndex())));
                     else
                         m = txio(ack.addOutputs(createOutput(network, hwInteraction, txRequest, outputs)));
                     continue;
                 } else if (r.getRequestType().equals(TrezorType.RequestType.TXMETA)) {
                     if (txRequest.hasTxHash()) {
-                        final Object prevTx = findPrevTx(txRequest);
-                        m = txio(ack.setInputsCnt(Wally.tx_get_num_inputs(prevTx))
-                                 .setOutputsCnt(Wally.tx_get_num_outputs(prevTx))
-                                 .setVersion(Wally.tx_get_version(prevTx))
-                                 .setLockTime(Wally.tx_get_locktime(prevTx)));
+                        final PrevTx prevTx = findPrevTx(txRequest);
+                        ack.setInputsCnt(prevTx.inputs.size())
+                           .setOutputsCnt(prevTx.outputs.size())
+                           .setVersion(prevTx.version)
+                           .setLockTime(prevTx.lockTime);
+                        m = txio(ack);
                     } else {
                         m = txio(ack.setInputsCnt(inputs.size())
                                  .setOutputsCnt(outputs.size())
@@ -225,9 +225,11 @@ public class TrezorHWWallet extends GdkHardwareWallet {
         return mTrezor.io(TrezorMessage.TxAck.newBuilder().setTx(ack));
     }
 
-    private Object findPrevTx(final TrezorType.TxRequestDetailsType txRequest) {
-        final String key = Wally.hex_from_bytes(txRequest.getTxHash().toByteArray());
-        return mPrevTxs.get(key);
+    private PrevTx findPrevTx(final TrezorType.TxRequestDetailsType txRequest) {
+        final PrevTx prevTx = mPrevTxs.get(txRequest.getTxHash());
+        if (prevTx == null)
+            throw new IllegalStateException("Missing previous transaction " + Wally.hex_from_bytes(txRequest.getTxHash().toByteArray()));
+        return prevTx;
     }
 
     private TrezorType.HDNodeType getUserXpub(@Nullable HardwareWalletInteraction hwInteraction, final List<Integer> path) {
@@ -347,29 +349,11 @@ public class TrezorHWWallet extends GdkHardwareWallet {
         return b;
     }
 
-    private TrezorType.TxOutputBinType.Builder createBinOutput(final TrezorType.TxRequestDetailsType txRequest) {
-        final Object prevTx = findPrevTx(txRequest);
-        return TrezorType.TxOutputBinType.newBuilder()
-               .setAmount(Wally.tx_get_output_satoshi(prevTx, txRequest.getRequestIndex()))
-               .setScriptPubkey(ByteString.copyFrom(Wally.tx_get_output_script(prevTx, txRequest.getRequestIndex())));
-    }
-
     private TrezorType.TxInputType.Builder createInput(final Network network, @Nullable HardwareWalletInteraction hwInteraction,
                                                        final TrezorType.TxRequestDetailsType txRequest,
                                                        final List<InputOutput> inputs) {
         final int index = txRequest.getRequestIndex();
 
-        final boolean isPrevTx = txRequest.hasTxHash();
-        if (isPrevTx) {
-            final Object prevTx = findPrevTx(txRequest);
-            final byte[] txhash = GdkExtensionsKt.reverseBytes(Wally.tx_get_input_txhash(prevTx, index));
-            return TrezorType.TxInputType.newBuilder()
-                   .setPrevHash(ByteString.copyFrom(txhash))
-                   .setPrevIndex(Wally.tx_get_input_index(prevTx, index))
-                   .setSequence((int) Wally.tx_get_input_sequence(prevTx, index))
-                   .setScriptSig(ByteString.copyFrom(Wally.tx_get_input_script(prevTx, index)));
-        }
-
         final InputOutput in = inputs.get(index);
         TrezorType.TxInputType.Builder txin;
         txin = TrezorType.TxInputType.newBuilder()
@@ -525,4 +509,54 @@ public class TrezorHWWallet extends GdkHardwareWallet {
     public Device getDevice() {
         return device;
     }
+
+    /**
+     * A previous transaction decoded once per signing session, so that the device requests
+     * for its inputs, outputs and metadata are answered without going back through wally.
+     */
+    private static class PrevTx {
+        final int version;
+        final int lockTime;
+        final List<TrezorType.TxInputType> inputs;
+        final List<TrezorType.TxOutputBinType> outputs;
+
+        private PrevTx(final int version, final int lockTime,
+                       final List<TrezorType.TxInputType> inputs,
+                       final List<TrezorType.TxOutputBinType> outputs) {
+            this.version = version;
+            this.lockTime = lockTime;
+            this.inputs = inputs;
+            this.outputs = outputs;
+        }
+
+        static PrevTx fromHex(final String hex) {
+            final Object tx = Wally.tx_from_hex(hex, Wally.WALLY_TX_FLAG_USE_WITNESS);
+            try {
+                final int numInputs = Wally.tx_get_num_inputs(tx);
+                final List<TrezorType.TxInputType> inputs = new ArrayList<>(numInputs);
+                for (int i = 0; i < numInputs; ++i) {
+                    final byte[] txhash = GdkExtensionsKt.reverseBytes(Wally.tx_get_input_txhash(tx, i));
+                    inputs.add(TrezorType.TxInputType.newBuilder()
+                               .setPrevHash(ByteString.copyFrom(txhash))
+                               .setPrevIndex(Wally.tx_get_input_index(tx, i))
+                               .setSequence((int) Wally.tx_get_input_sequence(tx, i))
+                               .setScriptSig(ByteString.copyFrom(Wally.tx_get_input_script(tx, i)))
+                               .build());
+                }
+
+                final int numOutputs = Wally.tx_get_num_outputs(tx);
+                final List<TrezorType.TxOutputBinType> outputs = new ArrayList<>(numOutputs);
+                for (int i = 0; i < numOutputs; ++i) {
+                    outputs.add(TrezorType.TxOutputBinType.newBuilder()
+                                .setAmount(Wally.tx_get_output_satoshi(tx, i))
+                                .setScriptPubkey(ByteString.copyFrom(Wally.tx_get_output_script(tx, i)))
+                                .build());
+                }
+
+                return new PrevTx(Wally.tx_get_version(tx), Wally.tx_get_locktime(tx), inputs, outputs);
+            } finally {
+                Wally.tx_free(tx);
+            }
+        }
+    }
 }
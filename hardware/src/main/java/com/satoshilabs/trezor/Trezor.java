@@ -46,6 +46,13 @@ public class Trezor {
     private final UsbDeviceConnection mConn;
     private final String mSerial;
     private final UsbEndpoint mReadEndpoint, mWriteEndpoint;
+    private UsbRequest[] mWriteRequests, mReadRequests;
+    private final TrezorFraming.Decoder mDecoder = new TrezorFraming.Decoder();
+    private Features mFeatures;
+    private volatile boolean mClosed;
+
+    // Reports queued at once on each endpoint, to keep the interrupt endpoints busy
+    private static final int REQUESTS_IN_FLIGHT = 4;
 
     public static Trezor getDevice(final Context context) {
         final UsbManager manager = (UsbManager)context.getSystemService(Context.USB_SERVICE);
@@ -147,37 +154,64 @@ public class Trezor {
         Log.d(TAG, prefix + Wally.hex_from_bytes(data));
     }
 
+    // Requests are kept for the lifetime of the connection, each with its own report buffer
+    private UsbRequest[] createRequests(final UsbEndpoint endpoint) {
+        final UsbRequest[] requests = new UsbRequest[REQUESTS_IN_FLIGHT];
+        for (int i = 0; i < requests.length; ++i) {
+            requests[i] = new UsbRequest();
+            if (!requests[i].initialize(mConn, endpoint)) {
+                closeRequests(requests);
+                throw new RuntimeException("Failed initializing USB request");
+            }
+            requests[i].setClientData(ByteBuffer.allocate(TrezorFraming.REPORT_SIZE));
+        }
+        return requests;
+    }
+
+    private static void closeRequests(final UsbRequest[] requests) {
+        if (requests == null)
+            return;
+        for (final UsbRequest request : requests) {
+            if (request != null)
+                request.close();
+        }
+    }
+
+    // Release the connection, to be called once the device is disconnected
+    public void close() {
+        mClosed = true;
+        // Closing the connection first unblocks a requestWait in progress
+        mConn.close();
+        synchronized (this) {
+            closeRequests(mWriteRequests);
+            closeRequests(mReadRequests);
+            mWriteRequests = null;
+            mReadRequests = null;
+            mFeatures = null;
+        }
+    }
+
     private void messageWrite(final Message msg) {
-        final int msg_size = msg.getSerializedSize();
+        final byte[] payload = msg.toByteArray();
         final String msg_name = msg.getClass().getSimpleName();
         final int msg_id = MessageType.valueOf("MessageType_" + msg_name).getNumber();
-        Log.d(TAG, String.format("Got message: %s (%d bytes)", msg_name, msg_size));
-        final ByteBuffer data = ByteBuffer.allocate(32768);
-        data.put((byte)'#');
-        data.put((byte)'#');
-        data.put((byte)((msg_id >> 8) & 0xFF));
-        data.put((byte)(msg_id & 0xFF));
-        data.put((byte)((msg_size >> 24) & 0xFF));
-        data.put((byte)((msg_size >> 16) & 0xFF));
-        data.put((byte)((msg_size >> 8) & 0xFF));
-        data.put((byte)(msg_size & 0xFF));
-        data.put(msg.toByteArray());
-        while (data.position() % 63 > 0)
-            data.put((byte)0);
-        final UsbRequest request = new UsbRequest();
-        request.initialize(mConn, mWriteEndpoint);
-        final int chunks = data.position() / 63;
+        Log.d(TAG, String.format("Got message: %s (%d bytes)", msg_name, payload.length));
+        if (mWriteRequests == null)
+            mWriteRequests = createRequests(mWriteEndpoint);
+        final int chunks = TrezorFraming.reportCount(payload.length);
         Log.d(TAG, String.format("Writing %d chunks", chunks));
-        data.rewind();
+        int queued = 0;
         for (int i = 0; i < chunks; ++i) {
-            final byte[] buffer = new byte[64];
-            buffer[0] = (byte)'?';
-            data.get(buffer, 1, 63);
-            //logData("chunk:", buffer);
-            request.queue(ByteBuffer.wrap(buffer), 64);
-            mConn.requestWait();
+            // Reuse the pooled requests, waiting for one to complete once all are in flight
+            final UsbRequest request = queued < mWriteRequests.length ? mWriteRequests[queued++] : mConn.requestWait();
+            if (request == null)
+                throw new RuntimeException("Failed writing to device");
+            final ByteBuffer report = (ByteBuffer) request.getClientData();
+            TrezorFraming.encodeReport(report, msg_id, payload, i);
+            request.queue(report, TrezorFraming.REPORT_SIZE);
         }
-        request.close();
+        while (queued-- > 0)
+            mConn.requestWait();
     }
 
     private Message parseMessageFromBytes(final MessageType type, final byte[] data) {
@@ -212,61 +246,65 @@ public class Trezor {
     }
 
     private Message messageRead() {
-        final ByteBuffer data = ByteBuffer.allocate(32768);
-        final ByteBuffer buffer = ByteBuffer.allocate(64);
-        final ByteBuffer cur63 = ByteBuffer.allocate(64);
-        final UsbRequest request = new UsbRequest();
-        request.initialize(mConn, mReadEndpoint);
-        MessageType type;
-        int msg_size;
-        for (;;) {
-            buffer.clear();
-            if (!request.queue(buffer, 64)) continue;
-            mConn.requestWait();
-            final byte[] b = new byte[64];
-            buffer.rewind();
-            buffer.get(b);
-            Log.d(TAG, String.format("Read chunk: %d bytes", b.length));
-            if (b.length < 9) continue;
-            //logData("read:", b);
-
-            final int rem = cur63.remaining(), len = b[0]&0xFF;
-            cur63.put(b, 1, Math.min(len, rem));
-            if (cur63.position() >= 63) {
-                final byte[] b2 = cur63.array();
-                if (b2[0] != (byte) '#' || b2[1] != (byte) '#') continue;
-                type = MessageType.valueOf((b2[2] << 8) + b2[3]);
-                msg_size = ((b2[4] & 0xFF) << 24) + ((b2[5] & 0xFF) << 16) + ((b2[6] & 0xFF) << 8) + (b2[7] & 0xFF);
-                Log.d(TAG, String.format("msg_size: %d bytes", msg_size));
-                data.put(b2, 8, cur63.position() - 8);
-                if (rem < len) data.put(b, rem + 1, len - rem);
+        if (mReadRequests == null)
+            mReadRequests = createRequests(mReadEndpoint);
+        mDecoder.reset();
+        // Read the first report alone, then queue ahead as many reports as the header announces
+        final List<UsbRequest> idle = new ArrayList<>(Arrays.asList(mReadRequests));
+        int queued = 0;
+        queueRead(idle.remove(0));
+        queued++;
+        while (queued > 0) {
+            final UsbRequest request = mConn.requestWait();
+            if (request == null)
+                throw new RuntimeException("Failed reading from device");
+            queued--;
+            final boolean complete = mDecoder.decode(((ByteBuffer) request.getClientData()).array());
+            idle.add(request);
+            if (complete)
                 break;
+            // Reports still expected but not yet queued, one while waiting for the header
+            final int remaining = mDecoder.remainingReports();
+            int missing = (remaining < 0 ? 1 : remaining) - queued;
+            while (missing-- > 0 && !idle.isEmpty()) {
+                queueRead(idle.remove(0));
+                queued++;
             }
         }
-        while (data.position() < msg_size) {
-            request.queue(buffer, 64);
-            mConn.requestWait();
-            final byte[] b = buffer.array();
-            //Log.d(TAG, String.format("Read chunk (cont): %d bytes msg size %d", b.length, msg_size));
-            //logData("read(cont):", b);
-            data.put(b, 1, b[0] & 0xFF);
-        }
-        request.close();
-        return parseMessageFromBytes(type, Arrays.copyOfRange(data.array(), 0, msg_size));
+        final MessageType type = MessageType.valueOf(mDecoder.getType());
+        Log.d(TAG, String.format("msg_size: %d bytes", mDecoder.getPayload().length));
+        return parseMessageFromBytes(type, mDecoder.getPayload());
+    }
+
+    private void queueRead(final UsbRequest request) {
+        final ByteBuffer report = (ByteBuffer) request.getClientData();
+        report.clear();
+        request.queue(report, TrezorFraming.REPORT_SIZE);
     }
 
-    public Message io(Message.Builder m) {
+    public synchronized Message io(Message.Builder m) {
+        if (mClosed)
+            throw new IllegalStateException("Device connection closed");
         messageWrite(m.build());
-        return messageRead();
+        final Message response = messageRead();
+        if (response instanceof Features)
+            mFeatures = (Features) response;
+        return response;
+    }
+
+    // Features of the device, Initialize is only sent once per connection
+    public synchronized Features getFeatures() {
+        if (mFeatures == null)
+            io(Initialize.newBuilder());
+        return mFeatures;
     }
 
     public List<Integer> getFirmwareVersion() {
-        final Features r = (Features) io(Initialize.newBuilder());
+        final Features r = getFeatures();
         return ImmutableList.of(r.getMajorVersion(), r.getMinorVersion(),r.getPatchVersion());
     }
 
     public String getModel() {
-        final Features r = (Features) io(Initialize.newBuilder());
-        return r.getModel();
+        return getFeatures().getModel();
     }
 }
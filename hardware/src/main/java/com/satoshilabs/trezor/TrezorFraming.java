@@ -0,0 +1,101 @@
+package com.satoshilabs.trezor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Trezor v1 wire framing.
+ *
+ * Messages are split in 64 byte HID reports, each starting with the '?' report id followed by 63
+ * bytes of data. The first report carries the "##" magic, the message type and the payload size,
+ * so buffers are sized from the header instead of a fixed maximum message size.
+ */
+class TrezorFraming {
+
+    static final int REPORT_SIZE = 64;
+    private static final int DATA_SIZE = REPORT_SIZE - 1;
+    private static final int HEADER_SIZE = 8;
+    private static final byte REPORT_ID = (byte) '?';
+    private static final byte MAGIC = (byte) '#';
+
+    private TrezorFraming() { }
+
+    // Number of reports needed to send a message of msgSize bytes
+    static int reportCount(final int msgSize) {
+        return (HEADER_SIZE + msgSize + DATA_SIZE - 1) / DATA_SIZE;
+    }
+
+    // Write the report at index of the message into report, zero padded
+    static void encodeReport(final ByteBuffer report, final int msgType, final byte[] payload, final int index) {
+        report.clear();
+        report.put(REPORT_ID);
+        int offset;
+        if (index == 0) {
+            report.put(MAGIC);
+            report.put(MAGIC);
+            report.putShort((short) msgType);
+            report.putInt(payload.length);
+            offset = 0;
+        } else {
+            offset = DATA_SIZE - HEADER_SIZE + (index - 1) * DATA_SIZE;
+        }
+        final int length = Math.min(report.remaining(), payload.length - offset);
+        report.put(payload, offset, length);
+        while (report.hasRemaining())
+            report.put((byte) 0);
+        report.rewind();
+    }
+
+    /**
+     * Reassemble a message from the reports received, one report at a time.
+     */
+    static class Decoder {
+        private int msgType;
+        private byte[] payload;
+        private int offset;
+
+        void reset() {
+            payload = null;
+            offset = 0;
+        }
+
+        // Number of reports still expected once the header is known, -1 before
+        int remainingReports() {
+            if (payload == null)
+                return -1;
+            return (payload.length - offset + DATA_SIZE - 1) / DATA_SIZE;
+        }
+
+        /**
+         * @param report received report
+         * @return true once the message is complete
+         */
+        boolean decode(final byte[] report) {
+            final int length = Math.min(report[0] & 0xFF, DATA_SIZE);
+            int index = 1;
+            if (payload == null) {
+                // Waiting for the first report of a message, anything else is dropped
+                if (length < HEADER_SIZE || report[1] != MAGIC || report[2] != MAGIC)
+                    return false;
+                msgType = ((report[3] & 0xFF) << 8) + (report[4] & 0xFF);
+                final int msgSize = ((report[5] & 0xFF) << 24) + ((report[6] & 0xFF) << 16) + ((report[7] & 0xFF) << 8) + (report[8] & 0xFF);
+                if (msgSize < 0)
+                    return false;
+                payload = new byte[msgSize];
+                offset = 0;
+                index += HEADER_SIZE;
+            }
+            final int blockSize = Math.min(payload.length - offset, 1 + length - index);
+            System.arraycopy(report, index, payload, offset, blockSize);
+            offset += blockSize;
+            return offset == payload.length;
+        }
+
+        int getType() {
+            return msgType;
+        }
+
+        byte[] getPayload() {
+            return payload;
+        }
+    }
+}
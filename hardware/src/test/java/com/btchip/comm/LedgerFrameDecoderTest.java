@@ -0,0 +1,158 @@
+package com.btchip.comm;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class LedgerFrameDecoderTest {
+
+	private static final int CHANNEL = 0x0101;
+	private static final int HID_PACKET_SIZE = 64;
+	private static final int BLE_PACKET_SIZE = 20;
+
+	private static byte[] response(int size) {
+		byte[] response = new byte[size];
+		new Random(size).nextBytes(response);
+		return response;
+	}
+
+	// Responses are framed like commands
+	private static byte[][] packets(byte[] frames, int packetSize) {
+		byte[][] packets = new byte[frames.length / packetSize][];
+		for (int i = 0; i < packets.length; i++) {
+			packets[i] = Arrays.copyOfRange(frames, i * packetSize, (i + 1) * packetSize);
+		}
+		return packets;
+	}
+
+	private static byte[][] hidPackets(byte[] response) {
+		return packets(LedgerWrapper.wrapCommandAPDU(CHANNEL, response, HID_PACKET_SIZE), HID_PACKET_SIZE);
+	}
+
+	private static byte[][] blePackets(byte[] response) {
+		return packets(LedgerWrapper.wrapCommandAPDU(response, BLE_PACKET_SIZE), BLE_PACKET_SIZE);
+	}
+
+	private static byte[] decode(LedgerFrameDecoder decoder, byte[][] packets) {
+		for (int i = 0; i < packets.length - 1; i++) {
+			assertNull(decoder.decode(packets[i], packets[i].length));
+		}
+		byte[] last = packets[packets.length - 1];
+		return decoder.decode(last, last.length);
+	}
+
+	private static void assertInvalid(LedgerFrameDecoder decoder, byte[] packet, String message) {
+		try {
+			decoder.decode(packet, packet.length);
+			fail("Expected " + message);
+		}
+		catch(LedgerException e) {
+			assertEquals(LedgerException.ExceptionReason.IO_ERROR, e.getReason());
+			assertEquals(message, e.getMessage());
+		}
+	}
+
+	@Test
+	public void testSinglePacket() {
+		byte[] response = response(2);
+		assertArrayEquals(response, decode(new LedgerFrameDecoder(CHANNEL), hidPackets(response)));
+		assertArrayEquals(response, decode(new LedgerFrameDecoder(), blePackets(response)));
+	}
+
+	@Test
+	public void testEmptyResponse() {
+		byte[][] packets = hidPackets(new byte[0]);
+		assertEquals(1, packets.length);
+		assertArrayEquals(new byte[0], decode(new LedgerFrameDecoder(CHANNEL), packets));
+	}
+
+	@Test
+	public void testHeaderOnlyPacket() {
+		// The response ends exactly at the end of the first packet
+		byte[] response = response(HID_PACKET_SIZE - 7);
+		byte[][] packets = hidPackets(response);
+		assertEquals(1, packets.length);
+		assertArrayEquals(response, decode(new LedgerFrameDecoder(CHANNEL), packets));
+	}
+
+	@Test
+	public void testMultiPacketResponse() {
+		byte[] response = response(300);
+		assertArrayEquals(response, decode(new LedgerFrameDecoder(CHANNEL), hidPackets(response)));
+		assertArrayEquals(response, decode(new LedgerFrameDecoder(), blePackets(response)));
+	}
+
+	@Test
+	public void testResponseOver32KB() {
+		// Length with the high bit set and sequence indexes over 255
+		byte[] response = response(40000);
+		assertArrayEquals(response, decode(new LedgerFrameDecoder(CHANNEL), hidPackets(response)));
+		assertArrayEquals(response, decode(new LedgerFrameDecoder(), blePackets(response)));
+	}
+
+	@Test
+	public void testDecoderIsReusable() {
+		LedgerFrameDecoder decoder = new LedgerFrameDecoder(CHANNEL);
+		byte[] first = response(200);
+		byte[] second = response(100);
+		assertArrayEquals(first, decode(decoder, hidPackets(first)));
+		assertArrayEquals(second, decode(decoder, hidPackets(second)));
+	}
+
+	@Test
+	public void testReset() {
+		LedgerFrameDecoder decoder = new LedgerFrameDecoder(CHANNEL);
+		byte[][] abandoned = hidPackets(response(200));
+		assertNull(decoder.decode(abandoned[0], HID_PACKET_SIZE));
+		decoder.reset();
+		byte[] response = response(100);
+		assertArrayEquals(response, decode(decoder, hidPackets(response)));
+	}
+
+	@Test
+	public void testWrongChannel() {
+		byte[] packet = hidPackets(response(10))[0];
+		packet[0] ^= 1;
+		assertInvalid(new LedgerFrameDecoder(CHANNEL), packet, "Invalid channel");
+
+		packet = hidPackets(response(10))[0];
+		packet[1] ^= 1;
+		assertInvalid(new LedgerFrameDecoder(CHANNEL), packet, "Invalid channel");
+	}
+
+	@Test
+	public void testWrongTag() {
+		byte[] packet = hidPackets(response(10))[0];
+		packet[2] = 0x02;
+		assertInvalid(new LedgerFrameDecoder(CHANNEL), packet, "Invalid tag");
+
+		packet = blePackets(response(10))[0];
+		packet[0] = 0x02;
+		assertInvalid(new LedgerFrameDecoder(), packet, "Invalid tag");
+	}
+
+	@Test
+	public void testWrongSequence() {
+		byte[][] packets = hidPackets(response(300));
+
+		// Continuation packet first
+		assertInvalid(new LedgerFrameDecoder(CHANNEL), packets[1], "Invalid sequence");
+
+		// Packet skipped
+		LedgerFrameDecoder decoder = new LedgerFrameDecoder(CHANNEL);
+		assertNull(decoder.decode(packets[0], HID_PACKET_SIZE));
+		assertInvalid(decoder, packets[2], "Invalid sequence");
+	}
+
+	@Test
+	public void testTruncatedPacket() {
+		byte[] packet = hidPackets(response(10))[0];
+		assertInvalid(new LedgerFrameDecoder(CHANNEL), Arrays.copyOf(packet, 6), "Invalid packet size");
+	}
+}
@@ -0,0 +1,204 @@
+package com.btchip.comm.android;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.hardware.usb.UsbDevice;
+import android.hardware.usb.UsbDeviceConnection;
+import android.hardware.usb.UsbEndpoint;
+import android.hardware.usb.UsbInterface;
+import android.hardware.usb.UsbRequest;
+
+import com.btchip.BTChipException;
+import com.btchip.comm.BTChipTransportAsync;
+import com.btchip.comm.LedgerWrapper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedConstruction;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BTChipTransportAndroidHIDTest {
+
+	private static final long TIMEOUT_MS = 5000;
+	private static final byte[] COMMAND = { (byte)0xe0, (byte)0xc4, 0x00, 0x00, 0x00 };
+	private static final byte[] RESPONSE = { (byte)0x90, 0x00 };
+
+	private UsbDeviceConnection connection;
+	private MockedConstruction<UsbRequest> requests;
+	private final AtomicReference<UsbRequest> queued = new AtomicReference<>();
+	private volatile boolean deviceAnswers = true;
+	// Counted down when a read is waiting for the device, and when the connection is closed
+	private final CountDownLatch reading = new CountDownLatch(1);
+	private final CountDownLatch closed = new CountDownLatch(1);
+
+	@Before
+	public void setUp() {
+		requests = mockConstruction(UsbRequest.class, (request, context) -> {
+			when(request.initialize(any(), any())).thenReturn(true);
+			when(request.queue(any(), anyInt())).thenAnswer(invocation -> {
+				if (isRead(request) && deviceAnswers) {
+					ByteBuffer buffer = invocation.getArgument(0);
+					buffer.put(LedgerWrapper.wrapCommandAPDU(1, RESPONSE, 64));
+				}
+				queued.set(request);
+				return true;
+			});
+		});
+
+		// Writes complete at once, once the device stops answering reads block until the connection is closed
+		connection = mock(UsbDeviceConnection.class);
+		when(connection.requestWait()).thenAnswer(invocation -> {
+			UsbRequest request = queued.get();
+			if (isRead(request) && !deviceAnswers) {
+				reading.countDown();
+				awaitUninterruptibly(closed);
+				return null;
+			}
+			return request;
+		});
+		when(connection.releaseInterface(any())).thenReturn(true);
+		doAnswer(invocation -> {
+			closed.countDown();
+			return null;
+		}).when(connection).close();
+	}
+
+	@After
+	public void tearDown() {
+		closed.countDown();
+		requests.close();
+	}
+
+	// Like requestWait, which an interrupt doesn't unblock
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				latch.await();
+				break;
+			}
+			catch(InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// The requests are created out then in, by the first exchange
+	private boolean isRead(UsbRequest request) {
+		return requests.constructed().indexOf(request) == 1;
+	}
+
+	// Construction mocks are per thread, so the first exchange, which creates the requests, runs on the test thread
+	private BTChipTransportAndroidHID transport() throws Exception {
+		BTChipTransportAndroidHID transport = new BTChipTransportAndroidHID(mock(UsbDevice.class), connection, mock(UsbInterface.class), mock(UsbEndpoint.class), mock(UsbEndpoint.class), 0, true);
+		assertArrayEquals(RESPONSE, transport.exchange(COMMAND).get());
+		assertEquals(2, requests.constructed().size());
+		deviceAnswers = false;
+		return transport;
+	}
+
+	private static <T> Future<T> start(Callable<T> callable) {
+		FutureTask<T> task = new FutureTask<>(callable);
+		Thread thread = new Thread(task);
+		thread.setDaemon(true);
+		thread.start();
+		return task;
+	}
+
+	// Fails instead of hanging the test run if closing deadlocks
+	private static void closeWithin(Callable<Void> close) throws Exception {
+		try {
+			start(close).get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		}
+		catch(TimeoutException e) {
+			fail("close() blocked behind the exchange in progress");
+		}
+	}
+
+	@Test
+	public void testCloseUnblocksExchange() throws Exception {
+		BTChipTransportAndroidHID transport = transport();
+		Future<byte[]> exchange = start(() -> transport.exchange(COMMAND).get());
+		assertTrue(reading.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+		closeWithin(() -> {
+			transport.close();
+			return null;
+		});
+
+		try {
+			exchange.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			fail("Expected the exchange to fail");
+		}
+		catch(ExecutionException e) {
+			assertTrue(e.getCause() instanceof BTChipException);
+			assertEquals("Transport closed", e.getCause().getMessage());
+		}
+
+		// Released by the exchange as it returned
+		for (UsbRequest request : requests.constructed()) {
+			verify(request).cancel();
+			verify(request).close();
+		}
+	}
+
+	@Test
+	public void testCancelUnblocksAsyncExchange() throws Exception {
+		BTChipTransportAndroidHID transport = transport();
+		BTChipTransportAsync async = new BTChipTransportAsync(transport);
+		Future<byte[]> exchange = async.exchange(COMMAND);
+		assertTrue(reading.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+
+		closeWithin(() -> {
+			async.cancel();
+			return null;
+		});
+
+		assertTrue(exchange.isCancelled());
+		assertTrue(async.isClosed());
+		for (UsbRequest request : requests.constructed()) {
+			verify(request, timeout(TIMEOUT_MS)).close();
+		}
+	}
+
+	@Test
+	public void testCloseIsIdempotent() throws Exception {
+		BTChipTransportAndroidHID transport = transport();
+		transport.close();
+		transport.close();
+		verify(connection, times(1)).close();
+
+		try {
+			transport.exchange(COMMAND);
+			fail("Expected the exchange to fail");
+		}
+		catch(BTChipException e) {
+			assertEquals("Transport closed", e.getMessage());
+		}
+	}
+}
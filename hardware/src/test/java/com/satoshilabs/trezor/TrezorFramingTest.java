@@ -0,0 +1,151 @@
+package com.satoshilabs.trezor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TrezorFramingTest {
+
+    private static final int MSG_TYPE = 0x1234;
+
+    private static byte[] payload(final int size) {
+        final byte[] payload = new byte[size];
+        new Random(size).nextBytes(payload);
+        return payload;
+    }
+
+    private static List<byte[]> encode(final int msgType, final byte[] payload) {
+        final List<byte[]> reports = new ArrayList<>();
+        final ByteBuffer report = ByteBuffer.allocate(TrezorFraming.REPORT_SIZE);
+        for (int i = 0; i < TrezorFraming.reportCount(payload.length); ++i) {
+            TrezorFraming.encodeReport(report, msgType, payload, i);
+            reports.add(report.array().clone());
+        }
+        return reports;
+    }
+
+    private static TrezorFraming.Decoder decode(final List<byte[]> reports) {
+        final TrezorFraming.Decoder decoder = new TrezorFraming.Decoder();
+        for (int i = 0; i < reports.size(); ++i) {
+            final boolean complete = decoder.decode(reports.get(i));
+            assertEquals(i == reports.size() - 1, complete);
+            assertEquals(reports.size() - i - 1, decoder.remainingReports());
+        }
+        return decoder;
+    }
+
+    private static void assertRoundTrip(final int size) {
+        final byte[] payload = payload(size);
+        final List<byte[]> reports = encode(MSG_TYPE, payload);
+        for (final byte[] report : reports) {
+            assertEquals(TrezorFraming.REPORT_SIZE, report.length);
+            assertEquals('?', report[0]);
+        }
+        final TrezorFraming.Decoder decoder = decode(reports);
+        assertEquals(MSG_TYPE, decoder.getType());
+        assertArrayEquals(payload, decoder.getPayload());
+    }
+
+    @Test
+    public void testReportCount() {
+        assertEquals(1, TrezorFraming.reportCount(0));
+        assertEquals(1, TrezorFraming.reportCount(55));
+        assertEquals(2, TrezorFraming.reportCount(56));
+        assertEquals(2, TrezorFraming.reportCount(55 + 63));
+        assertEquals(3, TrezorFraming.reportCount(55 + 63 + 1));
+    }
+
+    @Test
+    public void testHeader() {
+        final byte[] report = encode(MSG_TYPE, payload(300)).get(0);
+        assertEquals('#', report[1]);
+        assertEquals('#', report[2]);
+        assertEquals(0x12, report[3]);
+        assertEquals(0x34, report[4]);
+        assertArrayEquals(new byte[] { 0, 0, 0x01, 0x2c }, new byte[] { report[5], report[6], report[7], report[8] });
+    }
+
+    @Test
+    public void testEmptyPayload() {
+        final List<byte[]> reports = encode(MSG_TYPE, new byte[0]);
+        assertEquals(1, reports.size());
+        // Zero padded after the header
+        for (int i = 9; i < TrezorFraming.REPORT_SIZE; ++i)
+            assertEquals(0, reports.get(0)[i]);
+        assertRoundTrip(0);
+    }
+
+    @Test
+    public void testHeaderOnlyReport() {
+        // The payload fits in the first report
+        assertRoundTrip(1);
+        assertRoundTrip(55);
+    }
+
+    @Test
+    public void testMultiReportMessage() {
+        assertRoundTrip(56);
+        assertRoundTrip(55 + 63);
+        assertRoundTrip(1000);
+    }
+
+    @Test
+    public void testPayloadOver32KB() {
+        assertRoundTrip(32 * 1024 + 1);
+        assertRoundTrip(100 * 1024);
+    }
+
+    @Test
+    public void testReportsBeforeHeaderAreDropped() {
+        final byte[] payload = payload(200);
+        final List<byte[]> reports = encode(MSG_TYPE, payload);
+        final TrezorFraming.Decoder decoder = new TrezorFraming.Decoder();
+
+        // A continuation report left over from a previous message
+        assertFalse(decoder.decode(reports.get(1)));
+        assertEquals(-1, decoder.remainingReports());
+
+        final byte[] badMagic = reports.get(0).clone();
+        badMagic[2] = 0;
+        assertFalse(decoder.decode(badMagic));
+        assertEquals(-1, decoder.remainingReports());
+
+        for (int i = 0; i < reports.size(); ++i)
+            assertEquals(i == reports.size() - 1, decoder.decode(reports.get(i)));
+        assertArrayEquals(payload, decoder.getPayload());
+    }
+
+    @Test
+    public void testNegativeSizeIsDropped() {
+        final byte[] report = encode(MSG_TYPE, payload(10)).get(0);
+        report[5] = (byte) 0x80;
+        final TrezorFraming.Decoder decoder = new TrezorFraming.Decoder();
+        assertFalse(decoder.decode(report));
+        assertEquals(-1, decoder.remainingReports());
+    }
+
+    @Test
+    public void testReset() {
+        final List<byte[]> first = encode(MSG_TYPE, payload(200));
+        final byte[] payload = payload(100);
+        final List<byte[]> second = encode(MSG_TYPE + 1, payload);
+
+        final TrezorFraming.Decoder decoder = new TrezorFraming.Decoder();
+        assertFalse(decoder.decode(first.get(0)));
+        decoder.reset();
+        assertEquals(-1, decoder.remainingReports());
+
+        assertFalse(decoder.decode(second.get(0)));
+        assertTrue(decoder.decode(second.get(1)));
+        assertEquals(MSG_TYPE + 1, decoder.getType());
+        assertArrayEquals(payload, decoder.getPayload());
+    }
+}
@@ -2,6 +2,12 @@ plugins {
     alias(libs.plugins.androidLibrary)
     alias(libs.plugins.kotlinMultiplatform)
     alias(libs.plugins.kotlinxSerialization)
+    alias(libs.plugins.kotlinAllopen)
+    alias(libs.plugins.kotlinx.benchmark)
+}
+
+allOpen {
+    annotation("org.openjdk.jmh.annotations.State")
 }
 
 kotlin {
@@ -15,7 +21,11 @@ kotlin {
         }
     }
 
-    jvm()
+    jvm {
+        compilations.create("benchmark") {
+            associateWith(this@jvm.compilations.getByName("main"))
+        }
+    }
     iosArm64()
     iosSimulatorArm64()
     iosX64()
@@ -30,6 +40,10 @@ kotlin {
         }
 
         commonMain.dependencies {
+            /**  --- Serialization ---------------------------------------------------------------------- */
+            implementation(project(":serialization"))
+            /** ----------------------------------------------------------------------------------------- */
+
             /**  --- Kotlin & KotlinX ------------------------------------------------------------------- */
             implementation(libs.kotlinx.coroutines.core)
             implementation(libs.kotlinx.serialization.core)
@@ -55,6 +69,12 @@ kotlin {
             /** ----------------------------------------------------------------------------------------- */
         }
 
+        val jvmBenchmark by getting {
+            dependencies {
+                implementation(libs.kotlinx.benchmark.runtime)
+            }
+        }
+
         val androidUnitTest by getting {
             dependencies {
                 implementation(libs.junit)
@@ -71,6 +91,12 @@ kotlin {
     }
 }
 
+benchmark {
+    targets {
+        register("jvmBenchmark")
+    }
+}
+
 android {
     namespace = "com.blockstream.jade"
     compileSdk = libs.versions.androidCompileSdk.get().toInt()
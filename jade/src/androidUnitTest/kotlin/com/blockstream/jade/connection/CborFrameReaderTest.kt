@@ -0,0 +1,73 @@
+package com.blockstream.jade.connection
+
+import com.blockstream.jade.api.BooleanResponse
+import com.blockstream.jade.api.ByteArrayResponse
+import com.blockstream.jade.api.HttpRequestNoDataResponse
+import com.blockstream.jade.api.JadeSerializer
+import com.blockstream.jade.api.LogResponse
+import com.blockstream.jade.api.VersionInfoResponse
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Test
+import kotlin.random.Random
+
+
+@OptIn(ExperimentalStdlibApi::class)
+class CborFrameReaderTest {
+
+    private val versionInfo =
+        "A2626964643130303066726573756C74AC6C4A4144455F56455253494F4E66312E302E3330724A4144455F4F54415F4D41585F4348554E4B1910006B4A4144455F434F4E46494763424C456A424F4152445F54595045644A4144456D4A4144455F46454154555245536253426B4944465F56455253494F4E6676352E312E336D434849505F46454154555245536833323030303030306845465553454D41436C3234364632383846363730346E424154544552595F535441545553036A4A4144455F5354415445664C4F434B45446D4A4144455F4E4554574F524B53644D41494E6C4A4144455F4841535F50494EF5".hexToByteArray()
+
+    @Test
+    fun test_frame_split_at_every_boundary() {
+        (1..versionInfo.size).forEach { chunkSize ->
+            val reader = CborFrameReader(initialCapacity = 16)
+
+            val frames = (versionInfo.indices step chunkSize).mapNotNull {
+                reader.append(versionInfo.copyOfRange(it, minOf(it + chunkSize, versionInfo.size)))
+                reader.nextFrame()
+            }
+
+            assertEquals(1, frames.size)
+            assertArrayEquals(versionInfo, frames.first())
+            assertEquals(0, reader.size)
+            assertEquals(
+                "1.0.30",
+                JadeSerializer.decode<VersionInfoResponse>(frames.first()).result.jadeVersion
+            )
+        }
+    }
+
+    @Test
+    fun test_multiple_frames_in_one_chunk() {
+        val log = LogResponse(log = "jade log").toCbor()
+        val bytes = ByteArrayResponse(id = "1", result = Random(1).nextBytes(4096)).toCbor()
+        val boolean = BooleanResponse(id = "2", result = true).toCbor()
+
+        val reader = CborFrameReader()
+        reader.append(log + bytes + boolean.copyOfRange(0, 3))
+
+        assertArrayEquals(log, reader.nextFrame())
+        assertArrayEquals(bytes, reader.nextFrame())
+        assertNull(reader.nextFrame())
+
+        reader.append(boolean.copyOfRange(3, boolean.size))
+        assertArrayEquals(boolean, reader.nextFrame())
+        assertNull(reader.nextFrame())
+    }
+
+    @Test
+    fun test_frame_type() {
+        assertEquals(CborFrameReader.FrameType.LOG, CborFrameReader.frameType(LogResponse(log = "log").toCbor()))
+        assertEquals(CborFrameReader.FrameType.RESPONSE, CborFrameReader.frameType(versionInfo))
+        assertEquals(CborFrameReader.FrameType.RESPONSE, CborFrameReader.frameType(BooleanResponse(id = "1", result = true).toCbor()))
+
+        val httpRequest =
+            "a2626964643130313166726573756c74a16c687474705f72657175657374a266706172616d73a46475726c7382782f68747470733a2f2f6a61646570696e2e626c6f636b73747265616d2e636f6d2f73746172745f68616e647368616b657855687474703a2f2f6d727278747136746a70626e626d377668356a74366d706a63746e3767677966793577656776626566663378376a727a6e7161776c6d69642e6f6e696f6e2f73746172745f68616e647368616b65666d6574686f6464504f535466616363657074646a736f6e646461746160686f6e2d7265706c796e68616e647368616b655f696e6974".hexToByteArray()
+
+        assertNotNull(JadeSerializer.decodeOrNull(HttpRequestNoDataResponse.serializer(), httpRequest))
+        assertEquals(CborFrameReader.FrameType.HTTP_REQUEST, CborFrameReader.frameType(httpRequest))
+    }
+}
@@ -6,4 +6,10 @@ package com.blockstream.jade
 const val TIMEOUT_AUTONOMOUS: Int = 6_000 // 6 secs
 const val TIMEOUT_AUTONOMOUS_LONG: Int = 10_000 // 10 secs
 const val TIMEOUT_USER_INTERACTION = 120_000 // 2 mins
-const val TIMEOUT_NONE = -1
\ No newline at end of file
+const val TIMEOUT_NONE = -1
+
+// Max number of requests written ahead of their replies in pipelined mode
+const val JADE_PIPELINE_WINDOW = 4
+
+// Max number of ota_data chunks in flight during a firmware upload
+const val JADE_OTA_WINDOW = 2
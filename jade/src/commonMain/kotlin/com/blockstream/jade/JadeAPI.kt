@@ -61,7 +61,9 @@ import kotlinx.serialization.DeserializationStrategy
 import kotlinx.serialization.json.JsonElement
 import kotlinx.serialization.json.jsonObject
 import kotlinx.serialization.json.jsonPrimitive
+import kotlin.time.Duration
 import kotlin.time.DurationUnit
+import kotlin.time.TimeSource
 import kotlin.time.toDuration
 
 
@@ -180,6 +182,8 @@ class JadeAPI internal constructor(
     }
 
     // OTA firmware update
+    // Chunks are sliced from the firmware as they are needed and up to `window` of them are kept
+    // in flight, window = 1 waits for every chunk to be acknowledged before sending the next one.
     @Throws(Exception::class)
     suspend fun otaUpdate(
         firmware: ByteArray,
@@ -187,7 +191,8 @@ class JadeAPI internal constructor(
         firmwareHash: String?,
         patchSize: Int?,
         compressedHash: ByteArray,
-        cb: (written: Int, totalSize: Int) -> Unit
+        window: Int = JADE_OTA_WINDOW,
+        cb: (written: Int, totalSize: Int, bytesPerSecond: Long, chunkLatency: Duration) -> Unit
     ): Boolean {
 
         val chunkSize = getVersionInfo(useCache = true).jadeOtaMaxChunk
@@ -209,11 +214,40 @@ class JadeAPI internal constructor(
             return false
         }
 
+        val chunks = (firmware.size + chunkSize - 1) / chunkSize
+        val requests = arrayOfNulls<OtaDataRequest>(chunks)
+        val start = TimeSource.Monotonic.markNow()
         var written = 0
-        firmware.toList().chunked(chunkSize).forEach {
-            jadeRpc(OtaDataRequest(params = it.toByteArray()), BooleanResponse.serializer())
-            written += it.size
-            cb.invoke(written, firmware.size)
+
+        jade.makePipelinedRpcCalls(
+            count = chunks,
+            request = { index ->
+                val offset = index * chunkSize
+                OtaDataRequest(params = firmware.copyOfRange(offset, minOf(offset + chunkSize, firmware.size))).also {
+                    requests[index] = it
+                }
+            },
+            serializer = BooleanResponse.serializer(),
+            window = window
+        ) { index, response, latency ->
+            val request = requests[index]!!.also {
+                requests[index] = null
+            }
+
+            resultOrThrow(request, response)
+
+            written += request.params.size
+
+            val elapsed = start.elapsedNow().inWholeMilliseconds.coerceAtLeast(1)
+            cb.invoke(written, firmware.size, written * 1000L / elapsed, latency)
+        }.also { completed ->
+            if (!completed) {
+                // An error reply would have been thrown by resultOrThrow, so this is a timeout
+                throw JadeError(
+                    JadeError.JADE_RPC_MSG_TIMEOUT,
+                    "Timeout - no response received for ota_data"
+                )
+            }
         }
 
         return jadeRpc(OtaCompleteRequest(), BooleanResponse.serializer())
@@ -252,6 +286,22 @@ class JadeAPI internal constructor(
         return jadeRpc(request, ByteArrayResponse.serializer())
     }
 
+    // Get the blinding keys for many scripts, requests are pipelined
+    @Throws(Exception::class)
+    suspend fun getBlindingKeys(scripts: List<ByteArray>): List<ByteArray> {
+        return jadeRpcPipelined(scripts.map { script ->
+            BlindingKeyRequest(params = BlindingKeyRequestParams(script = script))
+        }, ByteArrayResponse.serializer())
+    }
+
+    // Get the shared nonces for many script and pubkey pairs, requests are pipelined
+    @Throws(Exception::class)
+    suspend fun getSharedNonces(scripts: List<ByteArray>, pubkeys: List<ByteArray>): List<ByteArray> {
+        return jadeRpcPipelined(scripts.zip(pubkeys) { script, pubkey ->
+            SharedNonceRequest(params = SharedNonceRequestParams(script = script, theirPubKey = pubkey))
+        }, ByteArrayResponse.serializer())
+    }
+
     // Sign a transaction
     suspend fun signTx(network: String, txn: ByteArray, inputs: List<TxInput>, change: List<ChangeOutput?>): SignedTransactionInputs {
         // 1st message contains txn and number of inputs we are going to send.
@@ -317,24 +367,18 @@ class JadeAPI internal constructor(
          * We request the signatures passing the host-entropy for each one.
          */
 
-        // Send inputs one at a time, receiving 'signer-commitment' in reply
-        val signerCommitments = mutableListOf<ByteArray>()
-        for(input in inputs){
-            val request = TxInputRequest(id = jadeId(), method = "tx_input", params = input.copy(aeHostEntropy = null))
-            signerCommitments += jadeRpc(request, ByteArrayResponse.serializer())
-        }
+        // Send inputs pipelined, receiving 'signer-commitment' in reply
+        val signerCommitments = jadeRpcPipelined(inputs.map { input ->
+            TxInputRequest(id = jadeId(), method = "tx_input", params = input.copy(aeHostEntropy = null))
+        }, ByteArrayResponse.serializer())
 
-        // Request the signatures one at a time, sending the entropy
-        val signatures = mutableListOf<ByteArray>()
-        for (input in inputs) {
-            // Response in ByteArray
-            val signature = jadeRpc(
-                SignatureRequest(
-                    params = SignatureRequestParams(aeHostEntropy = input.aeHostEntropy)
-                ), ByteArrayResponse.serializer()
+        // Request the signatures pipelined, sending the entropy
+        val signatures = jadeRpcPipelined(inputs.map { input ->
+            SignatureRequest(
+                params = SignatureRequestParams(aeHostEntropy = input.aeHostEntropy)
             )
-            signatures += signature
-        }
+        }, ByteArrayResponse.serializer())
+
         return SignedTransactionInputs.create(signatures, signerCommitments)
     }
 
@@ -496,6 +540,20 @@ class JadeAPI internal constructor(
         }
     }
 
+    // Send the requests ahead of their replies, results are returned in request order
+    private suspend fun <R: Response<*, P>, P> jadeRpcPipelined(
+        requests: List<Request<*, *>>,
+        serializer: DeserializationStrategy<R>,
+        window: Int = JADE_PIPELINE_WINDOW
+    ): List<P> {
+        val responses = jade.makePipelinedRpcCalls(requests = requests, serializer = serializer, window = window)
+
+        return requests.mapIndexed { index, request ->
+            @Suppress("UNCHECKED_CAST")
+            resultOrThrow(request, responses[index]) as P
+        }
+    }
+
     // Helper to make http requests (with retries)
     // NOTE: Uses GDKSession's httpRequest() call to ensure Tor use as appropriate.
     private suspend fun makeHttpRequest(
@@ -1,13 +1,12 @@
 package com.blockstream.jade
 
-import com.blockstream.jade.api.AuthRequest
-import com.blockstream.jade.api.HandshakeInitRequest
 import com.blockstream.jade.api.HttpRequestDataResponse
 import com.blockstream.jade.api.HttpRequestNoDataResponse
 import com.blockstream.jade.api.JadeSerializer
 import com.blockstream.jade.api.LogResponse
 import com.blockstream.jade.api.Request
 import com.blockstream.jade.api.Response
+import com.blockstream.jade.connection.CborFrameReader
 import com.blockstream.jade.connection.JadeBleConnection
 import com.blockstream.jade.connection.JadeConnection
 import com.juul.kable.Peripheral
@@ -16,6 +15,9 @@ import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.sync.Mutex
 import kotlinx.coroutines.sync.withLock
 import kotlinx.serialization.DeserializationStrategy
+import kotlin.time.Duration
+import kotlin.time.TimeMark
+import kotlin.time.TimeSource
 
 /**
  * Mid-level interface to Jade
@@ -27,6 +29,8 @@ import kotlinx.serialization.DeserializationStrategy
 class JadeInterface internal constructor(private val connection: JadeConnection) {
     private val mutex = Mutex()
 
+    private val frameReader = CborFrameReader()
+
     private val isConnected: Boolean
         get() = connection.isConnected
 
@@ -51,6 +55,7 @@ class JadeInterface internal constructor(private val connection: JadeConnection)
 
     fun drain(): ByteArray {
         logger.d { "Draining interface" }
+        frameReader.clear()
         return connection.drain()
     }
 
@@ -60,17 +65,110 @@ class JadeInterface internal constructor(private val connection: JadeConnection)
         serializer: DeserializationStrategy<R>,
         timeout: Int,
         drain: Boolean = false
-    ): Response<*, *>? = mutex.withLock {
+    ): Response<*, *>? = makePipelinedRpcCalls(
+        requests = listOf(request),
+        serializer = serializer,
+        window = 1,
+        timeout = timeout,
+        drain = drain
+    ).first()
+
+    /**
+     * Pipelined mode: writes up to [window] requests ahead of their replies and matches the
+     * replies to the requests by id. Replies with an unknown id (eg. stale replies of a
+     * previously timed-out request) are discarded.
+     * Once a request fails no further requests are written, but replies of the ones already in
+     * flight are still collected so that the stream stays in sync.
+     * Returns the responses in request order, null for requests without a reply.
+     */
+    @Throws(Exception::class)
+    suspend fun <R : Response<*, P>, P> makePipelinedRpcCalls(
+        requests: List<Request<*, *>>,
+        serializer: DeserializationStrategy<R>,
+        window: Int = JADE_PIPELINE_WINDOW,
+        timeout: Int? = null,
+        drain: Boolean = false
+    ): List<Response<*, *>?> {
+        val responses = arrayOfNulls<Response<*, *>>(requests.size)
+
+        makePipelinedRpcCalls(
+            count = requests.size,
+            request = { requests[it] },
+            serializer = serializer,
+            window = window,
+            timeout = timeout,
+            drain = drain
+        ) { index, response, _ ->
+            responses[index] = response
+        }
+
+        return responses.toList()
+    }
+
+    /**
+     * Pipelined mode for a lazily built sequence of [count] requests, so that large payloads
+     * (eg. OTA chunks) are only materialized when there is room in the window.
+     * [onResponse] is called in arrival order along with the time the request spent in flight.
+     * Returns false if it stopped early due to a timeout or an error reply.
+     */
+    @Throws(Exception::class)
+    suspend fun <R : Response<*, P>, P> makePipelinedRpcCalls(
+        count: Int,
+        request: (index: Int) -> Request<*, *>,
+        serializer: DeserializationStrategy<R>,
+        window: Int = JADE_PIPELINE_WINDOW,
+        timeout: Int? = null,
+        drain: Boolean = false,
+        onResponse: (index: Int, response: Response<*, *>, latency: Duration) -> Unit
+    ): Boolean = mutex.withLock {
         // If requested, drain any existing outstanding messages first
         if (drain) {
             drain()
         }
 
-        // Send the request
-        writeRequest(request)
+        // Request id to in-flight request, in the order they were written
+        val inFlight = LinkedHashMap<String, InFlightRequest>()
+        var next = 0
+        var hasFailed = false
+
+        while ((!hasFailed && next < count) || inFlight.isNotEmpty()) {
+            // Fill the window
+            while (!hasFailed && next < count && inFlight.size < window.coerceAtLeast(1)) {
+                val nextRequest = request(next)
+
+                if (inFlight.containsKey(nextRequest.id)) {
+                    throw Exception("Duplicate in-flight request id: ${nextRequest.id}")
+                }
+
+                // Send the request
+                writeRequest(nextRequest)
+                inFlight[nextRequest.id] = InFlightRequest(index = next++, request = nextRequest, sent = TimeSource.Monotonic.markNow())
+            }
+
+            // Await the response of the oldest request, Jade handles them in order
+            val oldest = inFlight.values.first().request
+            val response = readResponse(oldest, serializer, timeout ?: oldest.timeout)
+
+            if (response == null) {
+                logger.w { "Timeout waiting for ${inFlight.size} in-flight requests" }
+                return@withLock false
+            }
+
+            val completed = inFlight.remove(response.id)
+
+            if (completed == null) {
+                logger.w { "Discarding response with unexpected id: ${response.id}" }
+                continue
+            }
+
+            onResponse(completed.index, response, completed.sent.elapsedNow())
 
-        // Await the response
-        readResponse(request, serializer, timeout)
+            if (response.error != null) {
+                hasFailed = true
+            }
+        }
+
+        !hasFailed
     }
 
     @Throws(Exception::class)
@@ -96,74 +194,80 @@ class JadeInterface internal constructor(private val connection: JadeConnection)
             throw Exception("JadeInterface not connected")
         }
 
-        logger.d { "Awaiting response - timeout(ms): $timeout" }
-        var collected = byteArrayOf()
+        logger.d { "Awaiting response for id: ${request.id} - timeout(ms): $timeout" }
 
         while (true) {
-            // Collect response bytes so we can try to parse them as a cbor message
-            val next = connection.read(timeout)
+            // Dispatch any complete frame already buffered before waiting for more bytes
+            while (true) {
+                val frame = frameReader.nextFrame() ?: break
 
-            if (next == null) {
-                // Timeout or other critical error
-                logger.w { "read() operation returned no next byte - timeout(ms): $timeout" }
-                return null
-            }
+                logger.d { "Received frame: ${frame.toHexString()}" }
 
-            collected += next
+                try {
+                    when (CborFrameReader.frameType(frame)) {
+                        CborFrameReader.FrameType.LOG -> {
+                            JadeSerializer.decodeOrNull(LogResponse.serializer(), frame)?.also {
+                                logger.d { "LOG: ${it.log}" }
+                            }
+                        }
 
-            try {
-                // Try to parse as into response message
-                val response: R? = JadeSerializer.decodeOrNull(serializer, collected.also {
-                    logger.d { "Received data: ${it.toHexString()}" }
-                })
+                        CborFrameReader.FrameType.HTTP_REQUEST -> {
+                            val httpResponse = JadeSerializer.decodeOrNull(
+                                serializer = HttpRequestDataResponse.serializer(),
+                                cbor = frame
+                            )?.toHttpRequestDataResponse() ?: JadeSerializer.decodeOrNull(
+                                serializer = HttpRequestNoDataResponse.serializer(),
+                                cbor = frame
+                            )?.toHttpRequestDataResponse()
 
-                // Platform specific cbor de-serializer
-                val json: String? = null
-                // json = CborMapper.readTree(collected.toByteArray())
+                            if (httpResponse != null) {
+                                logger.d { "HttpResponse $httpResponse" }
+                                return httpResponse
+                            }
 
-                // Is it a response to a request ?
-                if (response != null) {
-                    // A proper response
-                    logger.i { "Response received: $response $json" }
-                    return response
-                }
+                            logger.e { "HttpRequest not recognized by Kotlin.Serialization: ${frame.toHexString()}" }
+                        }
+
+                        CborFrameReader.FrameType.RESPONSE -> {
+                            val response: R? = JadeSerializer.decodeOrNull(serializer, frame)
+
+                            if (response != null) {
+                                // A proper response
+                                logger.i { "Response received: $response" }
+                                return response
+                            }
 
-                // If request is AuthRequest check if it's a HttpRequestResponse
-                if (request is AuthRequest || request is HandshakeInitRequest) {
-                    val httpResponse = JadeSerializer.decodeOrNull(
-                        serializer = HttpRequestDataResponse.serializer(),
-                        cbor = collected
-                    )?.toHttpRequestDataResponse() ?: JadeSerializer.decodeOrNull(
-                        serializer = HttpRequestNoDataResponse.serializer(),
-                        cbor = collected
-                    )?.toHttpRequestDataResponse()
-
-                    if (httpResponse != null) {
-                        logger.d { "HttpResponse $httpResponse" }
-                        return httpResponse
+                            logger.e { "Message not recognized by Kotlin.Serialization. Check Response Class: ${frame.toHexString()}" }
+                        }
                     }
+                } catch (e: Exception) {
+                    logger.w { "Error: ${e.message}" }
+                    e.printStackTrace()
+                    throw e
                 }
+            }
 
-                if (json != null) {
-                    logger.e { "Message not recognized by Kotlin.Serialization. Check Response Class: $json" }
-                }
+            // Collect response bytes so we can try to frame them as a cbor message
+            val next = connection.read(timeout)
 
-                val log = JadeSerializer.decodeOrNull(LogResponse.serializer(), collected)
+            if (next == null) {
+                // Timeout or other critical error
+                logger.w { "read() operation returned no next byte - timeout(ms): $timeout" }
+                return null
+            }
 
-                if (log != null) {
-                    // Clear the collected bytes
-                    collected = byteArrayOf()
+            logger.d { "Received data: ${next.size} bytes" }
 
-                    logger.d { "LOG: ${log.log}" }
-                }
-            } catch (e: Exception) {
-                logger.w { "Error: ${e.message}" }
-                e.printStackTrace()
-                throw e
-            }
+            frameReader.append(next)
         }
     }
 
+    private class InFlightRequest(
+        val index: Int,
+        val request: Request<*, *>,
+        val sent: TimeMark
+    )
+
     companion object : Loggable() {
 
         fun fromBle(
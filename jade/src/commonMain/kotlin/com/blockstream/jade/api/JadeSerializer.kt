@@ -1,5 +1,7 @@
 package com.blockstream.jade.api
 
+import com.blockstream.serialization.CborCodecs
+import com.blockstream.serialization.JsonCodecs
 import kotlinx.serialization.DeserializationStrategy
 import kotlinx.serialization.ExperimentalSerializationApi
 import kotlinx.serialization.KSerializer
@@ -17,12 +19,8 @@ abstract class JadeSerializer<T> {
 
     abstract fun kSerializer(): KSerializer<T>
 
-    private val json
-        get() = Json {
-            encodeDefaults = encodeDefaultsValues()
-            explicitNulls = explicitNulls()
-            ignoreUnknownKeys = true
-        }
+    private val json: Json
+        get() = JsonCodecs.get(encodeDefaults = encodeDefaultsValues(), explicitNulls = explicitNulls())
 
     @Suppress("UNCHECKED_CAST")
     fun toJson(): String = json.encodeToString(kSerializer(), this as T)
@@ -31,12 +29,7 @@ abstract class JadeSerializer<T> {
     fun toJsonElement(): JsonElement = json.encodeToJsonElement(kSerializer(), this as T)
 
     @Suppress("UNCHECKED_CAST")
-    fun toCbor() = Cbor {
-        encodeDefaults = encodeDefaultsValues()
-        ignoreUnknownKeys = true
-        useDefiniteLengthEncoding = true
-        alwaysUseByteString = true
-    }.encodeToByteArray(kSerializer(), this as T)
+    fun toCbor() = cborCodecs.get(encodeDefaults = encodeDefaultsValues()).encodeToByteArray(kSerializer(), this as T)
 
 
     @ExperimentalStdlibApi
@@ -69,6 +62,11 @@ abstract class JadeSerializer<T> {
             null
         }
 
+        private val cborCodecs = CborCodecs {
+            useDefiniteLengthEncoding = true
+            alwaysUseByteString = true
+        }
+
         private var _id = 1000
         fun jadeId() = (_id++).toString()
     }
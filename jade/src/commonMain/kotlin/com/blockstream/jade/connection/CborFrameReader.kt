@@ -0,0 +1,334 @@
+package com.blockstream.jade.connection
+
+import com.blockstream.jade.Loggable
+
+/**
+ * Incremental CBOR framer for the Jade byte stream.
+ *
+ * Chunks are appended as they arrive from the transport and the CBOR item structure is scanned
+ * only once, resuming from where the previous chunk stopped. When a complete top-level item is
+ * available, [nextFrame] returns exactly its bytes so that it can be decoded a single time.
+ * Any trailing bytes are kept for the next frame.
+ */
+internal class CborFrameReader(initialCapacity: Int = INITIAL_CAPACITY) {
+    private var buffer = ByteArray(initialCapacity)
+
+    // Start of the frame currently being scanned
+    private var head = 0
+
+    // End of valid data
+    private var tail = 0
+
+    // Next unscanned byte
+    private var position = 0
+
+    // Remaining items of each open container, INDEFINITE for indefinite-length containers
+    private var pending = LongArray(8)
+    private var depth = 0
+
+    val size: Int
+        get() = tail - head
+
+    fun append(bytes: ByteArray) {
+        if (bytes.isEmpty()) return
+
+        ensureCapacity(bytes.size)
+        bytes.copyInto(buffer, destinationOffset = tail)
+        tail += bytes.size
+    }
+
+    // Returns the next complete CBOR frame or null if more data is needed
+    @Throws(IllegalStateException::class)
+    fun nextFrame(): ByteArray? {
+        val end = try {
+            scan()
+        } catch (e: IllegalStateException) {
+            logger.w { "Malformed CBOR stream, discarding ${size} bytes: ${e.message}" }
+            clear()
+            throw e
+        } ?: return null
+
+        return buffer.copyOfRange(head, end).also {
+            head = end
+            position = end
+            depth = 0
+
+            if (head == tail) {
+                head = 0
+                tail = 0
+                position = 0
+            }
+        }
+    }
+
+    fun clear() {
+        head = 0
+        tail = 0
+        position = 0
+        depth = 0
+    }
+
+    private fun ensureCapacity(extra: Int) {
+        if (tail + extra <= buffer.size) return
+
+        val used = tail - head
+
+        // Compact before growing, consumed frames are never read again
+        val target = if (used + extra <= buffer.size / 2) {
+            buffer
+        } else {
+            var capacity = buffer.size * 2
+            while (capacity < used + extra) {
+                capacity *= 2
+            }
+            ByteArray(capacity)
+        }
+
+        buffer.copyInto(target, destinationOffset = 0, startIndex = head, endIndex = tail)
+        buffer = target
+        position -= head
+        tail = used
+        head = 0
+    }
+
+    // Resume scanning from the last position, returns the end offset of a complete frame
+    private fun scan(): Int? {
+        while (position < tail) {
+            val initial = buffer[position].toInt() and 0xff
+            val major = initial ushr 5
+            val info = initial and 0x1f
+
+            val argumentSize = when {
+                info < 24 -> 0
+                info == 24 -> 1
+                info == 25 -> 2
+                info == 26 -> 4
+                info == 27 -> 8
+                info == 31 -> 0
+                else -> throw IllegalStateException("Reserved additional info $info")
+            }
+
+            if (position + 1 + argumentSize > tail) return null
+
+            val argument = if (info < 24) info.toLong() else readArgument(position + 1, argumentSize)
+            val isIndefinite = info == 31
+            var next = position + 1 + argumentSize
+
+            val isComplete = when (major) {
+                MAJOR_UNSIGNED, MAJOR_NEGATIVE -> completeItem()
+                MAJOR_BYTES, MAJOR_TEXT -> {
+                    if (isIndefinite) {
+                        push(INDEFINITE)
+                        false
+                    } else {
+                        if (argument < 0 || argument > Int.MAX_VALUE) {
+                            throw IllegalStateException("String length out of range")
+                        }
+                        // Wait until the whole payload is available
+                        if (next + argument > tail) return null
+                        next += argument.toInt()
+                        completeItem()
+                    }
+                }
+
+                MAJOR_ARRAY, MAJOR_MAP -> {
+                    val items = if (major == MAJOR_MAP) argument * 2 else argument
+                    when {
+                        isIndefinite -> {
+                            push(INDEFINITE)
+                            false
+                        }
+
+                        items < 0 -> throw IllegalStateException("Container size out of range")
+                        items == 0L -> completeItem()
+                        else -> {
+                            push(items)
+                            false
+                        }
+                    }
+                }
+
+                // A tag applies to the following item, it doesn't complete anything on its own
+                MAJOR_TAG -> false
+                else -> {
+                    if (isIndefinite) {
+                        // "break" closes the innermost indefinite container
+                        if (depth == 0 || pending[depth - 1] != INDEFINITE) {
+                            throw IllegalStateException("Unexpected break")
+                        }
+                        depth--
+                    }
+                    completeItem()
+                }
+            }
+
+            position = next
+
+            if (isComplete) {
+                return position
+            }
+        }
+
+        return null
+    }
+
+    // Account a finished item against its enclosing containers, returns true if the top-level item is done
+    private fun completeItem(): Boolean {
+        while (depth > 0) {
+            val remaining = pending[depth - 1]
+
+            if (remaining == INDEFINITE) return false
+
+            if (remaining > 1) {
+                pending[depth - 1] = remaining - 1
+                return false
+            }
+
+            // Container is complete, it counts as an item of its parent
+            depth--
+        }
+
+        return true
+    }
+
+    private fun push(items: Long) {
+        if (depth == pending.size) {
+            pending = pending.copyOf(pending.size * 2)
+        }
+        pending[depth++] = items
+    }
+
+    private fun readArgument(offset: Int, size: Int): Long {
+        var value = 0L
+        for (i in 0 until size) {
+            value = (value shl 8) or (buffer[offset + i].toLong() and 0xff)
+        }
+        return value
+    }
+
+    enum class FrameType {
+        LOG, HTTP_REQUEST, RESPONSE
+    }
+
+    companion object : Loggable() {
+        const val INITIAL_CAPACITY = 1024
+
+        private const val INDEFINITE = -1L
+
+        private const val MAJOR_UNSIGNED = 0
+        private const val MAJOR_NEGATIVE = 1
+        private const val MAJOR_BYTES = 2
+        private const val MAJOR_TEXT = 3
+        private const val MAJOR_ARRAY = 4
+        private const val MAJOR_MAP = 5
+        private const val MAJOR_TAG = 6
+
+        private val KEY_LOG = "log".encodeToByteArray()
+        private val KEY_RESULT = "result".encodeToByteArray()
+        private val KEY_HTTP_REQUEST = "http_request".encodeToByteArray()
+
+        // Peek at the top-level keys of a complete frame to pick the model it should be decoded into
+        fun frameType(frame: ByteArray): FrameType {
+            val entries = mapSize(frame, 0) ?: return FrameType.RESPONSE
+            var offset = headerEnd(frame, 0)
+
+            repeat(entries) {
+                val key = offset
+                val value = skip(frame, key)
+
+                when {
+                    isTextKey(frame, key, KEY_LOG) -> return FrameType.LOG
+                    isTextKey(frame, key, KEY_RESULT) -> {
+                        mapSize(frame, value)?.also { resultEntries ->
+                            var resultOffset = headerEnd(frame, value)
+                            repeat(resultEntries) {
+                                if (isTextKey(frame, resultOffset, KEY_HTTP_REQUEST)) {
+                                    return FrameType.HTTP_REQUEST
+                                }
+                                resultOffset = skip(frame, skip(frame, resultOffset))
+                            }
+                        }
+                    }
+                }
+
+                offset = skip(frame, value)
+            }
+
+            return FrameType.RESPONSE
+        }
+
+        // Number of entries of a definite length map at offset, null otherwise
+        private fun mapSize(frame: ByteArray, offset: Int): Int? {
+            if (offset >= frame.size) return null
+            val initial = frame[offset].toInt() and 0xff
+            if (initial ushr 5 != MAJOR_MAP || initial and 0x1f == 31) return null
+            return argument(frame, offset).toInt()
+        }
+
+        private fun isTextKey(frame: ByteArray, offset: Int, key: ByteArray): Boolean {
+            val initial = frame[offset].toInt() and 0xff
+            if (initial ushr 5 != MAJOR_TEXT || initial and 0x1f == 31) return false
+            if (argument(frame, offset) != key.size.toLong()) return false
+
+            val start = headerEnd(frame, offset)
+            for (i in key.indices) {
+                if (frame[start + i] != key[i]) return false
+            }
+            return true
+        }
+
+        private fun argumentSize(info: Int): Int = when (info) {
+            24 -> 1
+            25 -> 2
+            26 -> 4
+            27 -> 8
+            else -> 0
+        }
+
+        private fun argument(frame: ByteArray, offset: Int): Long {
+            val info = frame[offset].toInt() and 0x1f
+            if (info < 24) return info.toLong()
+
+            var value = 0L
+            for (i in 1..argumentSize(info)) {
+                value = (value shl 8) or (frame[offset + i].toLong() and 0xff)
+            }
+            return value
+        }
+
+        private fun headerEnd(frame: ByteArray, offset: Int): Int =
+            offset + 1 + argumentSize(frame[offset].toInt() and 0x1f)
+
+        // Returns the offset just after the item starting at offset, the frame is known to be complete
+        private fun skip(frame: ByteArray, offset: Int): Int {
+            val initial = frame[offset].toInt() and 0xff
+            val major = initial ushr 5
+            val isIndefinite = initial and 0x1f == 31
+            var next = headerEnd(frame, offset)
+
+            if (isIndefinite) {
+                if (major == 7) return next
+                while (frame[next].toInt() and 0xff != 0xff) {
+                    next = skip(frame, next)
+                }
+                return next + 1
+            }
+
+            val argument = argument(frame, offset)
+
+            return when (major) {
+                MAJOR_BYTES, MAJOR_TEXT -> next + argument.toInt()
+                MAJOR_ARRAY, MAJOR_MAP -> {
+                    val items = if (major == MAJOR_MAP) argument * 2 else argument
+                    for (i in 0 until items) {
+                        next = skip(frame, next)
+                    }
+                    next
+                }
+
+                MAJOR_TAG -> skip(frame, next)
+                else -> next
+            }
+        }
+    }
+}
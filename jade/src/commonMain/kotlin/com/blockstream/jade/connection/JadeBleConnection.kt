@@ -82,8 +82,16 @@ class JadeBleConnection internal constructor(
 
     override suspend fun write(bytes: ByteArray): Int {
         try {
-            bytes.toList().chunked(JADE_MTU).forEach {
-                peripheral.write(WriteCharacteristics, it.toByteArray(), writeType = WriteType.WithResponse)
+            if (bytes.size <= JADE_MTU) {
+                peripheral.write(WriteCharacteristics, bytes, writeType = WriteType.WithResponse)
+            } else {
+                for (offset in bytes.indices step JADE_MTU) {
+                    peripheral.write(
+                        WriteCharacteristics,
+                        bytes.copyOfRange(offset, minOf(offset + JADE_MTU, bytes.size)),
+                        writeType = WriteType.WithResponse
+                    )
+                }
             }
 
             return bytes.size.also {
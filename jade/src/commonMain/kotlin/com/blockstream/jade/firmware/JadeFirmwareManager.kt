@@ -18,13 +18,14 @@ import kotlinx.serialization.json.jsonObject
 import kotlinx.serialization.json.jsonPrimitive
 import org.kotlincrypto.hash.sha2.SHA256
 import kotlin.io.encoding.Base64
+import kotlin.time.Duration
 
 // A firmware instance on the file server
 // Meta data, and optionally the actual fw binary
 
 sealed class FirmwareUpdateState {
     data class Initiate(val firmwareFileData: FirmwareFileData, val hash: String):  FirmwareUpdateState()
-    data class Uploading(val written: Int, val totalSize: Int):  FirmwareUpdateState()
+    data class Uploading(val written: Int, val totalSize: Int, val bytesPerSecond: Long = 0, val chunkLatency: Duration = Duration.ZERO):  FirmwareUpdateState()
     data class Failed(val userCancelled: Boolean, val error: String, val firmwareFileData: FirmwareFileData):  FirmwareUpdateState()
     data class Uploaded(val success: Boolean, val firmwareFileData: FirmwareFileData): FirmwareUpdateState()
     data class Completed(val requireReconnection: Boolean, val requireBleRebonding: Boolean): FirmwareUpdateState()
@@ -234,8 +235,8 @@ class JadeFirmwareManager constructor(
                 fwFile.image.fwhash,
                 fwFile.image.patchSize,
                 cmphash
-            ) { written, totalSize ->
-                firmwareInteraction.firmwareUpdateState(FirmwareUpdateState.Uploading(written, totalSize))
+            ) { written, totalSize, bytesPerSecond, chunkLatency ->
+                firmwareInteraction.firmwareUpdateState(FirmwareUpdateState.Uploading(written, totalSize, bytesPerSecond, chunkLatency))
             }
             
             logger.i { "Jade OTA Update returned: $updated" }
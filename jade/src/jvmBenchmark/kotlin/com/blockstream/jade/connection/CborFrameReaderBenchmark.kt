@@ -0,0 +1,111 @@
+package com.blockstream.jade.connection
+
+import com.blockstream.jade.api.ByteArrayResponse
+import com.blockstream.jade.api.HttpRequestDataResponse
+import com.blockstream.jade.api.JadeSerializer
+import com.blockstream.jade.api.LogResponse
+import com.blockstream.jade.api.StringResponse
+import com.blockstream.jade.api.VersionInfoResponse
+import kotlinx.benchmark.Benchmark
+import kotlinx.benchmark.BenchmarkMode
+import kotlinx.benchmark.Blackhole
+import kotlinx.benchmark.Mode
+import kotlinx.benchmark.OutputTimeUnit
+import kotlinx.benchmark.Param
+import kotlinx.benchmark.Scope
+import kotlinx.benchmark.Setup
+import kotlinx.benchmark.State
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+/**
+ * Replays multi-KB Jade responses split at transport sized boundaries (serial reads, BLE
+ * notifications, BLE MTU) and compares the legacy accumulate-and-retry parsing with [CborFrameReader].
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@OptIn(ExperimentalStdlibApi::class)
+class CborFrameReaderBenchmark {
+
+    @Param("20", "185", "512")
+    var chunkSize: Int = 0
+
+    private lateinit var chunks: List<ByteArray>
+
+    @Setup
+    fun setup() {
+        val random = Random(42)
+
+        // get_version_info reply as captured from a Jade
+        val versionInfo = VERSION_INFO.hexToByteArray()
+
+        // Large signature/commitment style replies
+        val bytes = ByteArrayResponse(id = "1001", result = random.nextBytes(8 * 1024)).toCbor()
+
+        // Large string reply, eg. an encoded psbt
+        val string = StringResponse(id = "1002", result = random.nextBytes(3 * 1024).toHexString()).toCbor()
+
+        val log = LogResponse(log = "I (12345) jade: lorem ipsum dolor sit amet").toCbor()
+
+        val stream = listOf(log, versionInfo, log, bytes, log, string).fold(byteArrayOf()) { acc, frame -> acc + frame }
+
+        chunks = (stream.indices step chunkSize).map {
+            stream.copyOfRange(it, minOf(it + chunkSize, stream.size))
+        }
+    }
+
+    @Benchmark
+    fun legacyAccumulate(blackhole: Blackhole) {
+        var collected = byteArrayOf()
+
+        for (next in chunks) {
+            collected += next
+
+            val response = JadeSerializer.decodeOrNull(VersionInfoResponse.serializer(), collected)
+                ?: JadeSerializer.decodeOrNull(ByteArrayResponse.serializer(), collected)
+                ?: JadeSerializer.decodeOrNull(StringResponse.serializer(), collected)
+
+            if (response != null) {
+                blackhole.consume(response)
+                collected = byteArrayOf()
+                continue
+            }
+
+            blackhole.consume(JadeSerializer.decodeOrNull(HttpRequestDataResponse.serializer(), collected))
+
+            JadeSerializer.decodeOrNull(LogResponse.serializer(), collected)?.also {
+                blackhole.consume(it)
+                collected = byteArrayOf()
+            }
+        }
+    }
+
+    @Benchmark
+    fun frameReader(blackhole: Blackhole) {
+        val reader = CborFrameReader()
+
+        for (next in chunks) {
+            reader.append(next)
+
+            while (true) {
+                val frame = reader.nextFrame() ?: break
+
+                when (CborFrameReader.frameType(frame)) {
+                    CborFrameReader.FrameType.LOG -> blackhole.consume(JadeSerializer.decodeOrNull(LogResponse.serializer(), frame))
+                    CborFrameReader.FrameType.HTTP_REQUEST -> blackhole.consume(JadeSerializer.decodeOrNull(HttpRequestDataResponse.serializer(), frame))
+                    CborFrameReader.FrameType.RESPONSE -> blackhole.consume(
+                        JadeSerializer.decodeOrNull(VersionInfoResponse.serializer(), frame)
+                            ?: JadeSerializer.decodeOrNull(ByteArrayResponse.serializer(), frame)
+                            ?: JadeSerializer.decodeOrNull(StringResponse.serializer(), frame)
+                    )
+                }
+            }
+        }
+    }
+
+    companion object {
+        private const val VERSION_INFO =
+            "A2626964643130303066726573756C74AC6C4A4144455F56455253494F4E66312E302E3330724A4144455F4F54415F4D41585F4348554E4B1910006B4A4144455F434F4E46494763424C456A424F4152445F54595045644A4144456D4A4144455F46454154555245536253426B4944465F56455253494F4E6676352E312E336D434849505F46454154555245536833323030303030306845465553454D41436C3234364632383846363730346E424154544552595F535441545553036A4A4144455F5354415445664C4F434B45446D4A4144455F4E4554574F524B53644D41494E6C4A4144455F4841535F50494EF5"
+    }
+}
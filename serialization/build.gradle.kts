@@ -0,0 +1,40 @@
+plugins {
+    alias(libs.plugins.androidLibrary)
+    alias(libs.plugins.kotlinMultiplatform)
+}
+
+kotlin {
+    jvmToolchain(libs.versions.jvm.get().toInt())
+
+    androidTarget {
+        compilations.configureEach {
+            kotlinOptions {
+                jvmTarget = JavaVersion.VERSION_17.majorVersion
+            }
+        }
+    }
+
+    jvm()
+    iosArm64()
+    iosSimulatorArm64()
+    iosX64()
+
+    sourceSets {
+
+        commonMain.dependencies {
+            /**  --- Kotlin & KotlinX ------------------------------------------------------------------- */
+            api(libs.kotlinx.serialization.json)
+            api(libs.kotlinx.serialization.cbor)
+            /** ----------------------------------------------------------------------------------------- */
+        }
+    }
+}
+
+android {
+    namespace = "com.blockstream.serialization"
+    compileSdk = libs.versions.androidCompileSdk.get().toInt()
+
+    defaultConfig {
+        minSdk = libs.versions.androidMinSdk.get().toInt()
+    }
+}
@@ -0,0 +1,38 @@
+package com.blockstream.serialization
+
+import kotlinx.serialization.ExperimentalSerializationApi
+import kotlinx.serialization.cbor.Cbor
+import kotlinx.serialization.cbor.CborBuilder
+import kotlinx.serialization.json.Json
+
+// Codecs are immutable and cache their serializer descriptors, so one instance per configuration
+// is shared instead of building a new one on every encode, which dominates small payloads
+
+object JsonCodecs {
+    @OptIn(ExperimentalSerializationApi::class)
+    private val codecs = listOf(false, true).flatMap { encodeDefaults ->
+        listOf(false, true).map { explicitNulls ->
+            Json {
+                this.encodeDefaults = encodeDefaults
+                this.explicitNulls = explicitNulls
+                ignoreUnknownKeys = true
+            }
+        }
+    }
+
+    fun get(encodeDefaults: Boolean, explicitNulls: Boolean): Json =
+        codecs[(if (encodeDefaults) 2 else 0) + (if (explicitNulls) 1 else 0)]
+}
+
+@OptIn(ExperimentalSerializationApi::class)
+class CborCodecs(configure: CborBuilder.() -> Unit = {}) {
+    private val codecs = listOf(false, true).map { encodeDefaults ->
+        Cbor {
+            this.encodeDefaults = encodeDefaults
+            ignoreUnknownKeys = true
+            configure()
+        }
+    }
+
+    fun get(encodeDefaults: Boolean): Cbor = codecs[if (encodeDefaults) 1 else 0]
+}
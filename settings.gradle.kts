@@ -16,4 +16,4 @@ dependencyResolutionManagement {
         mavenCentral()
     }
 }
-include(":green", ":base", ":compose", ":hardware", ":jade", ":gms" ,":no-gms", ":common", ":gdk")
+include(":green", ":base", ":compose", ":hardware", ":serialization", ":jade", ":gms" ,":no-gms", ":common", ":gdk")